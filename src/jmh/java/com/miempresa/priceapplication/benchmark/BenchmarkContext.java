@@ -0,0 +1,79 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.PriceApplication;
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Arranca la aplicación sin servidor web sobre una base de datos H2 propia para un benchmark.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Arranca un contexto con una base de datos en memoria nueva y las propiedades adicionales indicadas,
+     * que se pasan como argumentos de línea de comandos para que prevalezcan sobre application.properties.
+     */
+    public static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        return start(properties, WebApplicationType.NONE);
+    }
+
+    /**
+     * Arranca un contexto con el tipo de aplicación web indicado. Con servidor web se usa un puerto libre,
+     * disponible después en la propiedad {@code local.server.port}.
+     */
+    public static ConfigurableApplicationContext start(Map<String, Object> properties, WebApplicationType type) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> overrides = new HashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.jpa.show-sql", "false",
+                "spring.main.banner-mode", "off",
+                "logging.level.root", "WARN",
+                "logging.level.com.miempresa.priceapplication", "WARN"));
+        if (type != WebApplicationType.NONE) {
+            overrides.put("server.port", "0");
+        }
+        overrides.putAll(properties);
+        String[] args = overrides.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(PriceApplication.class)
+                .web(type)
+                .run(args);
+    }
+
+    /**
+     * Inserta los precios directamente por JDBC, en lotes, sin pasar por JPA. Como no pasan por el índice,
+     * reconstruye después el filtro de pares para que no los descarte.
+     */
+    public static void load(ConfigurableApplicationContext context, List<Price> prices) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        int batchSize = 5_000;
+        for (int from = 0; from < prices.size(); from += batchSize) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            for (Price price : prices.subList(from, Math.min(prices.size(), from + batchSize))) {
+                batch.add(new Object[]{price.getBrandId(), Timestamp.valueOf(price.getStartDate()),
+                        Timestamp.valueOf(price.getEndDate()), price.getPriceList(), price.getProductId(),
+                        price.getPriority(), Money.toDecimal(price.getPrice()), price.getCurrency()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, "
+                    + "priority, price, currency) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+        context.getBean(PriceIndex.class).reload();
+        context.getBean(PriceIndex.class).rebuildKeyFilter();
+    }
+}
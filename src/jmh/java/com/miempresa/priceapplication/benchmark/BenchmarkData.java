@@ -0,0 +1,73 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.model.Price;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador determinista de datos sintéticos para los benchmarks.
+ *
+ * Cada par (producto, marca) recibe {@link #ROWS_PER_KEY} precios repartidos a lo largo de un año.
+ * La densidad de solapamiento indica cuántos precios cubren, de media, un mismo instante.
+ * Con la misma semilla se generan siempre las mismas filas y las mismas consultas.
+ */
+public final class BenchmarkData {
+
+    public static final int ROWS_PER_KEY = 20;
+
+    public static final int BRANDS = 4;
+
+    public static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final long HORIZON_MINUTES = 365L * 24 * 60;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Genera {@code rows} precios con la densidad de solapamiento indicada.
+     */
+    public static List<Price> prices(int rows, int overlap, long seed) {
+        Random random = new Random(seed);
+        List<Price> prices = new ArrayList<>(rows);
+        long step = HORIZON_MINUTES / ROWS_PER_KEY;
+        for (int i = 0; i < rows; i++) {
+            int key = i / ROWS_PER_KEY;
+            int slot = i % ROWS_PER_KEY;
+            LocalDateTime start = BASE.plusMinutes(slot * step);
+            LocalDateTime end = start.plusMinutes(overlap * step - 1);
+            prices.add(new Price(null, brandId(key), start, end, 1 + random.nextInt(4), productId(key),
+                    random.nextInt(4), 1000L + random.nextInt(9000), "EUR"));
+        }
+        return prices;
+    }
+
+    /**
+     * Genera {@code count} consultas sobre pares existentes y fechas del año cubierto.
+     */
+    public static Query[] queries(int rows, int count, long seed) {
+        Random random = new Random(seed);
+        int keys = Math.max(1, rows / ROWS_PER_KEY);
+        Query[] queries = new Query[count];
+        for (int i = 0; i < count; i++) {
+            int key = random.nextInt(keys);
+            LocalDateTime date = BASE.plusMinutes((long) (random.nextDouble() * HORIZON_MINUTES));
+            queries[i] = new Query(productId(key), brandId(key), date, date.toString());
+        }
+        return queries;
+    }
+
+    static int productId(int key) {
+        return 100_000 + key / BRANDS;
+    }
+
+    static int brandId(int key) {
+        return 1 + key % BRANDS;
+    }
+
+    public record Query(Integer productId, Integer brandId, LocalDateTime date, String isoDate) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.service.IsoDateTimeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del parseo de la fecha ISO 8601 que recibe cada consulta de precios: {@code LocalDateTime.parse}
+ * frente a {@link IsoDateTimeParser} sin caché y con caché. Con {@code -prof gc} se ve además cuántos bytes
+ * se asignan por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateParsingBenchmark {
+
+    private final IsoDateTimeParser uncachedParser = new IsoDateTimeParser(0);
+    private final IsoDateTimeParser cachedParser = new IsoDateTimeParser(1024);
+    private String[] dates;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.Query[] queries = BenchmarkData.queries(100_000, 1024, 7);
+        dates = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            dates[i] = queries[i].isoDate();
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTimeParse() {
+        String date = dates[position];
+        position = (position + 1) & (dates.length - 1);
+        return LocalDateTime.parse(date);
+    }
+
+    @Benchmark
+    public LocalDateTime isoDateTimeParser() {
+        String date = dates[position];
+        position = (position + 1) & (dates.length - 1);
+        return uncachedParser.parse(date);
+    }
+
+    @Benchmark
+    public LocalDateTime isoDateTimeParserCached() {
+        String date = dates[position];
+        position = (position + 1) & (dates.length - 1);
+        return cachedParser.parse(date);
+    }
+}
@@ -0,0 +1,102 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.PriceView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de los importes en {@code double} (antes) frente a unidades mínimas en {@code long} ({@link Money}, ahora):
+ * serialización JSON de una vista de precio, conversión del DECIMAL que devuelve JDBC y ordenación por importe.
+ * {@code DoublePriceView} reproduce la vista anterior, serializada por Jackson sin serializador propio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PriceView[] views = new PriceView[SIZE];
+    private final DoublePriceView[] doubleViews = new DoublePriceView[SIZE];
+    private final BigDecimal[] decimals = new BigDecimal[SIZE];
+    private int position;
+
+    public record DoublePriceView(long id, int brandId, LocalDateTime startDate, LocalDateTime endDate, int priceList,
+                                  int productId, int priority, double price, String currency) {
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < SIZE; i++) {
+            long units = 1000 + random.nextInt(9000);
+            LocalDateTime start = BenchmarkData.BASE.plusHours(i);
+            views[i] = new PriceView(i, 1, start, start.plusDays(30), 1, 35455, 0, units, "EUR");
+            doubleViews[i] = new DoublePriceView(i, 1, start, start.plusDays(30), 1, 35455, 0, units / 100.0, "EUR");
+            decimals[i] = Money.toDecimal(units);
+        }
+    }
+
+    private int next() {
+        int current = position;
+        position = (current + 1) & (SIZE - 1);
+        return current;
+    }
+
+    @Benchmark
+    public byte[] serializeDouble() throws Exception {
+        return objectMapper.writeValueAsBytes(doubleViews[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializeFixedPoint() throws Exception {
+        return objectMapper.writeValueAsBytes(views[next()]);
+    }
+
+    @Benchmark
+    public double readDecimalAsDouble() {
+        return decimals[next()].doubleValue();
+    }
+
+    @Benchmark
+    public long readDecimalAsUnits() {
+        return Money.fromDecimal(decimals[next()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public DoublePriceView[] sortByDouble() {
+        DoublePriceView[] copy = doubleViews.clone();
+        Arrays.sort(copy, Comparator.comparingDouble(DoublePriceView::price));
+        return copy;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PriceView[] sortByUnits() {
+        PriceView[] copy = views.clone();
+        Arrays.sort(copy, Comparator.comparingLong(PriceView::price));
+        return copy;
+    }
+}
@@ -0,0 +1,124 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.service.PriceArchiveService;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de la fecha actual y de fechas pasadas según cuánto histórico caducado acumula cada par, con el
+ * histórico en la tabla price ({@code hot}) o movido a price_archive ({@code archived}). La caché admite una
+ * cuarta parte de los pares, así que la mayoría de las consultas cargan la línea temporal del par: sin archivar,
+ * con todo su histórico.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceArchiveBenchmark {
+
+    private static final int KEYS = 4096;
+
+    @Param({"10", "100"})
+    public int history;
+
+    @Param({"hot", "archived"})
+    public String tier;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private Query[] current;
+    private Query[] historical;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        Query next(Query[] queries) {
+            Query query = queries[position];
+            position = (position + 1) & (queries.length - 1);
+            return query;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "price.index.resident", "false",
+                "price.cache.maximum-size", String.valueOf(KEYS / 4)));
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        // Un precio diario por par que terminó hace al menos dos días, más el vigente
+        LocalDateTime first = today.minusDays(history + 2);
+        Random random = new Random(42);
+        List<Price> prices = new ArrayList<>(KEYS * (history + 1));
+        for (int key = 0; key < KEYS; key++) {
+            for (int day = 0; day < history; day++) {
+                LocalDateTime start = first.plusDays(day);
+                prices.add(new Price(null, BenchmarkData.brandId(key), start, start.plusDays(1).minusSeconds(1), 1,
+                        BenchmarkData.productId(key), 0, 1000L + random.nextInt(9000), "EUR"));
+            }
+            prices.add(new Price(null, BenchmarkData.brandId(key), today.minusDays(1), today.plusYears(1), 2,
+                    BenchmarkData.productId(key), 0, 1000L + random.nextInt(9000), "EUR"));
+        }
+        BenchmarkContext.load(context, prices);
+        priceService = context.getBean(PriceService.class);
+        if (tier.equals("archived")) {
+            PriceArchiveReport report = context.getBean(PriceArchiveService.class).archive();
+            System.out.printf("%n[archive] %d precios de %d pares en %d lotes y %d ms%n",
+                    report.getRows(), report.getKeys(), report.getBatches(), report.getElapsedMillis());
+        }
+
+        current = new Query[1 << 12];
+        historical = new Query[1 << 12];
+        for (int i = 0; i < current.length; i++) {
+            int key = random.nextInt(KEYS);
+            LocalDateTime now = today.plusMinutes(random.nextInt(24 * 60));
+            current[i] = new Query(BenchmarkData.productId(key), BenchmarkData.brandId(key), now, now.toString());
+            LocalDateTime past = first.plusMinutes(random.nextInt(history * 24 * 60));
+            historical[i] = new Query(BenchmarkData.productId(key), BenchmarkData.brandId(key), past, past.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PriceView> currentDate(Cursor cursor) {
+        Query query = cursor.next(current);
+        return priceService.findApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+    }
+
+    @Benchmark
+    public List<PriceView> historicalDate(Cursor cursor) {
+        Query query = cursor.next(historical);
+        return priceService.findApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+    }
+}
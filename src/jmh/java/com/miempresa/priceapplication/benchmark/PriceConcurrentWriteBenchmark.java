@@ -0,0 +1,88 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Altas concurrentes con createPrice desde {@value #THREADS} hilos, en altas por segundo, según el número de
+ * particiones de la cola de escritura y el tamaño máximo de grupo. Con {@code shards=1} y {@code maxBatch=1}
+ * cada alta es una transacción y todas se serializan, como un único cerrojo global.
+ *
+ * {@code newKeys} da altas nuevas en 1000 productos; {@code sameKey} repite en todos los hilos el mismo puñado
+ * de claves, de modo que casi todas las altas se rechazan como duplicadas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(PriceConcurrentWriteBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class PriceConcurrentWriteBenchmark {
+
+    static final int THREADS = 16;
+
+    @Param({"1", "4"})
+    private int shards;
+
+    @Param({"1", "64"})
+    private int maxBatch;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "price.write.shards", shards,
+                "price.write.max-batch", maxBatch,
+                "price.write.enqueue-timeout", "30s"));
+        priceService = context.getBean(PriceService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Price newKeys() {
+        long n = sequence.incrementAndGet();
+        LocalDateTime start = BenchmarkData.BASE.plusSeconds(n);
+        return priceService.createPrice(new Price(null, 3, start, start.plusDays(30), 1,
+                1 + (int) (n % 1000), 0, 1999L, "EUR"));
+    }
+
+    @Benchmark
+    public Price sameKey() {
+        long n = sequence.incrementAndGet();
+        LocalDateTime start = BenchmarkData.BASE.plusSeconds(n % 8);
+        try {
+            return priceService.createPrice(new Price(null, 4, start, start.plusDays(30), 1, 1, 0, 1999L, "EUR"));
+        } catch (InvalidPriceRequestException duplicate) {
+            return null;
+        }
+    }
+}
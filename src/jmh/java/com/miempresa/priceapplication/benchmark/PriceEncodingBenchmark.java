@@ -0,0 +1,111 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas HTTP repetidas de los mismos pares, como las de un servicio interno que sondea precios: JSON, CBOR
+ * y revalidación con If-None-Match (304 sin cuerpo). El servidor corre en la misma JVM, de modo que
+ * {@code -prof gc} reparte por petición también la memoria que reserva el servidor. El tamaño medio del cuerpo
+ * en cada codificación se imprime al preparar el benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceEncodingBenchmark {
+
+    @Param({"1", "4"})
+    public int overlap;
+
+    private ConfigurableApplicationContext context;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private URI[] uris;
+    private String[] etags;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        int next(int length) {
+            int current = position;
+            position = (current + 1) & (length - 1);
+            return current;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start(Map.of(), WebApplicationType.SERVLET);
+        BenchmarkContext.load(context, BenchmarkData.prices(100_000, overlap, 42));
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/prices";
+        Query[] queries = BenchmarkData.queries(100_000, 256, 7);
+        uris = new URI[queries.length];
+        etags = new String[queries.length];
+        long jsonBytes = 0;
+        long cborBytes = 0;
+        for (int i = 0; i < queries.length; i++) {
+            uris[i] = URI.create(base + "?productId=" + queries[i].productId() + "&brandId=" + queries[i].brandId()
+                    + "&date=" + queries[i].isoDate());
+            HttpResponse<byte[]> json = client.send(HttpRequest.newBuilder(uris[i]).header("Accept", "application/json").build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            HttpResponse<byte[]> cbor = client.send(HttpRequest.newBuilder(uris[i]).header("Accept", "application/cbor").build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            etags[i] = json.headers().firstValue("ETag").orElse("");
+            jsonBytes += json.body().length;
+            cborBytes += cbor.body().length;
+        }
+        System.out.printf("%nCuerpo medio con overlap=%d: JSON %d bytes, CBOR %d bytes%n",
+                overlap, jsonBytes / queries.length, cborBytes / queries.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int json(Cursor cursor) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uris[cursor.next(uris.length)]).header("Accept", "application/json"));
+    }
+
+    @Benchmark
+    public int cbor(Cursor cursor) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uris[cursor.next(uris.length)]).header("Accept", "application/cbor"));
+    }
+
+    @Benchmark
+    public int notModified(Cursor cursor) throws IOException, InterruptedException {
+        int i = cursor.next(uris.length);
+        return send(HttpRequest.newBuilder(uris[i]).header("Accept", "application/json")
+                .header("If-None-Match", etags[i]));
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+}
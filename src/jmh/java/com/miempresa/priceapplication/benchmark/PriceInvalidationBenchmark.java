@@ -0,0 +1,151 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceInvalidationBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coherencia de la caché entre {@code nodes} instancias en la misma JVM, unidas por el transporte loopback y
+ * con una base de datos compartida.
+ *
+ * {@code invalidationLatency} publica la invalidación de un par en la primera instancia y espera a que todas
+ * las demás la hayan recibido. {@code read} mide las lecturas con el par en caché, repartidas entre las
+ * instancias, y el grupo {@code readUnderInvalidations} las mismas lecturas mientras la primera instancia
+ * invalida un par cada milisegundo, lo que obliga a las demás a recargarlo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceInvalidationBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "2", "4"})
+    public int nodes;
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final AtomicInteger threads = new AtomicInteger();
+    private PriceIndex[] indexes;
+    private PriceInvalidationBus[] buses;
+    private Query[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int node = -1;
+        private int position;
+
+        Query next(PriceInvalidationBenchmark benchmark) {
+            if (node < 0) {
+                node = benchmark.threads.getAndIncrement() % benchmark.nodes;
+            }
+            Query query = benchmark.queries[position];
+            position = (position + 1) & (benchmark.queries.length - 1);
+            return query;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String database = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        String channel = UUID.randomUUID().toString();
+        indexes = new PriceIndex[nodes];
+        buses = new PriceInvalidationBus[nodes];
+        for (int node = 0; node < nodes; node++) {
+            ConfigurableApplicationContext context = BenchmarkContext.start(Map.of(
+                    "spring.datasource.url", database,
+                    "spring.sql.init.mode", node == 0 ? "always" : "never",
+                    "price.invalidation.transport", "loopback",
+                    "price.invalidation.channel", channel));
+            if (node == 0) {
+                BenchmarkContext.load(context, BenchmarkData.prices(ROWS, 1, 42));
+            }
+            contexts.add(context);
+            indexes[node] = context.getBean(PriceIndex.class);
+            buses[node] = context.getBean(PriceInvalidationBus.class);
+        }
+        queries = BenchmarkData.queries(ROWS, 4096, 7);
+        for (PriceIndex index : indexes) {
+            for (Query query : queries) {
+                index.findEffectivePrice(query.productId(), query.brandId(), query.date());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<PriceView> read(Cursor cursor) {
+        Query query = cursor.next(this);
+        return indexes[cursor.node].findEffectivePrice(query.productId(), query.brandId(), query.date());
+    }
+
+    @Benchmark
+    public long invalidationLatency(Cursor cursor) {
+        Query query = cursor.next(this);
+        long key = PriceIndex.key(query.productId(), query.brandId());
+        long[] before = new long[nodes];
+        for (int node = 1; node < nodes; node++) {
+            before[node] = buses[node].version(key);
+        }
+        buses[0].publish(List.of(key));
+        long spins = 0;
+        for (int node = 1; node < nodes; node++) {
+            while (buses[node].version(key) == before[node]) {
+                Thread.onSpinWait();
+                spins++;
+            }
+        }
+        return spins;
+    }
+
+    @Benchmark
+    @Group("readUnderInvalidations")
+    @GroupThreads(3)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<PriceView> reader(Cursor cursor) {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readUnderInvalidations")
+    @GroupThreads(1)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void invalidator(Cursor cursor) {
+        Query query = cursor.next(this);
+        buses[0].publish(List.of(PriceIndex.key(query.productId(), query.brandId())));
+        LockSupport.parkNanos(1_000_000);
+    }
+}
@@ -0,0 +1,137 @@
+package com.miempresa.priceapplication.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.filter.Filter;
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceResolveRequest;
+import com.miempresa.priceapplication.model.PriceResolveResult;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Operaciones por segundo desde 4 hilos según la configuración de logs: altas con createPrice y consultas
+ * sueltas con resolvePrices, que registra cada petición. Los logs se escriben en
+ * {@code target/logging-benchmark.log} para no mezclarlos con la salida de JMH:
+ * <ul>
+ *     <li>{@code sync}: la configuración por defecto, con el SQL de Hibernate y un log por alta, síncronos.</li>
+ *     <li>{@code async}: la del perfil prod, sin SQL, con los logs de cada alta muestreados y en segundo plano.</li>
+ *     <li>{@code off}: sin logs, como referencia.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PriceLoggingBenchmark {
+
+    @Param({"sync", "async", "off"})
+    public String logging;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private final AtomicLong sequence = new AtomicLong();
+    private List<List<PriceResolveRequest>> requests;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        int next(int length) {
+            int current = position;
+            position = (current + 1) & (length - 1);
+            return current;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>(Map.of(
+                "logging.file.name", "target/logging-benchmark.log",
+                "logging.threshold.console", "OFF",
+                "logging.pattern.file", "%d{yyyy-MM-dd HH:mm:ss} - %msg %kvp%n"));
+        switch (logging) {
+            // show-sql escribe en System.out; su equivalente por logs acaba en el mismo fichero
+            case "sync" -> properties.putAll(Map.of(
+                    "logging.level.com.miempresa.priceapplication", "INFO",
+                    "logging.level.org.hibernate.SQL", "DEBUG"));
+            case "async" -> properties.putAll(Map.of(
+                    "logging.level.com.miempresa.priceapplication", "INFO",
+                    "price.logging.async.enabled", "true",
+                    "price.logging.sample-rate", "100"));
+            case "off" -> properties.putAll(Map.of(
+                    "logging.level.root", "OFF",
+                    "logging.level.com.miempresa.priceapplication", "OFF",
+                    "logging.level.com.miempresa.priceapplication.service.PriceService", "OFF"));
+            default -> throw new IllegalArgumentException("Configuración de logs desconocida: " + logging);
+        }
+        context = BenchmarkContext.start(properties);
+        startThresholdFilters();
+        priceService = context.getBean(PriceService.class);
+        BenchmarkContext.load(context, BenchmarkData.prices(10_000, 2, 42));
+        Query[] queries = BenchmarkData.queries(10_000, 1024, 7);
+        requests = new ArrayList<>(queries.length);
+        for (Query query : queries) {
+            requests.add(List.of(new PriceResolveRequest(query.productId(), query.brandId(), query.isoDate())));
+        }
+    }
+
+    /**
+     * Spring Boot 3.1.3 crea el filtro de {@code logging.threshold.console} sin arrancarlo, y un filtro parado
+     * deja pasar todos los eventos: se arrancan aquí, también los de los appenders que cuelgan del asíncrono.
+     */
+    private static void startThresholdFilters() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders().forEachRemaining(appender -> {
+            appender.getCopyOfAttachedFiltersList().forEach(Filter::start);
+            if (appender instanceof AsyncAppender async) {
+                async.iteratorForAppenders().forEachRemaining(target -> target.getCopyOfAttachedFiltersList().forEach(Filter::start));
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Price createPrice() {
+        long next = sequence.incrementAndGet();
+        LocalDateTime start = BenchmarkData.BASE.plusSeconds(next);
+        return priceService.createPrice(new Price(null, 2, start, start.plusDays(30), 1,
+                1 + (int) (next % 1000), 0, 1999L, "EUR"));
+    }
+
+    @Benchmark
+    public List<PriceResolveResult> resolvePrice(Cursor cursor) {
+        return priceService.resolvePrices(requests.get(cursor.next(requests.size())));
+    }
+}
@@ -0,0 +1,106 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara las rutas de lectura: la consulta JPQL sobre H2 frente al índice en memoria, para distintos
+ * tamaños de tabla y densidades de solapamiento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceLookupBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"1", "4"})
+    public int overlap;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private PriceRepository priceRepository;
+    private PriceIndex priceIndex;
+    private Query[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        Query next(Query[] queries) {
+            Query query = queries[position];
+            position = (position + 1) & (queries.length - 1);
+            return query;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of());
+        BenchmarkContext.load(context, BenchmarkData.prices(rows, overlap, 42));
+        priceService = context.getBean(PriceService.class);
+        priceRepository = context.getBean(PriceRepository.class);
+        priceIndex = context.getBean(PriceIndex.class);
+        queries = BenchmarkData.queries(rows, 4096, 7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Price> repositoryFindApplicablePrices(Cursor cursor) {
+        Query query = cursor.next(queries);
+        return priceRepository.findApplicablePrices(query.productId(), query.brandId(), query.date());
+    }
+
+    @Benchmark
+    public List<PriceView> indexFindApplicablePrices(Cursor cursor) {
+        Query query = cursor.next(queries);
+        return priceIndex.findApplicablePrices(query.productId(), query.brandId(), query.date());
+    }
+
+    @Benchmark
+    public Optional<PriceView> indexFindEffectivePrice(Cursor cursor) {
+        Query query = cursor.next(queries);
+        return priceIndex.findEffectivePrice(query.productId(), query.brandId(), query.date());
+    }
+
+    @Benchmark
+    public List<PriceView> serviceGetApplicablePrices(Cursor cursor) {
+        Query query = cursor.next(queries);
+        try {
+            return priceService.getApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+        } catch (RuntimeException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.exception.PriceNotFoundException;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas sin precio, con y sin el filtro de pares: pares que no existen, repartidos entre muchos más pares
+ * de los que caben en la caché (cada uno, sin filtro, es una lectura de la base de datos), y pares existentes
+ * en una fecha anterior a su primer precio, que el filtro deja pasar y se resuelven en la caché.
+ * {@code unknownPairThrowing} recorre la variante con excepción; las demás, la que usa el controlador.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceMissBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int UNKNOWN_PRODUCTS = 1 << 20;
+
+    @Param({"true", "false"})
+    public boolean keyFilter;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private Query[] unknownPairs;
+    private Query[] datesBeforeFirstPrice;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        Query next(Query[] queries) {
+            Query query = queries[position];
+            position = (position + 1) & (queries.length - 1);
+            return query;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "price.key-filter.enabled", String.valueOf(keyFilter),
+                "price.index.resident", "false",
+                "price.cache.maximum-size", "10000"));
+        BenchmarkContext.load(context, BenchmarkData.prices(ROWS, 1, 42));
+        priceService = context.getBean(PriceService.class);
+
+        Random random = new Random(11);
+        // Muchos más pares distintos de los que caben en la caché: sin filtro, casi todos son lecturas de la base de datos
+        unknownPairs = new Query[1 << 16];
+        for (int i = 0; i < unknownPairs.length; i++) {
+            LocalDateTime date = BenchmarkData.BASE.plusMinutes(random.nextInt(365 * 24 * 60));
+            unknownPairs[i] = new Query(1_000_000 + random.nextInt(UNKNOWN_PRODUCTS), 1 + random.nextInt(BenchmarkData.BRANDS),
+                    date, date.toString());
+        }
+        datesBeforeFirstPrice = BenchmarkData.queries(ROWS, 4096, 7);
+        for (int i = 0; i < datesBeforeFirstPrice.length; i++) {
+            Query query = datesBeforeFirstPrice[i];
+            LocalDateTime date = BenchmarkData.BASE.minusDays(1 + i % 30);
+            datesBeforeFirstPrice[i] = new Query(query.productId(), query.brandId(), date, date.toString());
+            // Se mide la consulta con la línea temporal ya en caché, no su primera carga
+            priceService.findApplicablePrices(query.productId(), query.brandId(), date.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PriceView> unknownPair(Cursor cursor) {
+        Query query = cursor.next(unknownPairs);
+        return priceService.findApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+    }
+
+    @Benchmark
+    public List<PriceView> unknownPairThrowing(Cursor cursor) {
+        Query query = cursor.next(unknownPairs);
+        try {
+            return priceService.getApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+        } catch (PriceNotFoundException e) {
+            return List.of();
+        }
+    }
+
+    @Benchmark
+    public List<PriceView> dateBeforeFirstPrice(Cursor cursor) {
+        Query query = cursor.next(datesBeforeFirstPrice);
+        return priceService.findApplicablePrices(query.productId(), query.brandId(), query.isoDate());
+    }
+}
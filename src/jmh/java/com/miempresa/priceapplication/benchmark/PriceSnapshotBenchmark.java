@@ -0,0 +1,108 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.benchmark.BenchmarkData.Query;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.JpaPriceStore;
+import com.miempresa.priceapplication.repository.PriceSnapshot;
+import com.miempresa.priceapplication.repository.PriceStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de cargar la línea temporal de un par en un fallo de caché: desde la tabla price con JPA frente a
+ * la instantánea columnar proyectada en memoria, y coste de abrir la instantánea completa al arrancar.
+ * Con {@code -prof gc} se ve además la memoria asignada por carga.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceSnapshotBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PriceStore jpaStore;
+    private Path directory;
+    private Path path;
+    private PriceSnapshot snapshot;
+    private Query[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        Query next(Query[] queries) {
+            Query query = queries[position];
+            position = (position + 1) & (queries.length - 1);
+            return query;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Price> prices = BenchmarkData.prices(rows, 2, 42);
+        context = BenchmarkContext.start(Map.of("price.cache.enabled", "false"));
+        BenchmarkContext.load(context, prices);
+        jpaStore = context.getBean(JpaPriceStore.class);
+
+        directory = Files.createTempDirectory("price-snapshot-benchmark");
+        path = directory.resolve("prices.snapshot");
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            jpaStore.forEachOrdered(writer::add);
+            snapshot = writer.finish();
+        }
+        queries = BenchmarkData.queries(rows, 4096, 7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (var files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<PriceView> jpaFindByProductIdAndBrandId(Cursor cursor) {
+        Query query = cursor.next(queries);
+        return jpaStore.findByProductIdAndBrandId(query.productId(), query.brandId());
+    }
+
+    @Benchmark
+    public List<PriceView> snapshotFind(Cursor cursor) {
+        Query query = cursor.next(queries);
+        return snapshot.find(query.productId(), query.brandId());
+    }
+
+    @Benchmark
+    public PriceSnapshot openSnapshot() throws IOException {
+        return PriceSnapshot.open(path);
+    }
+}
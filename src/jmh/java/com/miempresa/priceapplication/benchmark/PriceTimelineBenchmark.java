@@ -0,0 +1,78 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceTimeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evolución del precio efectivo de un par durante un mes: una consulta de rango sobre la línea temporal frente
+ * a muestrear el precio efectivo cada hora o cada minuto. El coste del rango depende del número de precios del
+ * mes ({@code prices}); el del muestreo, del número de instantes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceTimelineBenchmark {
+
+    private static final LocalDateTime FROM = BenchmarkData.BASE;
+    private static final LocalDateTime TO = FROM.plusDays(30).minusSeconds(1);
+
+    @Param({"10", "100", "1000"})
+    public int prices;
+
+    private PriceTimeline timeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<PriceView> views = new ArrayList<>(prices + 1);
+        views.add(new PriceView(1, 1, FROM.minusDays(1), TO.plusDays(1), 1, 1, 0, 1000L, "EUR"));
+        for (int i = 2; i <= prices; i++) {
+            LocalDateTime start = FROM.plusMinutes(random.nextInt(30 * 24 * 60));
+            views.add(new PriceView(i, 1, start, start.plusMinutes(30 + random.nextInt(2 * 24 * 60)), i, 1,
+                    1 + random.nextInt(3), 1000L + i, "EUR"));
+        }
+        timeline = PriceTimeline.of(views);
+    }
+
+    @Benchmark
+    public List<PriceSegment> range() {
+        return timeline.segmentsBetween(FROM, TO);
+    }
+
+    @Benchmark
+    public void sampleHourly(Blackhole blackhole) {
+        for (LocalDateTime date = FROM; !date.isAfter(TO); date = date.plusHours(1)) {
+            blackhole.consume(timeline.effectiveAt(date));
+        }
+    }
+
+    @Benchmark
+    public void sampleEveryMinute(Blackhole blackhole) {
+        for (LocalDateTime date = FROM; !date.isAfter(TO); date = date.plusMinutes(1)) {
+            blackhole.consume(timeline.effectiveAt(date));
+        }
+    }
+}
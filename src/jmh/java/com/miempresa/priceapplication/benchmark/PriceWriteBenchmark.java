@@ -0,0 +1,93 @@
+package com.miempresa.priceapplication.benchmark;
+
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.service.PriceImportService;
+import com.miempresa.priceapplication.service.PriceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendimiento de escritura: altas individuales con createPrice e importación masiva NDJSON.
+ * Los resultados se expresan en filas por segundo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceWriteBenchmark {
+
+    private static final int IMPORT_ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private PriceImportService priceImportService;
+    private final AtomicLong sequence = new AtomicLong();
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of());
+        priceService = context.getBean(PriceService.class);
+        priceImportService = context.getBean(PriceImportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Prepara fuera de la medición un fichero NDJSON cuyas filas no existen todavía.
+     */
+    @Setup(Level.Invocation)
+    public void prepareImport() {
+        StringBuilder builder = new StringBuilder(IMPORT_ROWS * 200);
+        for (int i = 0; i < IMPORT_ROWS; i++) {
+            LocalDateTime start = nextStart();
+            builder.append("{\"brandId\":1,\"startDate\":\"").append(start)
+                    .append("\",\"endDate\":\"").append(start.plusDays(30))
+                    .append("\",\"priceList\":1,\"productId\":").append(1 + i % 1000)
+                    .append(",\"priority\":0,\"price\":19.99,\"currency\":\"EUR\"}\n");
+        }
+        ndjson = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Price createPrice() {
+        LocalDateTime start = nextStart();
+        return priceService.createPrice(new Price(null, 2, start, start.plusDays(30), 1,
+                1 + (int) (sequence.get() % 1000), 0, 1999L, "EUR"));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_ROWS)
+    public PriceImportReport importNdjson() {
+        return priceImportService.importNdjson(new ByteArrayInputStream(ndjson), 1000);
+    }
+
+    private LocalDateTime nextStart() {
+        return BenchmarkData.BASE.plusSeconds(sequence.incrementAndGet());
+    }
+}
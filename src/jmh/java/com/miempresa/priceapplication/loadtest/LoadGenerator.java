@@ -0,0 +1,169 @@
+package com.miempresa.priceapplication.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Generador de carga HTTP en bucle cerrado: {@code concurrency} clientes, cada uno en su propio hilo virtual,
+ * lanzan peticiones una tras otra durante el tiempo indicado y registran la latencia de cada una.
+ *
+ * Por defecto un cliente que recibe un 503 reintenta de inmediato; con {@code retryAfter} espera lo que indique la
+ * cabecera Retry-After, como haría un cliente bien educado (la espera no cuenta como latencia).
+ */
+public final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Resultado de un nivel de carga. Las latencias se expresan en microsegundos; {@code rejected} cuenta las
+     * respuestas 503 y {@code errors} el resto de fallos (otros códigos 5xx, timeouts o errores de conexión).
+     * {@code servedP99Micros} es el p99 de las peticiones atendidas, sin los 503.
+     */
+    public record Result(String mode, int concurrency, long requests, long rejected, long errors,
+                         double throughput, long p50Micros, long p99Micros, long maxMicros, long servedP99Micros,
+                         int peakInFlight) {
+
+        static String header() {
+            return String.format("%-10s %8s %10s %9s %8s %10s %10s %10s %10s %12s %9s",
+                    "modo", "clientes", "peticiones", "503", "errores", "req/s", "p50 us", "p99 us", "max us",
+                    "p99 200 us", "en vuelo");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %8d %10d %9d %8d %10.0f %10d %10d %10d %12d %9d",
+                    mode, concurrency, requests, rejected, errors, throughput, p50Micros, p99Micros, maxMicros,
+                    servedP99Micros, peakInFlight);
+        }
+    }
+
+    /**
+     * Ejecuta un nivel de carga.
+     *
+     * @param mode Nombre del modo del servidor, solo para el informe.
+     * @param uris Genera la URI de la petición n-ésima de cada cliente.
+     * @param retryAfter Si tras un 503 el cliente espera lo que indica Retry-After antes de la siguiente petición.
+     */
+    public static Result run(String mode, IntFunction<URI> uris, int concurrency, Duration duration,
+                             boolean retryAfter) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Future<ClientStats>> futures = new ArrayList<>(concurrency);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int clientId = c;
+                futures.add(clients.submit(() -> {
+                    ClientStats stats = new ClientStats();
+                    int n = clientId;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.apply(n++)).timeout(REQUEST_TIMEOUT).GET().build();
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long start = System.nanoTime();
+                        long backoff = 0;
+                        boolean served = false;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            int status = response.statusCode();
+                            if (status == 503) {
+                                stats.rejected++;
+                                if (retryAfter) {
+                                    backoff = response.headers().firstValueAsLong("Retry-After").orElse(0);
+                                }
+                            } else if (status >= 500) {
+                                stats.errors++;
+                            } else {
+                                served = true;
+                            }
+                        } catch (Exception e) {
+                            stats.errors++;
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        stats.record((System.nanoTime() - start) / 1_000, served);
+                        if (backoff > 0) {
+                            Thread.sleep(Math.min(backoff * 1_000, Math.max(0, (deadline - System.nanoTime()) / 1_000_000)));
+                        }
+                    }
+                    return stats;
+                }));
+            }
+        }
+
+        ClientStats total = new ClientStats();
+        for (Future<ClientStats> future : futures) {
+            total.merge(future.get());
+        }
+        long[] latencies = Arrays.copyOf(total.latencies, total.count);
+        Arrays.sort(latencies);
+        long[] served = Arrays.copyOf(total.served, total.servedCount);
+        Arrays.sort(served);
+        return new Result(mode, concurrency, total.count, total.rejected, total.errors,
+                total.count / (duration.toMillis() / 1000.0),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1], percentile(served, 0.99),
+                peakInFlight.get());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static final class ClientStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long[] served = new long[1024];
+        private int servedCount;
+        private long rejected;
+        private long errors;
+
+        void record(long micros, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = micros;
+            if (ok) {
+                if (servedCount == served.length) {
+                    served = Arrays.copyOf(served, servedCount * 2);
+                }
+                served[servedCount++] = micros;
+            }
+        }
+
+        void merge(ClientStats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], false);
+            }
+            for (int i = 0; i < other.servedCount; i++) {
+                if (servedCount == served.length) {
+                    served = Arrays.copyOf(served, Math.max(servedCount * 2, other.servedCount));
+                }
+                served[servedCount++] = other.served[i];
+            }
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.miempresa.priceapplication.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.miempresa.priceapplication.benchmark.BenchmarkContext;
+import com.miempresa.priceapplication.benchmark.BenchmarkData;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prueba de carga de GET /api/prices, por defecto con la caché desactivada, de modo que cada petición bloquea
+ * su hilo en una consulta JDBC. Arranca la aplicación en cada modo ({@code platform}: pool de Tomcat por defecto;
+ * {@code virtual}: perfil {@code virtual}, un hilo virtual por petición; {@code reactive}: perfil
+ * {@code reactive}, WebFlux sobre Netty), recorre los niveles de concurrencia indicados y deja los
+ * resultados en target/load-test-result.json.
+ *
+ * Opciones (propiedades del sistema): {@code load.modes} (platform,virtual,reactive), {@code load.levels}
+ * (100,400,1600,6400), {@code load.duration} (10s), {@code load.rows} (100000) y {@code load.cache} (false;
+ * con true las consultas se sirven desde la caché y solo bloquean en los fallos de caché), {@code load.resident} (false;
+ * con true se carga el índice completo y las consultas no bloquean nunca),
+ * {@code load.keys} (65536 consultas distintas; potencia de dos, con 1 todos los clientes piden el mismo par, como
+ * en una venta flash), {@code load.limiter} (true; con false se desactiva el límite adaptativo de concurrencia y las
+ * peticiones esperan conexión en lugar de recibir un 503) y {@code load.coalesce} (true; agrupación de consultas
+ * idénticas simultáneas con la caché desactivada) y {@code load.retry-after} (false; con true los clientes esperan
+ * lo que indica Retry-After tras un 503). Los modos sin límite se etiquetan {@code <modo>-unlimited}.
+ *
+ * El generador de carga comparte máquina con el servidor, así que las cifras absolutas son orientativas;
+ * lo que interesa es la comparación entre modos con la misma carga.
+ */
+public final class PriceLoadTest {
+
+    private static final long SEED = 42;
+
+    private PriceLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = List.of(System.getProperty("load.modes", "platform,virtual,reactive").split(","));
+        int[] levels = Arrays.stream(System.getProperty("load.levels", "100,400,1600,6400").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration", "10s"));
+        int rows = Integer.getInteger("load.rows", 100_000);
+
+        int keys = Integer.getInteger("load.keys", 65_536);
+        boolean retryAfter = Boolean.getBoolean("load.retry-after");
+        if (Integer.bitCount(keys) != 1) {
+            throw new IllegalArgumentException("load.keys debe ser una potencia de dos: " + keys);
+        }
+
+        BenchmarkData.Query[] queries = BenchmarkData.queries(rows, keys, SEED);
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        System.out.println(LoadGenerator.Result.header());
+        for (String mode : modes) {
+            WebApplicationType type = "reactive".equals(mode) ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET;
+            String label = Boolean.parseBoolean(System.getProperty("load.limiter", "true")) ? mode : mode + "-unlimited";
+            try (ConfigurableApplicationContext context = BenchmarkContext.start(properties(mode), type)) {
+                BenchmarkContext.load(context, BenchmarkData.prices(rows, 1, SEED));
+                String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/prices";
+
+                // Calentamiento corto para que el JIT y el pool de conexiones no penalicen al primer nivel.
+                LoadGenerator.run(label, n -> uri(base, queries, n), levels[0], Duration.ofSeconds(3), retryAfter);
+                for (int level : levels) {
+                    LoadGenerator.Result result = LoadGenerator.run(label, n -> uri(base, queries, n), level, duration, retryAfter);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+
+        File output = new File("target/load-test-result.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Resultados en " + output.getPath());
+    }
+
+    private static Map<String, Object> properties(String mode) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("price.index.resident", System.getProperty("load.resident", "false"));
+        properties.put("price.cache.enabled", System.getProperty("load.cache", "false"));
+        properties.put("price.cache.coalesce", System.getProperty("load.coalesce", "true"));
+        properties.put("price.limiter.enabled", System.getProperty("load.limiter", "true"));
+        // Cada 503 por falta de conexión dejaría una traza de Hibernate; el recuento ya aparece en el informe.
+        properties.put("logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper", "OFF");
+        switch (mode) {
+            case "platform" -> {
+            }
+            case "virtual" -> properties.put("spring.profiles.active", "virtual");
+            case "reactive" -> properties.put("spring.profiles.active", "reactive");
+            default -> throw new IllegalArgumentException("Modo desconocido: " + mode);
+        }
+        return properties;
+    }
+
+    private static URI uri(String base, BenchmarkData.Query[] queries, int n) {
+        BenchmarkData.Query query = queries[n & (queries.length - 1)];
+        return URI.create(base + "?productId=" + query.productId() + "&brandId=" + query.brandId() + "&date=" + query.isoDate());
+    }
+}
@@ -0,0 +1,205 @@
+package com.miempresa.priceapplication.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.miempresa.priceapplication.benchmark.BenchmarkContext;
+import com.miempresa.priceapplication.benchmark.BenchmarkData;
+import com.miempresa.priceapplication.service.PriceSnapshotService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mide el arranque en frío frente al arranque en caliente del perfil {@code warm}, cada uno en su propia JVM
+ * para que el JIT empiece de cero:
+ * <ul>
+ *     <li>{@code cold}: origen JPA; el catálogo se inserta en la base de datos al arrancar, como haría data.sql,
+ *     y las consultas empiezan con la caché y el JIT vacíos.</li>
+ *     <li>{@code warm}: perfil {@code warm}; el catálogo se abre desde la instantánea columnar y el calentamiento
+ *     termina antes de que la aplicación esté lista.</li>
+ * </ul>
+ *
+ * Para cada modo se mide, desde el arranque de la JVM, cuándo está lista la aplicación, cuándo llega la primera
+ * respuesta y cuándo se alcanza la latencia estable: el comienzo de la primera ventana de {@value #WINDOW}
+ * peticiones a partir de la cual la mediana de todas las ventanas no supera 1,5 veces la final. Se informa
+ * también de la latencia de la primera petición y de la mediana estable. Los resultados se guardan en target/startup-result.json.
+ *
+ * Opciones (propiedades del sistema): {@code startup.modes} (cold,warm), {@code startup.rows} (200000) y
+ * {@code startup.duration} (15s, peticiones secuenciales tras el arranque).
+ */
+public final class StartupTest {
+
+    private static final long SEED = 42;
+
+    private static final int WINDOW = 500;
+
+    private static final String RESULT_PREFIX = "STARTUP-RESULT ";
+
+    private StartupTest() {
+    }
+
+    /**
+     * Resultado de un modo. Los tiempos en milisegundos se miden desde el arranque de la JVM; -1 si no se alcanzó
+     * la latencia estable.
+     */
+    public record Result(String mode, int rows, long readyMillis, long firstResponseMillis, long firstRequestMicros,
+                         long steadyStateMillis, long steadyP50Micros, long requests) {
+
+        static String header() {
+            return String.format("%-6s %9s %9s %16s %16s %14s %13s %10s",
+                    "modo", "filas", "lista ms", "primera resp. ms", "primera pet. us", "estable ms", "p50 est. us", "peticiones");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-6s %9d %9d %16d %16d %14d %13d %10d",
+                    mode, rows, readyMillis, firstResponseMillis, firstRequestMicros, steadyStateMillis, steadyP50Micros, requests);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String child = System.getProperty("startup.child");
+        if (child != null) {
+            Result result = measure(child);
+            System.out.println(RESULT_PREFIX + new ObjectMapper().writeValueAsString(result));
+            System.exit(0);
+        }
+
+        List<String> modes = List.of(System.getProperty("startup.modes", "cold,warm").split(","));
+        int rows = Integer.getInteger("startup.rows", 200_000);
+        Path snapshot = Path.of("target", "startup", "prices.snapshot").toAbsolutePath();
+        writeSnapshot(rows, snapshot);
+
+        List<Result> results = new ArrayList<>();
+        System.out.println(Result.header());
+        for (String mode : modes) {
+            Result result = runChild(mode, snapshot);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        File output = new File("target/startup-result.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Resultados en " + output.getPath());
+    }
+
+    /**
+     * Escribe la instantánea que usará el modo warm, como lo haría periódicamente una instancia en marcha.
+     */
+    private static void writeSnapshot(int rows, Path snapshot) {
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(Map.of("price.store.snapshot", snapshot))) {
+            BenchmarkContext.load(context, BenchmarkData.prices(rows, 1, SEED));
+            context.getBean(PriceSnapshotService.class).writeSnapshot();
+        }
+    }
+
+    private static Result runChild(String mode, Path snapshot) throws Exception {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Dstartup.child=" + mode,
+                "-Dstartup.snapshot=" + snapshot));
+        for (String option : List.of("startup.rows", "startup.duration")) {
+            if (System.getProperty(option) != null) {
+                command.add("-D" + option + "=" + System.getProperty(option));
+            }
+        }
+        command.add(StartupTest.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Result result = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = new ObjectMapper().readValue(line.substring(RESULT_PREFIX.length()), Result.class);
+                } else if (line.contains("ERROR") || line.contains("Exception") || line.contains("Calentamiento")
+                        || line.contains("Instantánea")) {
+                    System.err.println("[" + mode + "] " + line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("La medición del modo " + mode + " terminó sin resultado");
+        }
+        return result;
+    }
+
+    private static Result measure(String mode) throws Exception {
+        int rows = Integer.getInteger("startup.rows", 200_000);
+        Duration duration = Duration.parse("PT" + System.getProperty("startup.duration", "15s"));
+        Map<String, Object> properties = new LinkedHashMap<>();
+        switch (mode) {
+            case "cold" -> {
+            }
+            case "warm" -> {
+                properties.put("spring.profiles.active", "warm");
+                properties.put("price.store.snapshot", System.getProperty("startup.snapshot"));
+                properties.put("logging.level.com.miempresa.priceapplication.service.PriceWarmup", "INFO");
+                properties.put("logging.level.com.miempresa.priceapplication.repository.ColumnarPriceStore", "INFO");
+            }
+            default -> throw new IllegalArgumentException("Modo desconocido: " + mode);
+        }
+
+        ConfigurableApplicationContext context = BenchmarkContext.start(properties, WebApplicationType.SERVLET);
+        if ("cold".equals(mode)) {
+            BenchmarkContext.load(context, BenchmarkData.prices(rows, 1, SEED));
+        }
+        long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        long ready = System.nanoTime();
+
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/prices";
+        BenchmarkData.Query[] queries = BenchmarkData.queries(rows, 65_536, SEED + 1);
+        HttpClient client = HttpClient.newHttpClient();
+        List<long[]> samples = new ArrayList<>();
+        long firstResponseMillis = 0;
+        long deadline = ready + duration.toNanos();
+        for (int n = 0; System.nanoTime() < deadline; n++) {
+            BenchmarkData.Query query = queries[n & (queries.length - 1)];
+            URI uri = URI.create(base + "?productId=" + query.productId() + "&brandId=" + query.brandId() + "&date=" + query.isoDate());
+            long start = System.nanoTime();
+            client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+            long end = System.nanoTime();
+            if (n == 0) {
+                firstResponseMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            }
+            samples.add(new long[]{start - ready, end - start});
+        }
+        context.close();
+
+        long[] windowMedians = new long[samples.size() / WINDOW];
+        for (int w = 0; w < windowMedians.length; w++) {
+            long[] latencies = samples.subList(w * WINDOW, (w + 1) * WINDOW).stream().mapToLong(s -> s[1]).sorted().toArray();
+            windowMedians[w] = latencies[WINDOW / 2];
+        }
+        long[] tail = Arrays.copyOfRange(windowMedians, windowMedians.length * 4 / 5, windowMedians.length);
+        Arrays.sort(tail);
+        long steadyMedian = tail.length == 0 ? 0 : tail[tail.length / 2];
+        int steadyWindow = windowMedians.length;
+        while (steadyWindow > 0 && windowMedians[steadyWindow - 1] <= steadyMedian * 3 / 2) {
+            steadyWindow--;
+        }
+        long steadyStateMillis = steadyWindow < windowMedians.length
+                ? readyMillis + samples.get(steadyWindow * WINDOW)[0] / 1_000_000
+                : -1;
+
+        return new Result(mode, rows, readyMillis, firstResponseMillis, samples.isEmpty() ? 0 : samples.get(0)[1] / 1_000,
+                steadyStateMillis, steadyMedian / 1_000, samples.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.miempresa.priceapplication.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Escritura asíncrona de los logs ({@code price.logging.async.enabled=true}, activa en el perfil prod).
+ *
+ * Los appenders que Spring Boot configura en el logger raíz (consola y, con {@code logging.file.name}, fichero)
+ * pasan a colgar de un {@link CountingAsyncAppender}: el hilo de la petición solo encola el evento y un hilo
+ * de Logback lo formatea y lo escribe. La cola está acotada ({@code price.logging.async.queue-size}) y, con
+ * {@code price.logging.async.never-block}, un pico de logs descarta eventos en lugar de frenar las peticiones;
+ * los descartes se publican en la métrica {@code logging.events.dropped}.
+ *
+ * Se aplica al crear este bean: los logs anteriores del arranque se escriben todavía de forma síncrona.
+ */
+@Configuration
+@ConditionalOnProperty(name = "price.logging.async.enabled", havingValue = "true")
+@Slf4j
+public class AsyncLoggingConfig {
+
+    private static final String APPENDER_NAME = "ASYNC";
+
+    @Value("${price.logging.async.queue-size:8192}")
+    private int queueSize;
+
+    @Value("${price.logging.async.never-block:true}")
+    private boolean neverBlock;
+
+    @Value("${price.logging.async.max-flush-time:1000}")
+    private int maxFlushTime;
+
+    private Logger root;
+
+    private CountingAsyncAppender appender;
+
+    @PostConstruct
+    public void init() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            log.warn("Logs asíncronos no disponibles: el sistema de logs no es Logback");
+            return;
+        }
+        root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        if (root.getAppender(APPENDER_NAME) != null) {
+            return;
+        }
+        CountingAsyncAppender async = new CountingAsyncAppender();
+        async.setName(APPENDER_NAME);
+        async.setContext(context);
+        async.setQueueSize(queueSize);
+        async.setNeverBlock(neverBlock);
+        async.setMaxFlushTime(maxFlushTime);
+        List<Appender<ILoggingEvent>> targets = appenders(root.iteratorForAppenders());
+        targets.forEach(async::addAppender);
+        async.start();
+        root.addAppender(async);
+        targets.forEach(root::detachAppender);
+        appender = async;
+        log.info("Logs asíncronos: cola de {} eventos, {} bloquear con la cola llena, hacia {}",
+                queueSize, neverBlock ? "sin" : "con", targets.stream().map(Appender::getName).toList());
+    }
+
+    /**
+     * Vacía la cola (como mucho {@code max-flush-time} ms) y devuelve los appenders al logger raíz, de modo que
+     * los logs del resto del cierre se siguen escribiendo.
+     */
+    @PreDestroy
+    public void stop() {
+        if (appender == null) {
+            return;
+        }
+        List<Appender<ILoggingEvent>> targets = appenders(appender.iteratorForAppenders());
+        root.detachAppender(appender);
+        // Al parar, el hilo de Logback escribe lo pendiente y para también los appenders de destino
+        appender.stop();
+        for (Appender<ILoggingEvent> target : targets) {
+            target.start();
+            root.addAppender(target);
+        }
+        appender = null;
+    }
+
+    private static List<Appender<ILoggingEvent>> appenders(Iterator<Appender<ILoggingEvent>> iterator) {
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        iterator.forEachRemaining(appenders::add);
+        return appenders;
+    }
+}
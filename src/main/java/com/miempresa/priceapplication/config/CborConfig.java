@@ -0,0 +1,26 @@
+package com.miempresa.priceapplication.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Codificación CBOR de las respuestas ({@code Accept: application/cbor}) para los servicios internos que
+ * consultan precios continuamente: los mismos campos que el JSON, en binario, sin escapar texto ni formatear números.
+ *
+ * Spring MVC ya registra un conversor CBOR al encontrar jackson-dataformat-cbor, pero con un ObjectMapper propio;
+ * este lo sustituye por uno con la configuración Jackson de Spring Boot, de modo que las fechas se escriben igual
+ * que en JSON. Los importes se escriben como decimales exactos ({@link com.miempresa.priceapplication.model.Money}).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
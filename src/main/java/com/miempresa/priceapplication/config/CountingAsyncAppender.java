@@ -0,0 +1,37 @@
+package com.miempresa.priceapplication.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} de Logback que cuenta los eventos que descarta.
+ *
+ * Como el de Logback, con la cola por encima del umbral de descarte ({@link #getDiscardingThreshold()}, un 20 %
+ * libre por defecto) descarta los eventos INFO, DEBUG y TRACE y conserva WARN y ERROR; con {@code neverBlock}
+ * descarta también cualquier evento con la cola llena en lugar de bloquear el hilo de la petición. Aquí se
+ * cuentan esos descartes, que Logback solo hace en silencio. Si dos hilos llenan la cola a la vez, alguno puede
+ * descartarse sin contarse: la cifra es una cota inferior.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (remaining == 0 && isNeverBlock())) {
+            DROPPED.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    /**
+     * Eventos descartados por todas las instancias desde el arranque de la JVM.
+     */
+    public static long droppedCount() {
+        return DROPPED.sum();
+    }
+}
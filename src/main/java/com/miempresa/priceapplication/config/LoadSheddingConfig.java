@@ -0,0 +1,83 @@
+package com.miempresa.priceapplication.config;
+
+import com.miempresa.priceapplication.service.PriceConcurrencyLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Aplica {@link PriceConcurrencyLimiter} a las consultas de precios del modo servlet: las que superan el límite
+ * se rechazan antes de llegar al controlador (ver GlobalExceptionHandler). Las escrituras, importaciones,
+ * exportaciones y el feed de cambios quedan fuera: no compiten con las consultas por el mismo recurso.
+ *
+ * En el modo reactivo el límite lo aplica ReactivePriceService.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoadSheddingConfig implements WebMvcConfigurer {
+
+    private static final String ADMITTED_AT = PriceConcurrencyLimiter.class.getName() + ".admittedAt";
+
+    @Autowired
+    private PriceConcurrencyLimiter limiter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new LimiterInterceptor())
+                .addPathPatterns("/api/prices", "/api/prices/effective", "/api/prices/timeline", "/api/prices/resolve");
+    }
+
+    private class LimiterInterceptor implements AsyncHandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            // El despacho ASYNC de una respuesta en streaming ya pasó por aquí en el despacho original
+            if (request.getDispatcherType() != DispatcherType.REQUEST || !isLookup(request)) {
+                return true;
+            }
+            request.setAttribute(ADMITTED_AT, limiter.acquire());
+            return true;
+        }
+
+        /**
+         * Las consultas GET en streaming ya tienen calculado el resultado cuando empieza su escritura asíncrona y
+         * liberan aquí el permiso. {@code /resolve} resuelve el lote mientras lo escribe: conserva el permiso hasta
+         * el afterCompletion del despacho ASYNC, cuando el cuerpo ha terminado.
+         */
+        @Override
+        public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (!isResolve(request)) {
+                release(request, response);
+            }
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+            release(request, response);
+        }
+
+        private boolean isLookup(HttpServletRequest request) {
+            return HttpMethod.GET.matches(request.getMethod()) || isResolve(request);
+        }
+
+        private boolean isResolve(HttpServletRequest request) {
+            return request.getRequestURI().endsWith("/resolve");
+        }
+
+        private void release(HttpServletRequest request, HttpServletResponse response) {
+            Object admittedAt = request.getAttribute(ADMITTED_AT);
+            if (admittedAt != null) {
+                request.removeAttribute(ADMITTED_AT);
+                limiter.release((Long) admittedAt, response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+            }
+        }
+    }
+}
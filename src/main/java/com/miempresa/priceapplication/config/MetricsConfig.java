@@ -0,0 +1,67 @@
+package com.miempresa.priceapplication.config;
+
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentación de la aplicación.
+ *
+ * Actuator ya mide las peticiones HTTP ({@code http.server.requests}), cada método de PriceRepository
+ * ({@code spring.data.repository.invocations}) y el pool de conexiones ({@code hikaricp.connections.*}).
+ * Los servicios se miden con PriceMetrics; aquí se añaden las estadísticas de la caché de precios, las del
+ * archivo de precios caducados y los eventos de log descartados ({@link AsyncLoggingConfig}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder loggingMetrics() {
+        return registry -> FunctionCounter.builder("logging.events.dropped", CountingAsyncAppender.class,
+                        appender -> CountingAsyncAppender.droppedCount())
+                .description("Eventos de log descartados por la cola llena de los logs asíncronos")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder priceCacheMetrics(PriceIndex priceIndex) {
+        return registry -> {
+            FunctionCounter.builder("price.cache.requests", priceIndex, index -> index.stats().hitCount())
+                    .description("Consultas a la caché de precios")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("price.cache.requests", priceIndex, index -> index.stats().missCount())
+                    .description("Consultas a la caché de precios")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("price.cache.evictions", priceIndex, index -> index.stats().evictionCount())
+                    .description("Líneas temporales expulsadas de la caché por tamaño o caducidad")
+                    .register(registry);
+            FunctionCounter.builder("price.cache.coalesced", priceIndex, PriceIndex::coalescedCount)
+                    .description("Consultas sin caché resueltas con el resultado de una idéntica en curso")
+                    .register(registry);
+            FunctionCounter.builder("price.cache.filtered", priceIndex, PriceIndex::filteredCount)
+                    .description("Consultas de pares sin precios descartadas por el filtro de pares sin acceder a la base de datos")
+                    .register(registry);
+            Gauge.builder("price.cache.size", priceIndex, PriceIndex::size)
+                    .description("Pares (producto, marca) en la caché de precios")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder priceArchiveMetrics(PriceArchive priceArchive) {
+        return registry -> {
+            FunctionCounter.builder("price.archive.moved", priceArchive, PriceArchive::movedCount)
+                    .description("Precios caducados movidos de la tabla price al archivo")
+                    .register(registry);
+            FunctionCounter.builder("price.archive.lookups", priceArchive, PriceArchive::lookupCount)
+                    .description("Consultas de fechas pasadas que han llegado a la tabla del archivo")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.miempresa.priceapplication.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Servidor del modo reactivo ({@code spring.main.web-application-type=reactive}).
+ *
+ * Con Spring MVC y WebFlux en el classpath, Spring Boot elegiría Tomcat también para el modo reactivo.
+ * Se declara Netty explícitamente para que la API se sirva desde un bucle de eventos con pocos hilos.
+ *
+ * WebFlux no registra códecs CBOR de Jackson por defecto: se añaden con la configuración Jackson de Spring Boot,
+ * como hace {@link CborConfig} en el modo servlet, para que {@code Accept: application/cbor} responda lo mismo.
+ * Los códecs propios se consultan antes que los de por defecto, así que el codificador ({@link ExplicitCborEncoder})
+ * solo se usa cuando el controlador fija CBOR como tipo de la respuesta, tras negociarlo como en el modo servlet.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        log.info("API servida en modo reactivo con WebFlux sobre Netty");
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public CodecCustomizer cborCodecCustomizer(ObjectMapper objectMapper) {
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        return configurer -> {
+            configurer.customCodecs().register(new ExplicitCborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    /**
+     * Codificador CBOR de Jackson que solo acepta un tipo concreto: con {@code Accept: *}{@code /*} se sigue
+     * eligiendo JSON. Codifica valores sueltos ({@code Mono}); Jackson2CborEncoder rechaza cualquier
+     * {@code encode} y solo implementa {@code encodeValue}.
+     */
+    private static class ExplicitCborEncoder extends Jackson2CborEncoder {
+
+        ExplicitCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && mimeType.isConcrete() && super.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> value) {
+                return value.map(item -> encodeValue(item, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.miempresa.priceapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de ejecución opcional con hilos virtuales ({@code price.virtual-threads.enabled=true}).
+ *
+ * Tomcat atiende cada petición en un hilo virtual, de modo que las peticiones bloqueadas en JDBC
+ * no agotan un pool de hilos de plataforma. La concurrencia real contra la base de datos la sigue
+ * limitando el pool de conexiones de Hikari: con un connection-timeout corto, las peticiones que no
+ * consiguen conexión fallan rápido con un 503 en lugar de acumularse (ver GlobalExceptionHandler).
+ */
+@Configuration
+@ConditionalOnProperty(name = "price.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Peticiones web atendidas con hilos virtuales");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Ejecutor de las respuestas asíncronas de Spring MVC (por ejemplo, StreamingResponseBody).
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
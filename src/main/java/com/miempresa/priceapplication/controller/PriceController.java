@@ -1,7 +1,25 @@
 package com.miempresa.priceapplication.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miempresa.priceapplication.exception.GlobalExceptionHandler;
 import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceCacheStats;
+import com.miempresa.priceapplication.model.PriceChange;
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.model.PriceResolveRequest;
+import com.miempresa.priceapplication.model.PriceResolveResult;
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceSnapshotReport;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceKeyRange;
+import com.miempresa.priceapplication.service.PriceArchiveService;
+import com.miempresa.priceapplication.service.PriceChangeFeed;
+import com.miempresa.priceapplication.service.PriceExportService;
+import com.miempresa.priceapplication.service.PriceImportService;
 import com.miempresa.priceapplication.service.PriceService;
+import com.miempresa.priceapplication.service.PriceSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,23 +31,57 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/prices")
 @Tag(name = "Price API", description = "API para consultar precios por fecha, producto y marca")
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class PriceController {
 
+    static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
     @Autowired
     private PriceService priceService;
 
+    @Autowired
+    private PriceImportService priceImportService;
+
+    @Autowired
+    private PriceExportService priceExportService;
+
+    @Autowired
+    private PriceSnapshotService priceSnapshotService;
+
+    @Autowired
+    private PriceArchiveService priceArchiveService;
+
+    @Autowired
+    private PriceChangeFeed priceChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "Crear un nuevo precio", description = "Crea un precio basado en los detalles proporcionados.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Precio creado exitosamente", content = @Content),
@@ -38,16 +90,18 @@ public class PriceController {
     })
     @PostMapping
     public ResponseEntity<Price> createPrice(@Valid @RequestBody Price price) {
-        log.info("Solicitud de creación de precio recibida: {}", price);
+        // El alta la registra PriceService, con campos estructurados y muestreada
         Price createdPrice = priceService.createPrice(price);
-        log.info("Precio creado exitosamente: {}", createdPrice);
         return ResponseEntity.status(201).body(createdPrice); // Retorna 201 Created
     }
 
-    @Operation(summary = "Obtener precios aplicables", description = "Devuelve el precio aplicable basado en producto, marca y fecha")
+    @Operation(summary = "Obtener precios aplicables", description = "Devuelve el precio aplicable basado en producto, marca y fecha, en JSON o en CBOR con Accept: application/cbor. Con If-None-Match responde 304 si no ha cambiado")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Precio encontrado exitosamente",
-                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Price.class)) }),
+            @ApiResponse(responseCode = "200", description = "Precio encontrado exitosamente; la cabecera ETag identifica el resultado",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceView.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = PriceView.class)) }),
+            @ApiResponse(responseCode = "304", description = "El resultado no ha cambiado desde el ETag de If-None-Match",
+                    content = @Content),
             @ApiResponse(responseCode = "400", description = "Solicitud inválida o validación fallida",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Precio no encontrado",
@@ -56,10 +110,323 @@ public class PriceController {
                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<Price>> getPrices(
+    public ResponseEntity<?> getPrices(
+            @RequestParam @Min(1) Integer productId,
+            @RequestParam @Min(1) Integer brandId,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String date,
+            ServletWebRequest request) {
+        MediaType mediaType = negotiate(request);
+        String etag = etag(productId, brandId, mediaType);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<PriceView> prices = priceService.findApplicablePrices(productId, brandId, date);
+        return prices.isEmpty() ? GlobalExceptionHandler.priceNotFound()
+                : ResponseEntity.ok().contentType(mediaType).eTag(etag).body(prices);
+    }
+
+    @Operation(summary = "Obtener el precio efectivo", description = "Devuelve el único precio que prevalece para el producto, marca y fecha: el de mayor prioridad, en JSON o en CBOR con Accept: application/cbor. Con If-None-Match responde 304 si no ha cambiado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Precio encontrado exitosamente; la cabecera ETag identifica el resultado",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceView.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = PriceView.class)) }),
+            @ApiResponse(responseCode = "304", description = "El resultado no ha cambiado desde el ETag de If-None-Match",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida o validación fallida",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Precio no encontrado",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @GetMapping("/effective")
+    public ResponseEntity<?> getEffectivePrice(
+            @RequestParam @Min(1) Integer productId,
+            @RequestParam @Min(1) Integer brandId,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String date,
+            ServletWebRequest request) {
+        MediaType mediaType = negotiate(request);
+        String etag = etag(productId, brandId, mediaType);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return priceService.findEffectivePrice(productId, brandId, date)
+                .<ResponseEntity<?>>map(price -> ResponseEntity.ok().contentType(mediaType).eTag(etag).body(price))
+                .orElseGet(GlobalExceptionHandler::priceNotFound);
+    }
+
+    @Operation(summary = "Obtener la evolución del precio en un rango", description = "Devuelve, en orden, los intervalos del rango [from, to] en los que prevalece cada precio del producto y marca")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Intervalos del rango; lista vacía si ningún precio lo cubre",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceSegment.class)) }),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida o rango invertido", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @GetMapping("/timeline")
+    public ResponseEntity<StreamingResponseBody> getPriceTimeline(
             @RequestParam @Min(1) Integer productId,
             @RequestParam @Min(1) Integer brandId,
-            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String date) {
-        return ResponseEntity.ok(priceService.getApplicablePrices(productId, brandId, date));
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String from,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String to) {
+        return streamJsonArray(priceService.getPriceTimeline(productId, brandId, from, to));
+    }
+
+    @Operation(summary = "Consultar estadísticas de la caché", description = "Devuelve los aciertos, fallos y tamaño de la caché de precios")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estadísticas de la caché",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceCacheStats.class)) })
+    })
+    @GetMapping("/cache/stats")
+    public ResponseEntity<PriceCacheStats> getCacheStats() {
+        return ResponseEntity.ok(priceService.getCacheStats());
+    }
+
+    @Operation(summary = "Resolver precios por lotes", description = "Resuelve el precio efectivo de una lista de consultas (producto, marca, fecha) y devuelve los resultados en el mismo orden, indicando el estado de cada una")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote resuelto; cada resultado indica FOUND, NOT_FOUND o INVALID",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceResolveResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @PostMapping("/resolve")
+    public ResponseEntity<StreamingResponseBody> resolvePrices(@RequestBody List<PriceResolveRequest> requests) {
+        // El lote se valida antes de responder; cada consulta se resuelve y se escribe después, una a una
+        priceService.checkResolveBatch(requests);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                try {
+                    priceService.resolvePrices(requests, result -> {
+                        try {
+                            generator.writeObject(result);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Importar precios en bloque (NDJSON)", description = "Importa un flujo NDJSON de precios, un objeto por línea, confirmando en bloques de chunkSize filas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación procesada; el informe detalla el resultado de cada bloque",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceImportReport.class)) }),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<PriceImportReport> importNdjson(InputStream body,
+                                                          @RequestParam(required = false) @Min(1) Integer chunkSize) {
+        return ResponseEntity.ok(priceImportService.importNdjson(body, chunkSize));
+    }
+
+    @Operation(summary = "Importar precios en bloque (CSV)", description = "Importa un flujo CSV de precios con cabecera, confirmando en bloques de chunkSize filas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación procesada; el informe detalla el resultado de cada bloque",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceImportReport.class)) }),
+            @ApiResponse(responseCode = "400", description = "Parámetros o cabecera inválidos", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<PriceImportReport> importCsv(InputStream body,
+                                                       @RequestParam(required = false) @Min(1) Integer chunkSize) {
+        return ResponseEntity.ok(priceImportService.importCsv(body, chunkSize));
+    }
+
+    @Operation(summary = "Exportar precios en bloque", description = "Exporta, ordenados por producto, marca y fecha de inicio, los precios de los rangos de producto y marca indicados como CSV o en el formato binario compacto (format=BINARY). Con partitions=N y partition=0..N-1 exporta solo uno de N tramos contiguos de productos, para repartir la exportación entre varias peticiones en paralelo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Precios exportados; la cabecera X-Price-Export-Range indica el rango exportado",
+                    content = { @Content(mediaType = "text/csv"), @Content(mediaType = "application/octet-stream") }),
+            @ApiResponse(responseCode = "400", description = "Rango o partición inválidos", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPrices(
+            @RequestParam(defaultValue = "CSV") PriceExportService.Format format,
+            @RequestParam(required = false) Integer productIdFrom,
+            @RequestParam(required = false) Integer productIdTo,
+            @RequestParam(required = false) Integer brandIdFrom,
+            @RequestParam(required = false) Integer brandIdTo,
+            @RequestParam(required = false) Integer partition,
+            @RequestParam(required = false) Integer partitions) {
+        Optional<PriceKeyRange> range = priceExportService.resolveRange(productIdFrom, productIdTo, brandIdFrom, brandIdTo,
+                partition, partitions);
+        boolean csv = format == PriceExportService.Format.CSV;
+        String filename = "prices" + (partitions != null ? "-" + (partition != null ? partition : 0) : "") + (csv ? ".csv" : ".bin");
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header("X-Price-Export-Range", range.map(Object::toString).orElse("empty"))
+                .body(outputStream -> priceExportService.export(range, format, outputStream));
+    }
+
+    @Operation(summary = "Escribir una instantánea de precios", description = "Escribe todos los precios en la instantánea columnar configurada en price.store.snapshot, desde la que puede arrancar una instancia con price.store.type=columnar")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Instantánea escrita",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceSnapshotReport.class)) }),
+            @ApiResponse(responseCode = "500", description = "Error escribiendo la instantánea", content = @Content)
+    })
+    @PostMapping("/snapshot")
+    public ResponseEntity<PriceSnapshotReport> writeSnapshot() {
+        return ResponseEntity.ok(priceSnapshotService.writeSnapshot());
+    }
+
+    @Operation(summary = "Archivar los precios caducados", description = "Mueve a la tabla price_archive los precios que terminaron hace más de price.archive.min-age. Las consultas de fechas pasadas los siguen encontrando")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Precios archivados",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = PriceArchiveReport.class)) }),
+            @ApiResponse(responseCode = "500", description = "Error archivando los precios", content = @Content)
+    })
+    @PostMapping("/archive")
+    public ResponseEntity<PriceArchiveReport> archive() {
+        return ResponseEntity.ok(priceArchiveService.archive());
+    }
+
+    @Operation(summary = "Seguir los cambios de precios", description = "Emite, en orden y por lotes, los cambios confirmados posteriores a la secuencia after (o a la actual, si se omite) como NDJSON, un cambio por línea, o como eventos SSE con Accept: text/event-stream, un lote por evento cuyo id es su última secuencia. Con follow=false devuelve los cambios ya disponibles y termina")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo de cambios; la cabecera X-Price-Sequence indica la secuencia de partida",
+                    content = { @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = PriceChange.class)) }),
+            @ApiResponse(responseCode = "400", description = "Tamaño de lote inválido", content = @Content),
+            @ApiResponse(responseCode = "410", description = "Los cambios posteriores a after ya no se retienen; hay que recargar los precios", content = @Content)
+    })
+    @GetMapping(value = "/changes", produces = {"application/x-ndjson", MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> getChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @Min(1) Integer batchSize,
+            @RequestParam(defaultValue = "true") boolean follow,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws IOException {
+        PriceChangeFeed.Cursor cursor = priceChangeFeed.open(after != null ? after : lastEventId, batchSize);
+        // Se lee antes de arrancar el hilo del flujo, que avanza el cursor
+        long start = cursor.position();
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        ResponseBodyEmitter emitter = sse
+                ? new SseEmitter(priceChangeFeed.streamTimeout().toMillis())
+                : new ResponseBodyEmitter(priceChangeFeed.streamTimeout().toMillis());
+
+        // Escritura vacía: las cabeceras (X-Price-Sequence) se envían al abrir el flujo y no con el primer cambio
+        if (sse) {
+            ((SseEmitter) emitter).send(SseEmitter.event().comment("sequence " + start));
+        } else {
+            emitter.send("", MediaType.TEXT_PLAIN);
+        }
+
+        // Un hilo virtual por consumidor: pasa casi todo el tiempo esperando cambios
+        Thread.ofVirtual().name("price-changes").start(() -> {
+            try {
+                List<PriceChange> changes = follow ? cursor.next() : cursor.poll();
+                while (true) {
+                    if (sse) {
+                        sendEvent((SseEmitter) emitter, cursor.position(), changes);
+                    } else if (!changes.isEmpty()) {
+                        emitter.send(ndjson(changes), MediaType.TEXT_PLAIN);
+                    }
+                    if (!follow || cursor.isExpired()) {
+                        break;
+                    }
+                    changes = cursor.next();
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Consumidor de cambios desconectado en la secuencia {}: {}", cursor.position(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.warn("Flujo de cambios interrumpido en la secuencia {}: {}", cursor.position(), e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.parseMediaType("application/x-ndjson"))
+                .header("X-Price-Sequence", String.valueOf(start))
+                .body(emitter);
+    }
+
+    /**
+     * Elige JSON o CBOR según la cabecera Accept, por orden de preferencia; JSON si no pide ninguno de los dos.
+     * La respuesta depende de Accept, lo que se indica con Vary también en las respuestas 304 y 404.
+     */
+    private static MediaType negotiate(ServletWebRequest request) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return negotiate(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Negociación de {@link #negotiate(ServletWebRequest)} sobre el valor de Accept, compartida con
+     * {@link ReactivePriceController}.
+     */
+    static MediaType negotiate(String accept) {
+        if (accept == null || !accept.contains(CBOR.getSubtype())) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() > 0 && candidate.includes(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (candidate.getQualityValue() > 0 && candidate.includes(CBOR)) {
+                return CBOR;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * ETag fuerte de una consulta sobre el par: la etiqueta de su contenido y la codificación. Se calcula
+     * antes de la consulta, de modo que un cambio concurrente la deja obsoleta en lugar de etiquetar el
+     * resultado nuevo con la etiqueta vieja.
+     */
+    private String etag(Integer productId, Integer brandId, MediaType mediaType) {
+        return etag(priceService.getPriceTag(productId, brandId), mediaType);
+    }
+
+    static String etag(String priceTag, MediaType mediaType) {
+        return "\"" + priceTag + (CBOR.equals(mediaType) ? "-cbor\"" : "\"");
+    }
+
+    /**
+     * Serializa la lista como un array JSON directamente sobre la respuesta, elemento a elemento.
+     */
+    private ResponseEntity<StreamingResponseBody> streamJsonArray(List<?> items) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (Object item : items) {
+                    generator.writeObject(item);
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Escribe un lote como un único bloque NDJSON, de modo que se envía con una sola escritura.
+     */
+    private String ndjson(List<PriceChange> changes) throws IOException {
+        StringBuilder lines = new StringBuilder(changes.size() * 256);
+        for (PriceChange change : changes) {
+            lines.append(objectMapper.writeValueAsString(change)).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private static void sendEvent(SseEmitter emitter, long position, List<PriceChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        } else {
+            emitter.send(SseEmitter.event().id(String.valueOf(position)).name("changes")
+                    .data(changes, MediaType.APPLICATION_JSON));
+        }
     }
 }
@@ -0,0 +1,201 @@
+package com.miempresa.priceapplication.controller;
+
+import com.miempresa.priceapplication.exception.GlobalExceptionHandler;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceCacheStats;
+import com.miempresa.priceapplication.model.PriceChange;
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.model.PriceResolveRequest;
+import com.miempresa.priceapplication.model.PriceResolveResult;
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceSnapshotReport;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.service.PriceChangeFeed;
+import com.miempresa.priceapplication.service.PriceExportService;
+import com.miempresa.priceapplication.service.ReactivePriceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Variante reactiva de {@link PriceController}, activa con {@code spring.main.web-application-type=reactive}
+ * (perfil {@code reactive}). Ofrece los mismos endpoints con la misma validación; los errores los sigue
+ * traduciendo {@code GlobalExceptionHandler}, que WebFlux aplica igual que Spring MVC. Como en el controlador
+ * servlet, una consulta sin precios responde el 404 compartido sin lanzar ninguna excepción, y las consultas de
+ * precios aplicables y efectivos admiten CBOR ({@code ReactiveServerConfig}) y responden 304 con If-None-Match.
+ */
+@RestController
+@RequestMapping("/api/prices")
+@Tag(name = "Price API", description = "API para consultar precios por fecha, producto y marca")
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePriceController {
+
+    @Autowired
+    private ReactivePriceService reactivePriceService;
+
+    @Operation(summary = "Crear un nuevo precio", description = "Crea un precio basado en los detalles proporcionados.")
+    @PostMapping
+    public Mono<ResponseEntity<Price>> createPrice(@Valid @RequestBody Price price) {
+        return reactivePriceService.createPrice(price)
+                .map(createdPrice -> ResponseEntity.status(201).body(createdPrice));
+    }
+
+    @Operation(summary = "Obtener precios aplicables", description = "Devuelve el precio aplicable basado en producto, marca y fecha, en JSON o en CBOR con Accept: application/cbor. Con If-None-Match responde 304 si no ha cambiado")
+    @GetMapping
+    public Mono<ResponseEntity<?>> getPrices(
+            @RequestParam @Min(1) Integer productId,
+            @RequestParam @Min(1) Integer brandId,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String date,
+            ServerWebExchange exchange) {
+        MediaType mediaType = negotiate(exchange);
+        String etag = PriceController.etag(reactivePriceService.getPriceTag(productId, brandId), mediaType);
+        if (exchange.checkNotModified(etag)) {
+            return Mono.empty();
+        }
+        return reactivePriceService.findApplicablePrices(productId, brandId, date)
+                .map(prices -> prices.isEmpty() ? GlobalExceptionHandler.priceNotFound()
+                        : ResponseEntity.ok().contentType(mediaType).eTag(etag).body(prices));
+    }
+
+    @Operation(summary = "Obtener el precio efectivo", description = "Devuelve el único precio que prevalece para el producto, marca y fecha: el de mayor prioridad, en JSON o en CBOR con Accept: application/cbor. Con If-None-Match responde 304 si no ha cambiado")
+    @GetMapping("/effective")
+    public Mono<ResponseEntity<?>> getEffectivePrice(
+            @RequestParam @Min(1) Integer productId,
+            @RequestParam @Min(1) Integer brandId,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String date,
+            ServerWebExchange exchange) {
+        MediaType mediaType = negotiate(exchange);
+        String etag = PriceController.etag(reactivePriceService.getPriceTag(productId, brandId), mediaType);
+        if (exchange.checkNotModified(etag)) {
+            return Mono.empty();
+        }
+        return reactivePriceService.findEffectivePrice(productId, brandId, date)
+                .<ResponseEntity<?>>map(price -> ResponseEntity.ok().contentType(mediaType).eTag(etag).body(price))
+                .defaultIfEmpty(GlobalExceptionHandler.priceNotFound());
+    }
+
+    @Operation(summary = "Obtener la evolución del precio en un rango", description = "Devuelve, en orden, los intervalos del rango [from, to] en los que prevalece cada precio del producto y marca")
+    @GetMapping("/timeline")
+    public Flux<PriceSegment> getPriceTimeline(
+            @RequestParam @Min(1) Integer productId,
+            @RequestParam @Min(1) Integer brandId,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String from,
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) String to) {
+        return reactivePriceService.getPriceTimeline(productId, brandId, from, to);
+    }
+
+    @Operation(summary = "Consultar estadísticas de la caché", description = "Devuelve los aciertos, fallos y tamaño de la caché de precios")
+    @GetMapping("/cache/stats")
+    public Mono<PriceCacheStats> getCacheStats() {
+        return reactivePriceService.getCacheStats();
+    }
+
+    @Operation(summary = "Resolver precios por lotes", description = "Resuelve el precio efectivo de una lista de consultas (producto, marca, fecha) y devuelve los resultados en el mismo orden, indicando el estado de cada una")
+    @PostMapping("/resolve")
+    public Flux<PriceResolveResult> resolvePrices(@RequestBody List<PriceResolveRequest> requests) {
+        return reactivePriceService.resolvePrices(requests);
+    }
+
+    @Operation(summary = "Importar precios en bloque (NDJSON)", description = "Importa un flujo NDJSON de precios, un objeto por línea, confirmando en bloques de chunkSize filas")
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public Mono<PriceImportReport> importNdjson(@RequestBody Flux<DataBuffer> body,
+                                                @RequestParam(required = false) @Min(1) Integer chunkSize) {
+        return reactivePriceService.importNdjson(body, chunkSize);
+    }
+
+    @Operation(summary = "Importar precios en bloque (CSV)", description = "Importa un flujo CSV de precios con cabecera, confirmando en bloques de chunkSize filas")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public Mono<PriceImportReport> importCsv(@RequestBody Flux<DataBuffer> body,
+                                             @RequestParam(required = false) @Min(1) Integer chunkSize) {
+        return reactivePriceService.importCsv(body, chunkSize);
+    }
+
+    @Operation(summary = "Exportar precios en bloque", description = "Exporta, ordenados por producto, marca y fecha de inicio, los precios de los rangos de producto y marca indicados como CSV o en el formato binario compacto (format=BINARY). Con partitions=N y partition=0..N-1 exporta solo uno de N tramos contiguos de productos")
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportPrices(
+            @RequestParam(defaultValue = "CSV") PriceExportService.Format format,
+            @RequestParam(required = false) Integer productIdFrom,
+            @RequestParam(required = false) Integer productIdTo,
+            @RequestParam(required = false) Integer brandIdFrom,
+            @RequestParam(required = false) Integer brandIdTo,
+            @RequestParam(required = false) Integer partition,
+            @RequestParam(required = false) Integer partitions) {
+        boolean csv = format == PriceExportService.Format.CSV;
+        String filename = "prices" + (partitions != null ? "-" + (partition != null ? partition : 0) : "") + (csv ? ".csv" : ".bin");
+        return reactivePriceService.exportRange(productIdFrom, productIdTo, brandIdFrom, brandIdTo, partition, partitions)
+                .map(range -> ResponseEntity.ok()
+                        .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                        .header("X-Price-Export-Range", range.map(Object::toString).orElse("empty"))
+                        .body(reactivePriceService.export(range, format)));
+    }
+
+    @Operation(summary = "Escribir una instantánea de precios", description = "Escribe todos los precios en la instantánea columnar configurada en price.store.snapshot, desde la que puede arrancar una instancia con price.store.type=columnar")
+    @PostMapping("/snapshot")
+    public Mono<PriceSnapshotReport> writeSnapshot() {
+        return reactivePriceService.writeSnapshot();
+    }
+
+    @Operation(summary = "Archivar los precios caducados", description = "Mueve a la tabla price_archive los precios que terminaron hace más de price.archive.min-age. Las consultas de fechas pasadas los siguen encontrando")
+    @PostMapping("/archive")
+    public Mono<PriceArchiveReport> archive() {
+        return reactivePriceService.archive();
+    }
+
+    @Operation(summary = "Seguir los cambios de precios", description = "Emite, en orden y por lotes, los cambios confirmados posteriores a la secuencia after (o a la actual, si se omite) como NDJSON, un cambio por línea. Con follow=false devuelve los cambios ya disponibles y termina")
+    @GetMapping(value = "/changes", produces = "application/x-ndjson")
+    public Mono<ResponseEntity<Flux<PriceChange>>> getChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @Min(1) Integer batchSize,
+            @RequestParam(defaultValue = "true") boolean follow) {
+        return reactivePriceService.openChanges(after, batchSize)
+                .map(cursor -> changesResponse(cursor)
+                        .body(reactivePriceService.changes(cursor, follow).flatMapIterable(changes -> changes)));
+    }
+
+    @Operation(summary = "Seguir los cambios de precios (SSE)", description = "Como la variante NDJSON, pero con un evento por lote cuyo id es su última secuencia; admite Last-Event-ID para reanudar")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<List<PriceChange>>>>> getChangeEvents(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @Min(1) Integer batchSize,
+            @RequestParam(defaultValue = "true") boolean follow,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return reactivePriceService.openChanges(after != null ? after : lastEventId, batchSize)
+                .map(cursor -> changesResponse(cursor).body(reactivePriceService.changes(cursor, follow)
+                        .map(changes -> changes.isEmpty()
+                                ? ServerSentEvent.<List<PriceChange>>builder().comment("heartbeat").build()
+                                : ServerSentEvent.builder(changes).event("changes")
+                                        .id(String.valueOf(changes.get(changes.size() - 1).sequence())).build())));
+    }
+
+    private static ResponseEntity.BodyBuilder changesResponse(PriceChangeFeed.Cursor cursor) {
+        return ResponseEntity.ok().header("X-Price-Sequence", String.valueOf(cursor.position()));
+    }
+
+    /**
+     * Elige JSON o CBOR como {@link PriceController} e indica con Vary que la respuesta depende de Accept.
+     */
+    private static MediaType negotiate(ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return PriceController.negotiate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+}
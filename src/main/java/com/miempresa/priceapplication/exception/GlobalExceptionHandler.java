@@ -1,13 +1,19 @@
 package com.miempresa.priceapplication.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,10 +21,32 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler  {
 
+    // Cuerpo inmutable y compartido: la respuesta más frecuente tras un acierto no reserva nada
+    private static final ResponseEntity<Map<String, String>> PRICE_NOT_FOUND = new ResponseEntity<>(
+            Map.of("error", "Not Found", "message", PriceNotFoundException.DEFAULT_MESSAGE), HttpStatus.NOT_FOUND);
+
+    /**
+     * Respuesta 404 para una consulta sin precios, la misma que produce {@link PriceNotFoundException}
+     * con su mensaje por defecto, pero sin lanzar ni capturar ninguna excepción.
+     */
+    public static ResponseEntity<Map<String, String>> priceNotFound() {
+        return PRICE_NOT_FOUND;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
+        return invalidFields(ex.getBindingResult());
+    }
+
+    // Equivalente en WebFlux de MethodArgumentNotValidException (modo reactivo)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleWebExchangeBind(WebExchangeBindException ex) {
+        return invalidFields(ex.getBindingResult());
+    }
+
+    private ResponseEntity<Map<String, String>> invalidFields(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach(error -> {
+        bindingResult.getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
@@ -32,6 +60,9 @@ public class GlobalExceptionHandler  {
 
     @ExceptionHandler(PriceNotFoundException.class)
     public ResponseEntity<Map<String, String>> handlePriceNotFoundException(PriceNotFoundException ex) {
+        if (PriceNotFoundException.DEFAULT_MESSAGE.equals(ex.getMessage())) {
+            return PRICE_NOT_FOUND;
+        }
         Map<String, String> response = new HashMap<>();
         response.put("error", "Not Found");
         response.put("message", ex.getMessage());
@@ -46,6 +77,15 @@ public class GlobalExceptionHandler  {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(PriceChangesExpiredException.class)
+    public ResponseEntity<Map<String, String>> handlePriceChangesExpiredException(PriceChangesExpiredException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Gone");
+        response.put("message", ex.getMessage());
+        // El endpoint de cambios solo produce NDJSON o SSE: el tipo explícito evita la negociación del error
+        return ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
     @ExceptionHandler(PriceServiceException.class)
     public ResponseEntity<Map<String, String>> handlePriceServiceException(PriceServiceException ex) {
         Map<String, String> response = new HashMap<>();
@@ -54,6 +94,27 @@ public class GlobalExceptionHandler  {
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> handleDatabaseUnavailable(Exception ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Service Unavailable");
+        response.put("message", "El servicio está saturado. Por favor, reintenta en unos instantes.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(PriceOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handlePriceOverloadedException(PriceOverloadedException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Service Unavailable");
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         Map<String, String> response = new HashMap<>();
@@ -0,0 +1,7 @@
+package com.miempresa.priceapplication.exception;
+
+public class PriceChangesExpiredException extends RuntimeException {
+    public PriceChangesExpiredException(String message) {
+        super(message);
+    }
+}
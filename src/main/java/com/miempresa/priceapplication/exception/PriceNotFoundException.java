@@ -1,7 +1,11 @@
 package com.miempresa.priceapplication.exception;
 
 public class PriceNotFoundException extends RuntimeException {
+
+    public static final String DEFAULT_MESSAGE = "No se encontraron precios para el producto, marca y fecha proporcionados.";
+
     public PriceNotFoundException(String message) {
-        super(message);
+        // Sin traza: un precio inexistente es una respuesta normal, no un fallo, y se consulta con frecuencia
+        super(message, null, false, false);
     }
 }
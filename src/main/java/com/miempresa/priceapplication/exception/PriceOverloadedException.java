@@ -0,0 +1,8 @@
+package com.miempresa.priceapplication.exception;
+
+public class PriceOverloadedException extends RuntimeException {
+    public PriceOverloadedException(String message) {
+        // Sin traza: en plena sobrecarga se lanzan miles por segundo y rechazar tiene que ser barato
+        super(message, null, false, false);
+    }
+}
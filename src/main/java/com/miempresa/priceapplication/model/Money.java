@@ -0,0 +1,210 @@
+package com.miempresa.priceapplication.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Importes en coma fija: un {@code long} con el número de unidades mínimas (céntimos) a la escala {@link #SCALE}.
+ *
+ * La escala es la de la columna price, DECIMAL(10, 2), y es la misma para todas las divisas: las que usan menos
+ * decimales (JPY, 0) se representan igual, con los céntimos a cero. Los importes viajan así desde la base de datos
+ * hasta el JSON sin pasar por {@code double}, por lo que no hay redondeos y comparar dos precios es comparar dos
+ * {@code long}. En JSON se siguen escribiendo como números decimales ({@code 35.50}).
+ */
+public final class Money {
+
+    /** Decimales de los importes. */
+    public static final int SCALE = 2;
+
+    /** Mayor importe que admite la columna DECIMAL(10, 2): 99999999.99. */
+    public static final long MAX = 99_999_999_99L;
+
+    private static final long FACTOR = 100;
+
+    /** "-" más los 19 dígitos de Long.MIN_VALUE y el punto decimal. */
+    private static final int MAX_CHARS = 21;
+
+    private Money() {
+    }
+
+    /**
+     * Lee un importe decimal ({@code 35.5}, {@code 35.50}, {@code -1}) sin pasar por {@code double}.
+     *
+     * @throws NumberFormatException si el texto no es un decimal o tiene más de {@link #SCALE} decimales significativos.
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    private static long parse(CharSequence text, int offset, int length) {
+        int end = offset + length;
+        int position = offset;
+        boolean negative = false;
+        if (position < end && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+            negative = text.charAt(position++) == '-';
+        }
+        long units = 0;
+        int integerDigits = 0;
+        while (position < end && text.charAt(position) != '.') {
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(text, position++));
+            integerDigits++;
+        }
+        int decimals = 0;
+        if (position < end) {
+            position++;
+            for (; position < end; position++) {
+                int digit = digit(text, position);
+                if (decimals < SCALE) {
+                    units = Math.addExact(Math.multiplyExact(units, 10), digit);
+                    decimals++;
+                } else if (digit != 0) {
+                    throw new NumberFormatException("El importe admite como máximo " + SCALE + " decimales: " + text.subSequence(offset, end));
+                }
+            }
+        }
+        if (integerDigits == 0 && decimals == 0) {
+            throw new NumberFormatException("Importe inválido: '" + text.subSequence(offset, end) + "'");
+        }
+        for (; decimals < SCALE; decimals++) {
+            units = Math.multiplyExact(units, 10);
+        }
+        return negative ? -units : units;
+    }
+
+    private static int digit(CharSequence text, int position) {
+        char c = text.charAt(position);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Importe inválido: '" + text + "'");
+        }
+        return c - '0';
+    }
+
+    /**
+     * Convierte un decimal de JDBC. Falla si tiene más de {@link #SCALE} decimales significativos.
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Añade el importe con exactamente {@link #SCALE} decimales, p. ej. {@code 3550 -> "35.50"}.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long units) {
+        char[] buffer = new char[MAX_CHARS];
+        int start = format(units, buffer);
+        return builder.append(buffer, start, MAX_CHARS - start);
+    }
+
+    public static String toString(long units) {
+        char[] buffer = new char[MAX_CHARS];
+        int start = format(units, buffer);
+        return new String(buffer, start, MAX_CHARS - start);
+    }
+
+    /**
+     * Escribe el importe al final de {@code buffer} y devuelve la posición de su primer carácter.
+     */
+    private static int format(long units, char[] buffer) {
+        int position = buffer.length;
+        // Se trabaja en negativo para que Long.MIN_VALUE no desborde
+        long remaining = units < 0 ? units : -units;
+        for (int i = 0; i < SCALE; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (units < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    /**
+     * Escribe el importe como número JSON con {@link #SCALE} decimales directamente desde el {@code long},
+     * sin crear ni un {@code Double} ni un {@code BigDecimal}. En los formatos binarios (CBOR), que escribirían
+     * el texto como una cadena, se escribe como decimal exacto.
+     */
+    public static final class Serializer extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long units, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (generator.canWriteBinaryNatively()) {
+                generator.writeNumber(toDecimal(units));
+                return;
+            }
+            char[] buffer = new char[MAX_CHARS];
+            int start = format(units, buffer);
+            generator.writeNumber(buffer, start, MAX_CHARS - start);
+        }
+
+        @Override
+        public Class<Long> handledType() {
+            return Long.class;
+        }
+    }
+
+    /**
+     * Lee un número JSON (o una cadena con un número) como unidades mínimas a partir de su texto, sin pasar por
+     * {@code double}. Un importe con más de {@link #SCALE} decimales se rechaza en lugar de redondearse.
+     */
+    public static final class Deserializer extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Long) context.handleUnexpectedToken(Long.class, parser);
+            }
+            String text = parser.getText().trim();
+            try {
+                return parse(text);
+            } catch (NumberFormatException | ArithmeticException e) {
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    // Notación científica (2.1E1): se lee como decimal exacto
+                    try {
+                        return fromDecimal(parser.getDecimalValue());
+                    } catch (ArithmeticException ignored) {
+                        // cae en el error de formato
+                    }
+                }
+                throw InvalidFormatException.from(parser, e.getMessage(), text, Long.class);
+            }
+        }
+    }
+
+    /**
+     * Guarda las unidades mínimas en la columna DECIMAL(10, 2).
+     */
+    @Converter
+    public static final class DecimalConverter implements AttributeConverter<Long, BigDecimal> {
+
+        @Override
+        public BigDecimal convertToDatabaseColumn(Long units) {
+            return units == null ? null : toDecimal(units);
+        }
+
+        @Override
+        public Long convertToEntityAttribute(BigDecimal amount) {
+            return amount == null ? null : fromDecimal(amount);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.miempresa.priceapplication.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.miempresa.priceapplication.repository.PriceIndexListener;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,10 +22,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(PriceIndexListener.class)
 public class Price {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_seq")
+    @SequenceGenerator(name = "price_seq", sequenceName = "price_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El ID de la marca no puede ser nulo")
@@ -42,9 +51,17 @@ public class Price {
     @NotNull(message = "La prioridad no puede ser nula")
     private Integer priority;
 
+    /**
+     * Importe en unidades mínimas (céntimos, ver {@link Money}); en JSON se lee y se escribe como decimal.
+     */
     @NotNull(message = "El precio no puede ser nulo")
-    @DecimalMin(value = "0.0", inclusive = false, message = "El precio debe ser mayor que 0")
-    private Double price;
+    @Positive(message = "El precio debe ser mayor que 0")
+    @Max(value = Money.MAX, message = "El precio no puede superar 99999999.99")
+    @Convert(converter = Money.DecimalConverter.class)
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    @Schema(type = "number", format = "decimal", example = "35.50")
+    private Long price;
 
     @NotBlank(message = "La moneda no puede estar vacía")
     @Size(min = 3, max = 3, message = "La moneda debe tener un código ISO de 3 caracteres")
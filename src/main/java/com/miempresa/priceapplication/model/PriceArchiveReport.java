@@ -0,0 +1,27 @@
+package com.miempresa.priceapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de archivar los precios caducados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceArchiveReport {
+
+    private long rows;
+
+    private int keys;
+
+    private int batches;
+
+    /** Fin más tardío de los precios archivados: las consultas de fechas posteriores no consultan el archivo. */
+    private LocalDateTime horizon;
+
+    private long elapsedMillis;
+}
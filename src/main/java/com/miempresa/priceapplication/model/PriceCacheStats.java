@@ -0,0 +1,30 @@
+package com.miempresa.priceapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadísticas de la caché de líneas temporales de precios.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceCacheStats {
+
+    private boolean enabled;
+
+    private long size;
+
+    private long requestCount;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private double hitRate;
+
+    private double missRate;
+
+    private long evictionCount;
+}
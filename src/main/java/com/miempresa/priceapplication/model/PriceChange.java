@@ -0,0 +1,12 @@
+package com.miempresa.priceapplication.model;
+
+/**
+ * Cambio confirmado sobre un precio, tal como lo publica el registro de cambios ({@code GET /api/prices/changes}).
+ *
+ * Los números de secuencia son estrictamente crecientes: un consumidor que guarda el último que ha aplicado
+ * puede reanudar desde él sin perder ni repetir cambios.
+ */
+public record PriceChange(long sequence, Type type, PriceView price) {
+
+    public enum Type { UPSERT, DELETE }
+}
@@ -0,0 +1,65 @@
+package com.miempresa.priceapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Informe de una importación masiva de precios, con el resultado de cada bloque confirmado.
+ */
+@Data
+@NoArgsConstructor
+public class PriceImportReport {
+
+    private long received;
+
+    private long inserted;
+
+    private long duplicates;
+
+    private long invalid;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private List<ChunkResult> chunks = new ArrayList<>();
+
+    public void add(ChunkResult chunk) {
+        chunks.add(chunk);
+        received += chunk.getReceived();
+        inserted += chunk.getInserted();
+        duplicates += chunk.getDuplicates();
+        invalid += chunk.getInvalid();
+        if (chunk.getStatus() == ChunkResult.Status.FAILED) {
+            failed += chunk.getReceived();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkResult {
+
+        public enum Status { COMMITTED, FAILED }
+
+        private int chunk;
+
+        private long firstLine;
+
+        private int received;
+
+        private int inserted;
+
+        private int duplicates;
+
+        private int invalid;
+
+        private Status status;
+
+        private List<String> errors;
+    }
+}
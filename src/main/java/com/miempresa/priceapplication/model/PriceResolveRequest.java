@@ -0,0 +1,20 @@
+package com.miempresa.priceapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una consulta individual dentro de una resolución de precios por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceResolveRequest {
+
+    private Integer productId;
+
+    private Integer brandId;
+
+    private String date;
+}
@@ -0,0 +1,31 @@
+package com.miempresa.priceapplication.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una consulta dentro de una resolución de precios por lotes.
+ * Cada consulta informa de su propio estado en lugar de interrumpir el lote completo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PriceResolveResult {
+
+    public enum Status { FOUND, NOT_FOUND, INVALID }
+
+    private Integer productId;
+
+    private Integer brandId;
+
+    private String date;
+
+    private Status status;
+
+    private PriceView price;
+
+    private String message;
+}
@@ -0,0 +1,10 @@
+package com.miempresa.priceapplication.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Intervalo de tiempo, con inicio y fin inclusivos, durante el que prevalece un mismo precio para un par
+ * (producto, marca). Lo devuelve {@code GET /api/prices/timeline}.
+ */
+public record PriceSegment(LocalDateTime startDate, LocalDateTime endDate, PriceView price) {
+}
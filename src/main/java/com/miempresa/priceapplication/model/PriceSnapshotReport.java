@@ -0,0 +1,24 @@
+package com.miempresa.priceapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de escribir una instantánea columnar de precios.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceSnapshotReport {
+
+    private String path;
+
+    private long rows;
+
+    private int keys;
+
+    private long bytes;
+
+    private long elapsedMillis;
+}
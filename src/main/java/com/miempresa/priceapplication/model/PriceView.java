@@ -0,0 +1,36 @@
+package com.miempresa.priceapplication.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección inmutable de un precio para la ruta de lectura.
+ *
+ * A diferencia de la entidad {@link Price}, no está gestionada por JPA, usa campos primitivos y puede
+ * compartirse entre hilos desde la caché de precios sin riesgo de que nadie la modifique. Se serializa
+ * con los mismos nombres de campo que la entidad, de modo que las respuestas de la API no cambian. El importe
+ * está en unidades mínimas ({@link Money}) y se escribe como decimal.
+ */
+public record PriceView(long id,
+                        int brandId,
+                        LocalDateTime startDate,
+                        LocalDateTime endDate,
+                        int priceList,
+                        int productId,
+                        int priority,
+                        @JsonSerialize(using = Money.Serializer.class)
+                        @Schema(type = "number", format = "decimal", example = "35.50")
+                        long price,
+                        String currency) {
+
+    /**
+     * Crea la proyección de una entidad ya validada. Un ID nulo (precio aún no guardado) se representa como 0.
+     */
+    public static PriceView of(Price price) {
+        return new PriceView(price.getId() == null ? 0L : price.getId(), price.getBrandId(), price.getStartDate(),
+                price.getEndDate(), price.getPriceList(), price.getProductId(), price.getPriority(), price.getPrice(),
+                price.getCurrency());
+    }
+}
@@ -0,0 +1,215 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceView;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Origen de precios columnar ({@code price.store.type=columnar}): el catálogo se sirve desde la
+ * {@link PriceSnapshot} de {@code price.store.snapshot}, proyectada en memoria fuera del heap, y la tabla
+ * price guarda solo los precios dados de alta después de escribirla.
+ *
+ * Cada lectura combina ambas capas; si la tabla tiene un precio con la misma (producto, marca, fecha de inicio)
+ * que la instantánea, prevalece el de la tabla. Las altas de una clave que ya está en la instantánea se
+ * rechazan como duplicadas ({@link #containsReadOnly}) y la secuencia de IDs se adelanta por encima del
+ * mayor ID de la instantánea. Al publicar una instantánea nueva con
+ * {@code POST /api/prices/snapshot} se sustituye la actual sin reiniciar.
+ */
+@Component
+@ConditionalOnProperty(name = "price.store.type", havingValue = "columnar")
+@Slf4j
+public class ColumnarPriceStore implements PriceStore {
+
+    private static final Comparator<PriceView> PRIORITY_DESC = Comparator.comparingInt(PriceView::priority).reversed();
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Value("${price.store.snapshot:prices.snapshot}")
+    private String snapshotPath;
+
+    private volatile PriceSnapshot snapshot = PriceSnapshot.empty();
+
+    @PostConstruct
+    public void init() {
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            log.warn("No existe la instantánea de precios {}: se arranca solo con la base de datos", path.toAbsolutePath());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            snapshot = PriceSnapshot.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir la instantánea de precios " + path.toAbsolutePath(), e);
+        }
+        priceRepository.reserveIdsAbove(snapshot.maxId());
+        log.info("Instantánea de precios {} abierta en {} ms: {} precios de {} pares, {} MiB fuera del heap",
+                path.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000, snapshot.size(), snapshot.keyCount(),
+                snapshot.bytes() >> 20);
+    }
+
+    @Override
+    public List<PriceView> findByProductIdAndBrandId(Integer productId, Integer brandId) {
+        return merge(snapshot.find(productId, brandId),
+                JpaPriceStore.views(priceRepository.findByProductIdAndBrandId(productId, brandId)));
+    }
+
+    @Override
+    public Map<Long, List<PriceView>> findByKeys(Collection<Long> keys) {
+        PriceSnapshot base = snapshot;
+        Map<Long, List<Price>> recentByKey = priceRepository.findByKeys(keys, JpaPriceStore.KEYS_PER_QUERY);
+        Map<Long, List<PriceView>> pricesByKey = new HashMap<>();
+        for (long key : keys) {
+            List<Price> recent = recentByKey.get(key);
+            List<PriceView> prices = merge(base.find((int) (key >>> 32), (int) key),
+                    recent == null ? List.of() : JpaPriceStore.views(recent));
+            if (!prices.isEmpty()) {
+                pricesByKey.put(key, prices);
+            }
+        }
+        return pricesByKey;
+    }
+
+    @Override
+    public List<PriceView> findApplicablePrices(Integer productId, Integer brandId, LocalDateTime date) {
+        List<PriceView> prices = new ArrayList<>();
+        for (PriceView price : findByProductIdAndBrandId(productId, brandId)) {
+            if (!date.isBefore(price.startDate()) && !date.isAfter(price.endDate())) {
+                prices.add(price);
+            }
+        }
+        prices.sort(PRIORITY_DESC);
+        return prices;
+    }
+
+    /**
+     * Combina en orden la instantánea con la tabla price, ambas ya ordenadas por (producto, marca, fecha
+     * de inicio) y limitadas al rango; ante la misma clave se emite solo el precio de la tabla.
+     */
+    @Override
+    public void forEachOrdered(PriceKeyRange range, PriceConsumer consumer) throws IOException {
+        Iterator<PriceView> base = snapshot.iterator(range);
+        PriceView[] pending = {base.hasNext() ? base.next() : null};
+        priceRepository.forEachOrdered(range, recent -> {
+            while (pending[0] != null) {
+                int order = compare(pending[0], recent);
+                if (order > 0) {
+                    break;
+                }
+                if (order < 0) {
+                    consumer.accept(pending[0]);
+                }
+                pending[0] = base.hasNext() ? base.next() : null;
+            }
+            consumer.accept(recent);
+        });
+        if (pending[0] != null) {
+            consumer.accept(pending[0]);
+        }
+        while (base.hasNext()) {
+            consumer.accept(base.next());
+        }
+    }
+
+    @Override
+    public Optional<PriceKeyRange> productRange() {
+        Optional<PriceKeyRange> base = snapshot.productRange();
+        Optional<PriceKeyRange> recent = priceRepository.productRange();
+        if (base.isEmpty() || recent.isEmpty()) {
+            return base.isEmpty() ? recent : base;
+        }
+        return Optional.of(new PriceKeyRange(Math.min(base.get().productIdFrom(), recent.get().productIdFrom()),
+                Math.max(base.get().productIdTo(), recent.get().productIdTo()), 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Devuelve los primeros pares de la instantánea. Los pares que solo tienen altas en la tabla no se incluyen.
+     */
+    @Override
+    public List<Long> keys(int limit) {
+        PriceSnapshot base = snapshot;
+        int count = Math.min(limit, base.keyCount());
+        List<Long> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(base.key(i));
+        }
+        return keys;
+    }
+
+    @Override
+    public void forEachKey(LongConsumer consumer) {
+        PriceSnapshot base = snapshot;
+        for (int i = 0; i < base.keyCount(); i++) {
+            consumer.accept(base.key(i));
+        }
+        priceRepository.forEachKey(consumer);
+    }
+
+    @Override
+    public boolean containsReadOnly(Integer productId, Integer brandId, LocalDateTime startDate) {
+        return productId != null && brandId != null && startDate != null
+                && snapshot.contains(productId, brandId, startDate);
+    }
+
+    @Override
+    public void snapshotWritten(PriceSnapshot written) {
+        snapshot = written;
+        log.info("Instantánea de precios sustituida: {} precios de {} pares", written.size(), written.keyCount());
+    }
+
+    public PriceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Combina los precios de un par: los de la tabla sustituyen a los de la instantánea con la misma fecha de inicio.
+     */
+    private static List<PriceView> merge(List<PriceView> base, List<PriceView> recent) {
+        if (recent.isEmpty()) {
+            return base;
+        }
+        Set<LocalDateTime> overridden = new HashSet<>();
+        for (PriceView price : recent) {
+            overridden.add(price.startDate());
+        }
+        List<PriceView> prices = new ArrayList<>(base.size() + recent.size());
+        for (PriceView price : base) {
+            if (!overridden.contains(price.startDate())) {
+                prices.add(price);
+            }
+        }
+        prices.addAll(recent);
+        return prices;
+    }
+
+    /**
+     * Orden de {@link PriceStore#forEachOrdered}: por clave compacta del par y fecha de inicio.
+     */
+    static int compare(PriceView a, PriceView b) {
+        int order = Long.compare(PriceIndex.key(a.productId(), a.brandId()), PriceIndex.key(b.productId(), b.brandId()));
+        return order != 0 ? order : a.startDate().compareTo(b.startDate());
+    }
+}
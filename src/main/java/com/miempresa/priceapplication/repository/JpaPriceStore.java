@@ -0,0 +1,81 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Origen de precios por defecto: la tabla price a través de {@link PriceRepository}.
+ */
+@Component
+@ConditionalOnProperty(name = "price.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaPriceStore implements PriceStore {
+
+    /** Pares por consulta en las lecturas en bloque: acota el tamaño de las listas IN. */
+    static final int KEYS_PER_QUERY = 500;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Override
+    public List<PriceView> findByProductIdAndBrandId(Integer productId, Integer brandId) {
+        return views(priceRepository.findByProductIdAndBrandId(productId, brandId));
+    }
+
+    @Override
+    public Map<Long, List<PriceView>> findByKeys(Collection<Long> keys) {
+        Map<Long, List<PriceView>> pricesByKey = new HashMap<>();
+        priceRepository.findByKeys(keys, KEYS_PER_QUERY).forEach((key, prices) -> pricesByKey.put(key, views(prices)));
+        return pricesByKey;
+    }
+
+    @Override
+    public List<PriceView> findApplicablePrices(Integer productId, Integer brandId, LocalDateTime date) {
+        return views(priceRepository.findApplicablePrices(productId, brandId, date));
+    }
+
+    @Override
+    public void forEachOrdered(PriceKeyRange range, PriceConsumer consumer) throws IOException {
+        priceRepository.forEachOrdered(range, consumer);
+    }
+
+    @Override
+    public Optional<PriceKeyRange> productRange() {
+        return priceRepository.productRange();
+    }
+
+    @Override
+    public List<Long> keys(int limit) {
+        List<Long> keys = new ArrayList<>();
+        for (Object[] pair : priceRepository.findKeys(PageRequest.of(0, limit))) {
+            keys.add(PriceIndex.key((Integer) pair[0], (Integer) pair[1]));
+        }
+        return keys;
+    }
+
+    @Override
+    public void forEachKey(LongConsumer consumer) {
+        priceRepository.forEachKey(consumer);
+    }
+
+    static List<PriceView> views(List<Price> prices) {
+        List<PriceView> views = new ArrayList<>(prices.size());
+        for (Price price : prices) {
+            views.add(PriceView.of(price));
+        }
+        return views;
+    }
+}
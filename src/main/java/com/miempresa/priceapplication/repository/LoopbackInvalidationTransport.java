@@ -0,0 +1,85 @@
+package com.miempresa.priceapplication.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Transporte de invalidaciones dentro de la misma JVM ({@code price.invalidation.transport=loopback}).
+ *
+ * Cada contexto de Spring que arranca con el mismo {@code price.invalidation.channel} se une al canal, y
+ * cada mensaje se copia a los demás miembros. Como en un transporte de red, la entrega es asíncrona: cada
+ * miembro recibe sus mensajes en orden en su propio hilo, de modo que las pruebas con varias instancias
+ * ven la misma ventana de inconsistencia que vería un despliegue real.
+ */
+@Component
+@ConditionalOnProperty(name = "price.invalidation.transport", havingValue = "loopback")
+@Slf4j
+public class LoopbackInvalidationTransport implements PriceInvalidationTransport {
+
+    private static final Map<String, Set<LoopbackInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    @Value("${price.invalidation.channel:prices}")
+    private String channel;
+
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Consumer<byte[]> receiver;
+
+    @PostConstruct
+    public void init() {
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+        log.info("Invalidaciones de precios por el canal local '{}'", channel);
+    }
+
+    @PreDestroy
+    public void close() {
+        Set<LoopbackInvalidationTransport> members = CHANNELS.get(channel);
+        if (members != null) {
+            members.remove(this);
+        }
+        delivery.shutdown();
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (LoopbackInvalidationTransport member : CHANNELS.getOrDefault(channel, Set.of())) {
+            if (member != this) {
+                member.deliver(message.clone());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    private void deliver(byte[] message) {
+        try {
+            delivery.execute(() -> {
+                Consumer<byte[]> current = receiver;
+                if (current != null) {
+                    current.accept(message);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Mensaje de invalidación descartado: la instancia del canal '{}' se está cerrando", channel);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.PriceView;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Capa fría de los precios: la tabla price_archive, con los precios caducados que
+ * {@code PriceArchiveService} saca de la tabla price.
+ *
+ * Solo puede tener precios aplicables en fechas no posteriores a su horizonte ({@link #horizon}), el fin más
+ * tardío de los precios archivados, que se guarda en memoria: las consultas de fechas vigentes o futuras lo
+ * descartan con una comparación y no llegan a esta tabla. El horizonte se adelanta antes de mover cada lote,
+ * de modo que un precio en tránsito se encuentra en la tabla price, en el archivo o en ambas, pero nunca en ninguna.
+ *
+ * Otra instancia que comparta la base de datos puede archivar sin que esta lo sepa. Por eso quien lee precios
+ * de la tabla price vuelve a leer después el horizonte ({@link #refreshHorizon}): un precio que ya no encuentra
+ * se archivó antes de esa lectura y el horizonte releído lo cubre. Las líneas temporales leídas antes del
+ * archivado siguen teniendo esos precios y no necesitan el horizonte nuevo.
+ */
+@Component
+public class PriceArchive {
+
+    private static final String COLUMNS = "id, brand_id, start_date, end_date, price_list, product_id, priority, price, currency";
+
+    private static final RowMapper<PriceView> VIEW = (resultSet, row) -> new PriceView(resultSet.getLong(1),
+            resultSet.getInt(2), resultSet.getTimestamp(3).toLocalDateTime(), resultSet.getTimestamp(4).toLocalDateTime(),
+            resultSet.getInt(5), resultSet.getInt(6), resultSet.getInt(7),
+            Money.fromDecimal(resultSet.getBigDecimal(8)), resultSet.getString(9));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Fin más tardío de los precios archivados, o {@code null} si el archivo está vacío. */
+    private volatile LocalDateTime horizon;
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder moved = new LongAdder();
+
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        refreshHorizon();
+    }
+
+    /**
+     * Vuelve a leer el horizonte de la tabla, donde lo adelantan también los archivados de otras instancias.
+     * Se resuelve con el índice idx_price_archive_end_date. Nunca lo retrasa: el de un lote revertido en esta
+     * instancia puede ir por delante de la tabla.
+     */
+    public void refreshHorizon() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(end_date) FROM price_archive", Timestamp.class);
+        if (latest != null) {
+            advanceHorizon(latest.toLocalDateTime());
+        }
+    }
+
+    /**
+     * Indica si el archivo puede tener precios aplicables en la fecha.
+     */
+    public boolean covers(LocalDateTime date) {
+        LocalDateTime current = horizon;
+        return current != null && !date.isAfter(current);
+    }
+
+    public LocalDateTime horizon() {
+        return horizon;
+    }
+
+    /**
+     * Devuelve los precios archivados de un par que cubren la fecha, sin ordenar.
+     */
+    public List<PriceView> findApplicablePrices(Integer productId, Integer brandId, LocalDateTime date) {
+        if (!covers(date)) {
+            return List.of();
+        }
+        lookups.increment();
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM price_archive WHERE product_id = ? AND brand_id = ? "
+                + "AND start_date <= ? AND end_date >= ?", VIEW, productId, brandId, date, date);
+    }
+
+    /**
+     * Devuelve los precios archivados de un par que siguen vigentes en la fecha o terminan después, sin ordenar.
+     */
+    public List<PriceView> findEndingFrom(Integer productId, Integer brandId, LocalDateTime from) {
+        if (!covers(from)) {
+            return List.of();
+        }
+        lookups.increment();
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM price_archive WHERE product_id = ? AND brand_id = ? "
+                + "AND end_date >= ?", VIEW, productId, brandId, from);
+    }
+
+    /**
+     * Indica si el precio (producto, marca, fecha de inicio) está archivado. Siempre consulta la tabla, con el
+     * índice de uk_price_archive_product_brand_start: el horizonte en memoria puede no incluir todavía lo que
+     * haya archivado otra instancia, y uk_price_product_brand_start no cubre price_archive.
+     */
+    public boolean contains(Integer productId, Integer brandId, LocalDateTime startDate) {
+        if (productId == null || brandId == null || startDate == null) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_archive "
+                + "WHERE product_id = ? AND brand_id = ? AND start_date = ?", Integer.class, productId, brandId, startDate);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Como {@code PriceRepository.findExistingKeys}, sobre los precios archivados: devuelve (producto, marca,
+     * fecha de inicio) de los que combinan alguno de los valores de cada colección, con una sola consulta.
+     */
+    public List<Object[]> findExistingKeys(Collection<Integer> productIds, Collection<Integer> brandIds,
+                                           Collection<LocalDateTime> startDates) {
+        if (productIds.isEmpty() || brandIds.isEmpty() || startDates.isEmpty()) {
+            return List.of();
+        }
+        return namedJdbcTemplate.query("SELECT product_id, brand_id, start_date FROM price_archive "
+                        + "WHERE product_id IN (:productIds) AND brand_id IN (:brandIds) AND start_date IN (:startDates)",
+                new MapSqlParameterSource().addValue("productIds", productIds).addValue("brandIds", brandIds)
+                        .addValue("startDates", startDates),
+                (resultSet, row) -> new Object[]{resultSet.getInt(1), resultSet.getInt(2),
+                        resultSet.getTimestamp(3).toLocalDateTime()});
+    }
+
+    /**
+     * Recorre en orden los precios del {@link PriceStore} junto con los archivados, leídos en el orden del índice
+     * de uk_price_archive_product_brand_start. Un precio en tránsito, en ambas capas, se emite una vez: el del store.
+     */
+    public void forEachOrdered(PriceStore priceStore, PriceStore.PriceConsumer consumer) throws IOException {
+        try (Stream<PriceView> archived = jdbcTemplate.queryForStream("SELECT " + COLUMNS + " FROM price_archive "
+                + "ORDER BY product_id, brand_id, start_date", VIEW)) {
+            Iterator<PriceView> history = archived.iterator();
+            PriceView[] pending = {history.hasNext() ? history.next() : null};
+            priceStore.forEachOrdered(current -> {
+                while (pending[0] != null) {
+                    int order = ColumnarPriceStore.compare(pending[0], current);
+                    if (order > 0) {
+                        break;
+                    }
+                    if (order < 0) {
+                        consumer.accept(pending[0]);
+                    }
+                    pending[0] = history.hasNext() ? history.next() : null;
+                }
+                consumer.accept(current);
+            });
+            if (pending[0] != null) {
+                consumer.accept(pending[0]);
+            }
+            while (history.hasNext()) {
+                consumer.accept(history.next());
+            }
+        }
+    }
+
+    /**
+     * Recorre las claves compactas ({@link PriceIndex#key}) de los pares con precios archivados, sin repetir.
+     */
+    public void forEachKey(LongConsumer consumer) {
+        jdbcTemplate.query("SELECT DISTINCT product_id, brand_id FROM price_archive",
+                (RowCallbackHandler) resultSet -> consumer.accept(PriceIndex.key(resultSet.getInt(1), resultSet.getInt(2))));
+    }
+
+    /**
+     * Mueve a price_archive hasta {@code limit} precios de la tabla price que terminaron antes de {@code cutoff},
+     * los que terminaron antes primero, leídos con el índice idx_price_end_date. Debe ejecutarse dentro de una
+     * transacción: el horizonte se adelanta antes de copiarlos, y si la transacción se revierte solo quedará más
+     * adelantado de lo necesario.
+     *
+     * @return Los precios movidos.
+     */
+    public List<PriceView> moveExpired(LocalDateTime cutoff, int limit) {
+        List<PriceView> expired = jdbcTemplate.query("SELECT " + COLUMNS + " FROM price WHERE end_date < ? "
+                + "ORDER BY end_date FETCH FIRST ? ROWS ONLY", VIEW, cutoff, limit);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        LocalDateTime latest = horizon;
+        List<Object[]> rows = new ArrayList<>(expired.size());
+        List<Object[]> ids = new ArrayList<>(expired.size());
+        for (PriceView price : expired) {
+            if (latest == null || price.endDate().isAfter(latest)) {
+                latest = price.endDate();
+            }
+            rows.add(new Object[]{price.id(), price.brandId(), Timestamp.valueOf(price.startDate()),
+                    Timestamp.valueOf(price.endDate()), price.priceList(), price.productId(), price.priority(),
+                    Money.toDecimal(price.price()), price.currency()});
+            ids.add(new Object[]{price.id()});
+        }
+        advanceHorizon(latest);
+        jdbcTemplate.batchUpdate("INSERT INTO price_archive (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.batchUpdate("DELETE FROM price WHERE id = ?", ids);
+        moved.add(expired.size());
+        return expired;
+    }
+
+    private synchronized void advanceHorizon(LocalDateTime latest) {
+        if (horizon == null || latest.isAfter(horizon)) {
+            horizon = latest;
+        }
+    }
+
+    /**
+     * Número de precios archivados.
+     */
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_archive", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Precios movidos al archivo desde el arranque, incluidos los de lotes que después se hayan revertido.
+     */
+    public long movedCount() {
+        return moved.sum();
+    }
+
+    /**
+     * Consultas que han llegado a la tabla price_archive por ser de fechas anteriores al horizonte.
+     */
+    public long lookupCount() {
+        return lookups.sum();
+    }
+}
@@ -0,0 +1,166 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.exception.PriceChangesExpiredException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceChange;
+import com.miempresa.priceapplication.model.PriceView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro ordenado, en memoria, de los cambios confirmados sobre la tabla price.
+ *
+ * Lo alimenta {@link PriceIndexListener} tras cada commit, de modo que recoge cualquier ruta de escritura
+ * JPA (altas, importaciones, actualizaciones y borrados) y nunca publica un cambio revertido. Cada cambio
+ * recibe un número de secuencia creciente y se guarda en un búfer circular de {@code price.changes.retention}
+ * entradas: un consumidor que se queda más atrás que la retención recibe {@link PriceChangesExpiredException}
+ * y debe volver a cargar el catálogo antes de seguir.
+ *
+ * La primera secuencia de cada arranque es el instante de arranque en microsegundos, de modo que las
+ * secuencias también crecen entre reinicios y un desplazamiento guardado contra una ejecución anterior
+ * se detecta como caducado en lugar de confundirse con uno de la actual.
+ */
+@Component
+public class PriceChangeLog {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${price.changes.retention:50000}")
+    private int retention;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition appended = lock.newCondition();
+
+    private PriceChange[] entries;
+
+    /**
+     * Secuencia del cambio más reciente; la del más antiguo retenido es {@code last - count + 1}.
+     */
+    private long last;
+
+    private int count;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        if (retention < 1) {
+            throw new IllegalStateException("price.changes.retention debe ser mayor que 0");
+        }
+        entries = new PriceChange[retention];
+        last = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        Gauge.builder("price.changes.sequence", this, PriceChangeLog::lastSequence)
+                .description("Secuencia del último cambio de precio publicado")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica los cambios de una transacción confirmada: primero los borrados y después las altas y
+     * actualizaciones, en el mismo orden en que se aplican al índice.
+     */
+    public void append(Collection<Price> removed, Collection<Price> saved) {
+        if (removed.isEmpty() && saved.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (Price price : removed) {
+                add(PriceChange.Type.DELETE, price);
+            }
+            for (Price price : saved) {
+                add(PriceChange.Type.UPSERT, price);
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Registra un oyente al que se avisa, fuera del cerrojo y en el hilo que confirma la transacción, cada vez que
+     * se publican cambios, para que los consumidores sin hilo propio sepan cuándo leer. Debe volver enseguida.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Devuelve, sin esperar, hasta {@code limit} cambios posteriores a la secuencia {@code after}.
+     *
+     * @throws PriceChangesExpiredException si alguno de los cambios posteriores a {@code after} ya no se retiene,
+     * o si {@code after} no corresponde a esta ejecución.
+     */
+    public List<PriceChange> read(long after, int limit) {
+        lock.lock();
+        try {
+            return copy(after, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Como {@link #read}, pero si todavía no hay cambios posteriores a {@code after} espera a que se publiquen
+     * durante {@code timeout} como máximo. Devuelve una lista vacía si no llega ninguno.
+     */
+    public List<PriceChange> await(long after, int limit, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            List<PriceChange> changes = copy(after, limit);
+            while (changes.isEmpty() && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+                changes = copy(after, limit);
+            }
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(PriceChange.Type type, Price price) {
+        last++;
+        entries[(int) Math.floorMod(last, (long) entries.length)] = new PriceChange(last, type, PriceView.of(price));
+        count = Math.min(count + 1, entries.length);
+    }
+
+    private List<PriceChange> copy(long after, int limit) {
+        long first = last - count + 1;
+        if (after < first - 1 || after > last) {
+            throw new PriceChangesExpiredException("Los cambios posteriores a la secuencia " + after
+                    + " ya no están disponibles (se conservan desde la " + first + " hasta la " + last
+                    + "). Vuelve a cargar los precios y reanuda desde la secuencia actual.");
+        }
+        int size = (int) Math.min(limit, last - after);
+        List<PriceChange> changes = new ArrayList<>(size);
+        for (long sequence = after + 1; sequence <= after + size; sequence++) {
+            changes.add(entries[(int) Math.floorMod(sequence, (long) entries.length)]);
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,578 @@
+package com.miempresa.priceapplication.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceView;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Índice en memoria de los precios, agrupados por (producto, marca).
+ *
+ * Cada par tiene su propia {@link PriceTimeline}, de modo que las consultas de precios aplicables
+ * se resuelven en O(log n) sobre segmentos ya resueltos por prioridad: una entrada responde a
+ * cualquier fecha del par sin volver a la base de datos.
+ *
+ * Con {@code price.index.resident=true} (por defecto) el índice guarda las líneas temporales de todos los pares:
+ * se cargan completas al arrancar desde el {@link PriceStore} configurado y las consultas no acceden a la base de
+ * datos. Solo se vuelve a leer un par de la base de datos cuando otra instancia lo modifica. Con
+ * {@code price.index.resident=false}, para catálogos que no caben en el heap, cada par se carga bajo demanda
+ * con una única consulta.
+ *
+ * Sobre el índice, una caché Caffeine acotada por tamaño y con caducidad guarda las líneas temporales más
+ * consultadas. {@link PriceIndexListener} aplica cada escritura confirmada solo al par afectado, y
+ * {@link PriceInvalidationBus} descarta los pares que modifican otras instancias: cada línea temporal guarda
+ * la versión del par con la que se cargó y se vuelve a cargar si la versión ha avanzado.
+ * Con {@code price.cache.enabled=false} no se guarda nada en la caché y cada consulta va al índice completo
+ * o, sin él, a la base de datos, lo que permite comparar los modos.
+ *
+ * Las consultas idénticas simultáneas se agrupan en una sola: con la caché, Caffeine ya bloquea a quien pide un
+ * par que se está cargando hasta que termina la carga; sin ella, {@link SingleFlight} hace lo mismo por
+ * (par, fecha) si {@code price.cache.coalesce=true}. En una venta flash, miles de peticiones del mismo producto
+ * en el mismo milisegundo se traducen en una consulta a la base de datos en lugar de miles.
+ *
+ * Las consultas de pares sin ningún precio se descartan antes de la caché con un {@link PriceKeyFilter} sobre
+ * todos los pares existentes ({@code price.key-filter.enabled}): no llegan a la base de datos ni ocupan entradas
+ * de la caché que expulsarían a pares reales. El filtro se construye en segundo plano al arrancar (hasta entonces
+ * todas las consultas van a la caché), recibe cada par escrito tras el commit y los que escriben otras instancias,
+ * y se reconstruye si se llena o si se pierden invalidaciones.
+ *
+ * {@link #version} da a cada par una versión de su contenido que aumenta con cualquier cambio, propio o de otra
+ * instancia, y con la que el controlador construye ETags sin leer ni serializar los precios.
+ *
+ * Las líneas temporales solo contienen los precios de la tabla price, vigentes y futuros una vez que
+ * {@code PriceArchiveService} archiva los caducados. Las consultas de fechas que cubre el {@link PriceArchive}
+ * combinan la línea temporal con los precios archivados del par; las demás no lo consultan. Cada lectura de la
+ * tabla price relee después el horizonte del archivo, de modo que lo que haya archivado otra instancia y falte
+ * en la línea temporal cargada queda cubierto.
+ */
+@Component
+@Slf4j
+public class PriceIndex {
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceInvalidationBus invalidationBus;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Value("${price.index.resident:true}")
+    private boolean resident;
+
+    @Value("${price.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${price.cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${price.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Value("${price.cache.coalesce:true}")
+    private boolean coalesce;
+
+    @Value("${price.invalidation.version-slots:65536}")
+    private int versionSlots;
+
+    @Value("${price.key-filter.enabled:true}")
+    private boolean keyFilterEnabled;
+
+    @Value("${price.key-filter.false-positive-rate:0.01}")
+    private double keyFilterFalsePositiveRate;
+
+    private final SingleFlight<ApplicableQuery, List<PriceView>> applicableQueries = new SingleFlight<>();
+
+    private final SingleFlight<Long, PriceTimeline> timelineQueries = new SingleFlight<>();
+
+    private Cache<Long, CachedTimeline> timelines;
+
+    /**
+     * Índice completo con {@code price.index.resident=true}: la línea temporal de cada par con precios, con la
+     * versión del par con la que se cargó. Un par ausente no tiene precios mientras su versión siga en 0.
+     */
+    private volatile Map<Long, CachedTimeline> residentTimelines = new ConcurrentHashMap<>();
+
+    /** Filtro en uso, o {@code null} mientras no hay ninguno válido (todas las consultas pasan). */
+    private volatile PriceKeyFilter keyFilter;
+
+    /** Filtro en construcción: recibe también las altas, para no perder las que confirman durante el recorrido. */
+    private volatile PriceKeyFilter nextKeyFilter;
+
+    private final AtomicBoolean keyFilterRebuildScheduled = new AtomicBoolean();
+
+    private final Object keyFilterLock = new Object();
+
+    private final LongAdder filteredCount = new LongAdder();
+
+    /** Cambios confirmados en esta instancia por contador, con el mismo reparto por hash que las versiones del bus. */
+    private AtomicLongArray changes;
+
+    @PostConstruct
+    public void init() {
+        timelines = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        changes = new AtomicLongArray(Integer.highestOneBit(Math.max(1, versionSlots - 1)) << 1);
+        if (resident) {
+            reload();
+        }
+        log.info("Caché de precios {}: máximo {} combinaciones de producto y marca, caducidad {}",
+                enabled ? "activada" : "desactivada", maximumSize, expireAfterWrite);
+        if (keyFilterEnabled) {
+            invalidationBus.addListener(new PriceInvalidationBus.Listener() {
+                @Override
+                public void keysChanged(long[] keys) {
+                    for (long key : keys) {
+                        admitKey(key);
+                    }
+                }
+
+                @Override
+                public void messagesLost() {
+                    keyFilter = null;
+                    scheduleKeyFilterRebuild();
+                }
+            });
+            scheduleKeyFilterRebuild();
+        }
+    }
+
+    /**
+     * Obtiene los precios aplicables para el producto, marca y fecha indicados.
+     *
+     * @return Los precios ordenados por prioridad descendente, o una lista vacía si no hay ninguno.
+     */
+    public List<PriceView> findApplicablePrices(Integer productId, Integer brandId, LocalDateTime date) {
+        if (isKnownEmpty(productId, brandId)) {
+            return List.of();
+        }
+        if (enabled || resident || priceArchive.covers(date)) {
+            return findTimeline(productId, brandId, date).applicableAt(date);
+        }
+        List<PriceView> prices = coalesce
+                ? applicableQueries.execute(new ApplicableQuery(key(productId, brandId), date),
+                        () -> priceStore.findApplicablePrices(productId, brandId, date))
+                : priceStore.findApplicablePrices(productId, brandId, date);
+        // Si otra instancia ha archivado precios de la fecha, el horizonte releído la cubre y se combinan ambas capas
+        priceArchive.refreshHorizon();
+        return priceArchive.covers(date) ? findTimeline(productId, brandId, date).applicableAt(date) : prices;
+    }
+
+    /**
+     * Obtiene el precio que prevalece para el producto, marca y fecha indicados.
+     *
+     * @return El precio efectivo, o vacío si ningún precio cubre la fecha.
+     */
+    public Optional<PriceView> findEffectivePrice(Integer productId, Integer brandId, LocalDateTime date) {
+        return Optional.ofNullable(findTimeline(productId, brandId, date).effectiveAt(date));
+    }
+
+    /**
+     * Obtiene la línea temporal de un par válida a partir de {@code from}: la de {@link #findTimeline(Integer, Integer)}
+     * si la fecha es posterior al horizonte del archivo y, si no, una nueva que añade los precios archivados
+     * que terminan en {@code from} o después. Un precio que se está archivando puede estar en ambas capas;
+     * se cuenta una vez. El horizonte se comprueba después de obtener la línea temporal, que al cargarse lo relee.
+     */
+    public PriceTimeline findTimeline(Integer productId, Integer brandId, LocalDateTime from) {
+        PriceTimeline timeline = findTimeline(productId, brandId);
+        if (!priceArchive.covers(from) || isKnownEmpty(productId, brandId)) {
+            return timeline;
+        }
+        List<PriceView> archived = priceArchive.findEndingFrom(productId, brandId, from);
+        return archived.isEmpty() ? timeline : timeline.withAll(archived);
+    }
+
+    /**
+     * Indica si una consulta de la fecha puede necesitar precios archivados, que no están en memoria.
+     */
+    public boolean isHistorical(LocalDateTime date) {
+        return priceArchive.covers(date);
+    }
+
+    /**
+     * Obtiene la línea temporal completa de un par (producto, marca), vacía si no tiene precios.
+     * Los pares sin precios también se guardan en caché, de modo que las consultas fallidas repetidas
+     * no llegan a la base de datos.
+     */
+    public PriceTimeline findTimeline(Integer productId, Integer brandId) {
+        if (isKnownEmpty(productId, brandId)) {
+            return PriceTimeline.EMPTY;
+        }
+        if (!enabled) {
+            if (resident) {
+                return residentTimeline(productId, brandId, key(productId, brandId));
+            }
+            if (!coalesce) {
+                return loadTimeline(productId, brandId);
+            }
+            return timelineQueries.execute(key(productId, brandId), () -> loadTimeline(productId, brandId));
+        }
+        long key = key(productId, brandId);
+        CachedTimeline cached = timelines.get(key, k -> load(productId, brandId, k));
+        if (cached.version() < invalidationBus.version(key)) {
+            cached = timelines.asMap().compute(key, (k, current) ->
+                    current != null && current.version() >= invalidationBus.version(k) ? current : load(productId, brandId, k));
+        }
+        return cached.timeline();
+    }
+
+    /**
+     * Carga en caché las líneas temporales de varios pares con pocas consultas al {@link PriceStore}, por
+     * ejemplo al arrancar. No sustituye las que ya estén en caché.
+     *
+     * @return El número de pares cargados.
+     */
+    public int preload(Collection<Long> keys) {
+        if (!enabled) {
+            return 0;
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        for (long key : keys) {
+            versions.put(key, invalidationBus.version(key));
+        }
+        Map<Long, List<PriceView>> pricesByKey = priceStore.findByKeys(keys);
+        priceArchive.refreshHorizon();
+        for (long key : keys) {
+            timelines.asMap().putIfAbsent(key,
+                    new CachedTimeline(PriceTimeline.of(pricesByKey.getOrDefault(key, List.of())), versions.get(key)));
+        }
+        return keys.size();
+    }
+
+    /**
+     * Indica si una consulta sobre el par se resolverá en memoria sin acceder a la base de datos: su línea
+     * temporal ya está en caché o en el índice completo, o el filtro de pares sabe que no tiene precios.
+     */
+    public boolean isCached(Integer productId, Integer brandId) {
+        if (isKnownEmpty(productId, brandId)) {
+            return true;
+        }
+        long key = key(productId, brandId);
+        if (resident && isCurrent(residentTimelines.get(key), key)) {
+            return true;
+        }
+        if (!enabled) {
+            return false;
+        }
+        CachedTimeline cached = timelines.getIfPresent(key);
+        return cached != null && cached.version() >= invalidationBus.version(key);
+    }
+
+    /**
+     * Vuelve a cargar el índice completo desde el {@link PriceStore} y vacía la caché. Se ejecuta al arrancar y
+     * hace falta, por ejemplo, tras insertar precios directamente por JDBC, sin pasar por JPA. Las escrituras que
+     * se confirmen durante la recarga pueden perderse: no debe ejecutarse con altas en curso.
+     */
+    public void reload() {
+        if (!resident) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Long, CachedTimeline> loaded = new ConcurrentHashMap<>();
+        List<PriceView> rows = new ArrayList<>();
+        long[] current = {0};
+        long[] count = {0};
+        try {
+            // Los precios llegan ordenados por (producto, marca): cada par se construye al empezar el siguiente
+            priceStore.forEachOrdered(price -> {
+                long key = key(price.productId(), price.brandId());
+                if (!rows.isEmpty() && key != current[0]) {
+                    loaded.put(current[0], new CachedTimeline(PriceTimeline.of(rows), 0));
+                    rows.clear();
+                }
+                current[0] = key;
+                rows.add(price);
+                count[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se ha podido cargar el índice de precios", e);
+        }
+        if (!rows.isEmpty()) {
+            loaded.put(current[0], new CachedTimeline(PriceTimeline.of(rows), 0));
+        }
+        priceArchive.refreshHorizon();
+        residentTimelines = loaded;
+        timelines.invalidateAll();
+        log.info("Índice de precios cargado en {} ms: {} precios de {} combinaciones de producto y marca",
+                (System.nanoTime() - start) / 1_000_000, count[0], loaded.size());
+    }
+
+    /**
+     * Aplica un precio guardado a la línea temporal de su par, solo si está en caché.
+     * Si no lo está, la próxima consulta lo cargará ya actualizado desde la base de datos.
+     */
+    public void put(Price price) {
+        putAll(List.of(price));
+    }
+
+    /**
+     * Aplica varios precios guardados, reconstruyendo una sola vez la línea temporal de cada par afectado.
+     */
+    public void putAll(Collection<Price> prices) {
+        Map<Long, List<PriceView>> pricesByKey = new HashMap<>();
+        for (Price price : prices) {
+            if (price.getProductId() != null && price.getBrandId() != null) {
+                long key = key(price.getProductId(), price.getBrandId());
+                admitKey(key);
+                pricesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(PriceView.of(price));
+            }
+        }
+        pricesByKey.forEach((key, added) -> {
+            if (resident) {
+                // Un par que no estaba en el índice tiene versión 0: si otra instancia ya lo había modificado,
+                // la próxima consulta lo cargará completo de la base de datos
+                residentTimelines.compute(key, (k, indexed) -> indexed == null
+                        ? new CachedTimeline(PriceTimeline.EMPTY.withAll(added), 0)
+                        : new CachedTimeline(indexed.timeline().withAll(added), indexed.version()));
+            }
+            timelines.asMap().computeIfPresent(key,
+                    (k, cached) -> new CachedTimeline(cached.timeline().withAll(added), cached.version()));
+            changed(key);
+        });
+    }
+
+    /**
+     * Elimina un precio de la línea temporal de su par, solo si está en caché.
+     */
+    public void remove(Price price) {
+        if (price.getId() == null || price.getProductId() == null || price.getBrandId() == null) {
+            return;
+        }
+        long key = key(price.getProductId(), price.getBrandId());
+        residentTimelines.computeIfPresent(key,
+                (k, indexed) -> new CachedTimeline(indexed.timeline().without(price.getId()), indexed.version()));
+        timelines.asMap().computeIfPresent(key,
+                (k, cached) -> new CachedTimeline(cached.timeline().without(price.getId()), cached.version()));
+        changed(key);
+    }
+
+    /**
+     * Quita de las líneas temporales en caché los precios que se han movido al archivo. No cambia la versión
+     * de los pares: las consultas devuelven lo mismo, ahora desde el archivo. Las otras instancias los conservan
+     * hasta volver a cargar el par, y entonces releen el horizonte que los cubre.
+     */
+    public void archived(Collection<PriceView> prices) {
+        Map<Long, Set<Long>> idsByKey = new HashMap<>();
+        for (PriceView price : prices) {
+            idsByKey.computeIfAbsent(key(price.productId(), price.brandId()), k -> new HashSet<>()).add(price.id());
+        }
+        idsByKey.forEach((key, ids) -> {
+            residentTimelines.computeIfPresent(key,
+                    (k, indexed) -> new CachedTimeline(indexed.timeline().withoutAll(ids), indexed.version()));
+            timelines.asMap().computeIfPresent(key,
+                    (k, cached) -> new CachedTimeline(cached.timeline().withoutAll(ids), cached.version()));
+        });
+    }
+
+    /**
+     * Identificador de esta instancia con el que son comparables las versiones de {@link #version}.
+     */
+    public long node() {
+        return invalidationBus.node();
+    }
+
+    /**
+     * Versión del contenido del par: aumenta después de aplicar cada cambio confirmado en esta instancia y con
+     * cada invalidación de otra. Leída antes de una consulta, una versión igual más tarde garantiza que el
+     * resultado no ha cambiado. Dos pares pueden compartir contador, lo que solo produce cambios de versión
+     * de más. Solo es comparable dentro de la misma instancia ({@link #node}).
+     */
+    public long version(Integer productId, Integer brandId) {
+        long key = key(productId, brandId);
+        return changes.get(slot(key)) + invalidationBus.version(key);
+    }
+
+    /**
+     * Descarta la línea temporal de un par, que se volverá a cargar en la próxima consulta.
+     */
+    public void invalidate(Integer productId, Integer brandId) {
+        timelines.invalidate(key(productId, brandId));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long size() {
+        return timelines.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return timelines.stats();
+    }
+
+    /**
+     * Consultas de pares sin precios que el filtro de pares ha resuelto sin acceder a la caché ni a la base de datos.
+     */
+    public long filteredCount() {
+        return filteredCount.sum();
+    }
+
+    /**
+     * Indica si el filtro de pares está construido y descarta ya las consultas de pares sin precios.
+     */
+    public boolean isKeyFilterReady() {
+        return keyFilter != null;
+    }
+
+    /**
+     * Reconstruye el filtro de pares recorriendo todos los pares del {@link PriceStore} y del {@link PriceArchive},
+     * dimensionado para el doble de los que hay. Hace falta, por ejemplo, tras insertar precios directamente por
+     * JDBC, sin pasar por JPA.
+     */
+    public void rebuildKeyFilter() {
+        if (!keyFilterEnabled) {
+            return;
+        }
+        synchronized (keyFilterLock) {
+            long start = System.nanoTime();
+            long[] count = {0};
+            priceStore.forEachKey(key -> count[0]++);
+            priceArchive.forEachKey(key -> count[0]++);
+            PriceKeyFilter next = new PriceKeyFilter(Math.max(1024, 2 * count[0]), keyFilterFalsePositiveRate);
+            // Primero se publica el nuevo: lo que se confirme a partir de aquí llega a ambos o aparece en el recorrido.
+            // Se recorre antes la tabla price: un par que se archive durante el recorrido aparece en el archivo
+            nextKeyFilter = next;
+            priceStore.forEachKey(next::add);
+            priceArchive.forEachKey(next::add);
+            keyFilter = next;
+            nextKeyFilter = null;
+            log.info("Filtro de pares con precios construido en {} ms: {} pares, {} KiB",
+                    (System.nanoTime() - start) / 1_000_000, count[0], next.bytes() >> 10);
+        }
+    }
+
+    /**
+     * Consultas sin caché que han esperado a una idéntica en curso en lugar de ir a la base de datos.
+     */
+    public long coalescedCount() {
+        return applicableQueries.joinedCount() + timelineQueries.joinedCount();
+    }
+
+    /**
+     * Carga la línea temporal del par anotando la versión anterior a la consulta, de modo que una invalidación
+     * que llegue mientras tanto la deja obsoleta.
+     */
+    private CachedTimeline load(Integer productId, Integer brandId, long key) {
+        long version = invalidationBus.version(key);
+        return new CachedTimeline(resident ? residentTimeline(productId, brandId, key) : loadTimeline(productId, brandId),
+                version);
+    }
+
+    /**
+     * Línea temporal del par en el índice completo. Solo va a la base de datos si otra instancia ha modificado
+     * el par desde que se cargó, y entonces la guarda con la versión anterior a la consulta.
+     */
+    private PriceTimeline residentTimeline(Integer productId, Integer brandId, long key) {
+        CachedTimeline indexed = residentTimelines.get(key);
+        if (isCurrent(indexed, key)) {
+            return indexed == null ? PriceTimeline.EMPTY : indexed.timeline();
+        }
+        long version = invalidationBus.version(key);
+        return residentTimelines.compute(key, (k, current) -> current != null && current.version() >= invalidationBus.version(k)
+                ? current : new CachedTimeline(loadTimeline(productId, brandId), version)).timeline();
+    }
+
+    private boolean isCurrent(CachedTimeline indexed, long key) {
+        long version = invalidationBus.version(key);
+        return indexed != null ? indexed.version() >= version : version == 0;
+    }
+
+    private boolean isKnownEmpty(int productId, int brandId) {
+        PriceKeyFilter filter = keyFilter;
+        if (filter == null || filter.mightContain(key(productId, brandId))) {
+            return false;
+        }
+        filteredCount.increment();
+        return true;
+    }
+
+    /**
+     * Añade un par con precios a los filtros. Se lee primero el filtro en construcción: si todavía no existe,
+     * el recorrido empezará después y ya verá el precio confirmado; si ya se ha publicado, se lee después.
+     */
+    private void admitKey(long key) {
+        PriceKeyFilter next = nextKeyFilter;
+        if (next != null) {
+            next.add(key);
+        }
+        PriceKeyFilter current = keyFilter;
+        if (current != null) {
+            current.add(key);
+            if (current.isSaturated()) {
+                scheduleKeyFilterRebuild();
+            }
+        }
+    }
+
+    private void scheduleKeyFilterRebuild() {
+        if (!keyFilterRebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("price-key-filter").start(() -> {
+            try {
+                keyFilterRebuildScheduled.set(false);
+                rebuildKeyFilter();
+            } catch (RuntimeException e) {
+                log.warn("No se ha podido construir el filtro de pares con precios: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void changed(long key) {
+        changes.incrementAndGet(slot(key));
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (changes.length() - 1);
+    }
+
+    private PriceTimeline loadTimeline(Integer productId, Integer brandId) {
+        PriceTimeline timeline = PriceTimeline.of(priceStore.findByProductIdAndBrandId(productId, brandId));
+        priceArchive.refreshHorizon();
+        return timeline;
+    }
+
+    /**
+     * Clave compacta de un par (producto, marca): el producto en los 32 bits altos y la marca en los bajos.
+     */
+    public static long key(int productId, int brandId) {
+        return ((long) productId << 32) | (brandId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Línea temporal en caché y versión del par ({@link PriceInvalidationBus#version}) con la que se cargó.
+     */
+    private record CachedTimeline(PriceTimeline timeline, long version) {
+    }
+
+    private record ApplicableQuery(long key, LocalDateTime date) {
+    }
+}
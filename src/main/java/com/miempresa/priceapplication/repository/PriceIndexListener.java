@@ -0,0 +1,148 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.Price;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Listener JPA que propaga al {@link PriceIndex}, al {@link PriceChangeLog} y, a través del
+ * {@link PriceInvalidationBus}, al resto de instancias las escrituras sobre {@link Price}.
+ *
+ * Los cambios se acumulan durante la transacción y se aplican de una vez tras el commit, para que
+ * una escritura revertida nunca llegue a ser visible en las consultas ni en el registro de cambios y para
+ * que una carga masiva reconstruya cada línea temporal una sola vez.
+ *
+ * Una actualización que cambia el producto o la marca de un precio lo saca también de la línea temporal del par
+ * anterior, que se lee de la tabla antes de escribir el cambio, y se publica como la baja de ese par.
+ */
+@Component
+public class PriceIndexListener {
+
+    @Autowired
+    @Lazy
+    private PriceIndex priceIndex;
+
+    @Autowired
+    @Lazy
+    private PriceChangeLog priceChangeLog;
+
+    @Autowired
+    @Lazy
+    private PriceInvalidationBus priceInvalidationBus;
+
+    @Autowired
+    @Lazy
+    private JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<Price> PREVIOUS = (resultSet, row) -> new Price(resultSet.getLong(1),
+            resultSet.getInt(2), resultSet.getTimestamp(3).toLocalDateTime(), resultSet.getTimestamp(4).toLocalDateTime(),
+            resultSet.getInt(5), resultSet.getInt(6), resultSet.getInt(7),
+            Money.fromDecimal(resultSet.getBigDecimal(8)), resultSet.getString(9));
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Price price) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().saved.add(price);
+        } else {
+            priceIndex.put(price);
+            priceChangeLog.append(List.of(), List.of(price));
+            priceInvalidationBus.publish(keys(List.of(price), List.of()));
+        }
+    }
+
+    /**
+     * Se ejecuta antes de escribir la actualización, cuando la tabla todavía tiene el par anterior.
+     */
+    @PreUpdate
+    public void onUpdate(Price price) {
+        if (price.getId() == null) {
+            return;
+        }
+        List<Price> previous = jdbcTemplate.query("SELECT id, brand_id, start_date, end_date, price_list, product_id, "
+                + "priority, price, currency FROM price WHERE id = ?", PREVIOUS, price.getId());
+        if (previous.isEmpty() || (previous.get(0).getProductId().equals(price.getProductId())
+                && previous.get(0).getBrandId().equals(price.getBrandId()))) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().moved.add(previous.get(0));
+        } else {
+            onRemove(previous.get(0));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Price price) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().removed.add(price);
+        } else {
+            priceIndex.remove(price);
+            priceChangeLog.append(List.of(price), List.of());
+            priceInvalidationBus.publish(keys(List.of(price), List.of()));
+        }
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.removed.forEach(priceIndex::remove);
+                    created.saved.removeIf(price -> created.removed.stream()
+                            .anyMatch(removed -> removed.getId() != null && removed.getId().equals(price.getId())));
+                    // Los precios que cambiaron de par salen del anterior; el par nuevo los recibe con saved
+                    created.moved.forEach(priceIndex::remove);
+                    created.removed.addAll(created.moved);
+                    priceIndex.putAll(created.saved);
+                    priceChangeLog.append(created.removed, created.saved);
+                    priceInvalidationBus.publish(keys(created.removed, created.saved));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PriceIndexListener.this);
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    private static Set<Long> keys(Collection<Price> removed, Collection<Price> saved) {
+        Set<Long> keys = new HashSet<>();
+        for (Collection<Price> prices : List.of(removed, saved)) {
+            for (Price price : prices) {
+                if (price.getProductId() != null && price.getBrandId() != null) {
+                    keys.add(PriceIndex.key(price.getProductId(), price.getBrandId()));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static final class PendingChanges {
+        private final List<Price> saved = new ArrayList<>();
+        private final List<Price> removed = new ArrayList<>();
+        private final List<Price> moved = new ArrayList<>();
+    }
+}
@@ -0,0 +1,58 @@
+package com.miempresa.priceapplication.repository;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Mensaje de invalidación entre instancias: los pares (producto, marca), como claves compactas
+ * ({@link PriceIndex#key}), que ha modificado una transacción confirmada en la instancia {@code node}.
+ *
+ * {@code sequence} numera consecutivamente los mensajes de cada instancia, de modo que quien los recibe
+ * detecta los que se han perdido. Codificado ocupa {@value #HEADER_BYTES} bytes más 8 por par:
+ * <pre>
+ * versión (byte) | node (long) | sequence (long) | sentAtMicros (long) | pares (int) | clave (long) * pares
+ * </pre>
+ */
+public record PriceInvalidation(long node, long sequence, long sentAtMicros, long[] keys) {
+
+    static final int HEADER_BYTES = 29;
+
+    private static final byte VERSION = 1;
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keys.length * Long.BYTES);
+        buffer.put(VERSION).putLong(node).putLong(sequence).putLong(sentAtMicros).putInt(keys.length);
+        for (long key : keys) {
+            buffer.putLong(key);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException si el mensaje está truncado o tiene una versión desconocida.
+     */
+    public static PriceInvalidation decode(byte[] message) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de mensaje de invalidación desconocida: " + version);
+            }
+            long node = buffer.getLong();
+            long sequence = buffer.getLong();
+            long sentAtMicros = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || buffer.remaining() != count * (long) Long.BYTES) {
+                throw new IllegalArgumentException("Mensaje de invalidación con " + buffer.remaining()
+                        + " bytes para " + count + " pares");
+            }
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = buffer.getLong();
+            }
+            return new PriceInvalidation(node, sequence, sentAtMicros, keys);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Mensaje de invalidación truncado (" + message.length + " bytes)");
+        }
+    }
+}
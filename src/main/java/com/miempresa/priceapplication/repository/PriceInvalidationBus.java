@@ -0,0 +1,199 @@
+package com.miempresa.priceapplication.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coherencia del {@link PriceIndex} entre varias instancias que comparten la base de datos.
+ *
+ * Tras cada commit, {@link PriceIndexListener} publica los pares modificados en un {@link PriceInvalidation}
+ * por el {@link PriceInvalidationTransport} configurado. Al recibir el mensaje de otra instancia no se toca la
+ * caché: se incrementa la versión de cada par, y {@link PriceIndex} compara en cada lectura la versión con la
+ * que cargó la línea temporal y la vuelve a cargar si es anterior. Así una carga que estaba en curso cuando
+ * llegó la invalidación tampoco queda en caché como válida.
+ *
+ * Las versiones se guardan en una tabla fija de {@code price.invalidation.version-slots} contadores a la que
+ * los pares se asignan por hash: la memoria no crece con el catálogo y dos pares que comparten contador solo
+ * provocan alguna recarga de más, nunca una lectura obsoleta. Si falta algún mensaje de otra instancia se
+ * incrementan todas las versiones, lo que equivale a vaciar la caché.
+ */
+@Component
+@Slf4j
+public class PriceInvalidationBus {
+
+    @Autowired(required = false)
+    private PriceInvalidationTransport transport;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${price.invalidation.version-slots:65536}")
+    private int versionSlots;
+
+    private final long node = UUID.randomUUID().getMostSignificantBits();
+
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    private final Map<Long, Long> lastSequences = new ConcurrentHashMap<>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private long sequence;
+
+    private AtomicLongArray versions;
+
+    private int mask;
+
+    private Counter sent;
+
+    private Counter received;
+
+    private Counter lost;
+
+    private Timer lag;
+
+    @PostConstruct
+    public void init() {
+        if (versionSlots < 1) {
+            throw new IllegalStateException("price.invalidation.version-slots debe ser mayor que 0");
+        }
+        int slots = Integer.highestOneBit(versionSlots);
+        versions = new AtomicLongArray(slots < versionSlots ? slots << 1 : slots);
+        mask = versions.length() - 1;
+        sent = Counter.builder("price.invalidation.messages").tag("direction", "sent")
+                .description("Mensajes de invalidación intercambiados con otras instancias").register(meterRegistry);
+        received = Counter.builder("price.invalidation.messages").tag("direction", "received")
+                .description("Mensajes de invalidación intercambiados con otras instancias").register(meterRegistry);
+        lost = Counter.builder("price.invalidation.lost")
+                .description("Mensajes de invalidación de otras instancias que no han llegado").register(meterRegistry);
+        lag = Timer.builder("price.invalidation.lag")
+                .description("Tiempo desde que otra instancia envía una invalidación hasta que se aplica")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        if (transport != null) {
+            transport.subscribe(this::receive);
+            log.info("Invalidaciones entre instancias activadas: nodo {}, {} versiones por {}", Long.toHexString(node),
+                    versions.length(), transport.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Identificador aleatorio de esta instancia, distinto en cada arranque.
+     */
+    public long node() {
+        return node;
+    }
+
+    /**
+     * Versión actual del par: aumenta cada vez que otra instancia lo modifica.
+     */
+    public long version(long key) {
+        return versions.get(slot(key));
+    }
+
+    /**
+     * Registra un oyente de las invalidaciones recibidas de otras instancias. Se avisa antes de incrementar las
+     * versiones, de modo que quien lea la versión nueva ya ve los pares en el oyente.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Notifica al resto de instancias los pares modificados por una transacción ya confirmada.
+     * Los mensajes de esta instancia se numeran y se envían en orden.
+     */
+    public void publish(Collection<Long> keys) {
+        if (transport == null || keys.isEmpty()) {
+            return;
+        }
+        long[] distinct = keys.stream().mapToLong(Long::longValue).distinct().toArray();
+        sendLock.lock();
+        try {
+            PriceInvalidation message = new PriceInvalidation(node, ++sequence, nowMicros(), distinct);
+            transport.send(message.encode());
+            sent.increment();
+        } catch (RuntimeException e) {
+            // La secuencia ya se ha consumido: las demás instancias verán el hueco y vaciarán su caché
+            log.warn("No se ha podido enviar la invalidación de {} pares: {}", distinct.length, e.getMessage());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void receive(byte[] bytes) {
+        PriceInvalidation message;
+        try {
+            message = PriceInvalidation.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            log.warn("Mensaje de invalidación descartado: {}", e.getMessage());
+            return;
+        }
+        if (message.node() == node) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.keysChanged(message.keys());
+        }
+        for (long key : message.keys()) {
+            versions.incrementAndGet(slot(key));
+        }
+        Long previous = lastSequences.put(message.node(), message.sequence());
+        if (previous != null && message.sequence() != previous + 1) {
+            log.warn("Faltan invalidaciones del nodo {} entre las secuencias {} y {}: se invalida toda la caché",
+                    Long.toHexString(message.node()), previous, message.sequence());
+            lost.increment(Math.max(1, message.sequence() - previous - 1));
+            listeners.forEach(Listener::messagesLost);
+            for (int slot = 0; slot < versions.length(); slot++) {
+                versions.incrementAndGet(slot);
+            }
+        }
+        received.increment();
+        long elapsed = nowMicros() - message.sentAtMicros();
+        if (elapsed >= 0) {
+            lag.record(elapsed, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * Oyente de las invalidaciones de otras instancias; se invoca en el hilo de entrega del transporte.
+     */
+    public interface Listener {
+
+        /**
+         * Otra instancia ha confirmado cambios en estos pares.
+         */
+        void keysChanged(long[] keys);
+
+        /**
+         * Faltan mensajes de otra instancia: cualquier par ha podido cambiar.
+         */
+        void messagesLost();
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,25 @@
+package com.miempresa.priceapplication.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que {@link PriceInvalidationBus} intercambia mensajes de invalidación con las demás instancias.
+ *
+ * Basta con una difusión al resto de instancias que conserve el orden de los mensajes de cada emisor:
+ * pub/sub de Redis, multicast UDP, un topic de Kafka... Los mensajes perdidos se toleran, porque el bus
+ * los detecta por su número de secuencia. Se elige con {@code price.invalidation.transport}; sin ninguno,
+ * cada instancia solo ve sus propias escrituras, como antes. {@link LoopbackInvalidationTransport} conecta
+ * instancias de la misma JVM, para pruebas y benchmarks.
+ */
+public interface PriceInvalidationTransport {
+
+    /**
+     * Envía un mensaje al resto de instancias, sin esperar a que lo reciban.
+     */
+    void send(byte[] message);
+
+    /**
+     * Registra el receptor de los mensajes de las demás instancias. Se llama una sola vez, al arrancar.
+     */
+    void subscribe(Consumer<byte[]> receiver);
+}
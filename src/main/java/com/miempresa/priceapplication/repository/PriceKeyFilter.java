@@ -0,0 +1,114 @@
+package com.miempresa.priceapplication.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre las claves compactas ({@link PriceIndex#key}) de los pares (producto, marca) con precios.
+ *
+ * Si {@link #mightContain} devuelve {@code false}, el par no tiene ningún precio y la consulta puede responderse
+ * sin ir a la base de datos ni ocupar una entrada de la caché; si devuelve {@code true}, puede tenerlo (con una
+ * probabilidad de falso positivo próxima a la configurada mientras no se supere la capacidad). Las claves solo se
+ * añaden: borrar el último precio de un par deja un falso positivo, nunca un falso negativo.
+ *
+ * Es seguro entre hilos sin bloqueos: las lecturas son lecturas volátiles de palabras de 64 bits y las altas
+ * activan bits con {@code getAndAccumulate}. Ocupa unos 10 bits por clave con un 1 % de falsos positivos.
+ */
+public final class PriceKeyFilter {
+
+    private static final long MIN_BITS = 1 << 12;
+
+    private final AtomicLongArray words;
+
+    private final long bitMask;
+
+    private final int hashes;
+
+    private final long capacity;
+
+    private final AtomicLong added = new AtomicLong();
+
+    /**
+     * @param capacity Número de claves para el que se dimensiona el filtro.
+     * @param falsePositiveRate Probabilidad de falso positivo con {@code capacity} claves, entre 0 y 1.
+     */
+    public PriceKeyFilter(long capacity, double falsePositiveRate) {
+        if (capacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Se requiere capacity >= 1 y 0 < falsePositiveRate < 1");
+        }
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        // Potencia de dos para indexar con una máscara; como mucho duplica la memoria y reduce los falsos positivos
+        long bits = Math.max(MIN_BITS, Long.highestOneBit(optimalBits - 1) << 1);
+        if (bits >>> 6 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filtro demasiado grande para " + capacity + " claves");
+        }
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+        this.hashes = Math.max(1, (int) Math.round((double) optimalBits / capacity * ln2));
+        this.capacity = capacity;
+    }
+
+    public void add(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, set) -> current | set);
+                changed = true;
+            }
+        }
+        if (changed) {
+            added.incrementAndGet();
+        }
+    }
+
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si se han añadido más claves distintas que la capacidad, de modo que los falsos positivos ya
+     * superan la tasa configurada y conviene reconstruirlo con más capacidad.
+     */
+    public boolean isSaturated() {
+        return added.get() > capacity;
+    }
+
+    /**
+     * Claves añadidas que han activado algún bit: una estimación por debajo del número de claves distintas.
+     */
+    public long approximateSize() {
+        return added.get();
+    }
+
+    public long bytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Finalizador de MurmurHash3: reparte por los 64 bits las claves, cuyos productos y marcas son correlativos.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,70 @@
+package com.miempresa.priceapplication.repository;
+
+import java.util.Optional;
+
+/**
+ * Rango de pares (producto, marca), con límites inclusivos, para recorrer solo una parte del catálogo.
+ *
+ * Como los precios se recorren ordenados por (producto, marca, fecha de inicio), los pares de un rango de
+ * productos son contiguos y el rango de marcas se aplica como filtro dentro de cada producto.
+ */
+public record PriceKeyRange(int productIdFrom, int productIdTo, int brandIdFrom, int brandIdTo) {
+
+    public static final PriceKeyRange ALL = new PriceKeyRange(0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+    public PriceKeyRange {
+        if (productIdFrom < 0 || brandIdFrom < 0 || productIdTo < productIdFrom || brandIdTo < brandIdFrom) {
+            throw new IllegalArgumentException("Rango de pares inválido: productos " + productIdFrom + "-" + productIdTo
+                    + ", marcas " + brandIdFrom + "-" + brandIdTo);
+        }
+    }
+
+    public boolean contains(int productId, int brandId) {
+        return productId >= productIdFrom && productId <= productIdTo && brandId >= brandIdFrom && brandId <= brandIdTo;
+    }
+
+    /**
+     * Menor clave compacta ({@link PriceIndex#key}) que puede pertenecer al rango.
+     */
+    public long firstKey() {
+        return PriceIndex.key(productIdFrom, brandIdFrom);
+    }
+
+    /**
+     * Mayor clave compacta ({@link PriceIndex#key}) que puede pertenecer al rango.
+     */
+    public long lastKey() {
+        return PriceIndex.key(productIdTo, brandIdTo);
+    }
+
+    /**
+     * Devuelve la parte {@code partition} (desde 0) de {@code partitions} tramos contiguos de productos de igual
+     * anchura, o vacío si el rango tiene menos productos que tramos y a esa parte no le corresponde ninguno.
+     */
+    public Optional<PriceKeyRange> partition(int partition, int partitions) {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Partición " + partition + " de " + partitions + " inválida");
+        }
+        long width = (long) productIdTo - productIdFrom + 1;
+        long from = productIdFrom + width * partition / partitions;
+        long to = productIdFrom + width * (partition + 1) / partitions - 1;
+        return from > to ? Optional.empty() : Optional.of(new PriceKeyRange((int) from, (int) to, brandIdFrom, brandIdTo));
+    }
+
+    /**
+     * Recorta el rango de productos a [{@code productIdMin}, {@code productIdMax}], o vacío si no se solapan.
+     */
+    public Optional<PriceKeyRange> narrow(int productIdMin, int productIdMax) {
+        int from = Math.max(productIdFrom, productIdMin);
+        int to = Math.min(productIdTo, productIdMax);
+        return from > to ? Optional.empty() : Optional.of(new PriceKeyRange(from, to, brandIdFrom, brandIdTo));
+    }
+
+    /**
+     * Forma compacta {@code products=desde-hasta;brands=desde-hasta}, usada en cabeceras y trazas.
+     */
+    @Override
+    public String toString() {
+        return "products=" + productIdFrom + "-" + productIdTo + ";brands=" + brandIdFrom + "-" + brandIdTo;
+    }
+}
@@ -1,18 +1,29 @@
 package com.miempresa.priceapplication.repository;
 
 import com.miempresa.priceapplication.model.Price;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface PriceRepository extends JpaRepository<Price, Long> {
+public interface PriceRepository extends JpaRepository<Price, Long>, PriceRepositoryCustom {
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT p FROM Price p " +
             "WHERE p.productId = :productId " +
             "AND p.brandId = :brandId " +
@@ -27,4 +38,60 @@ public interface PriceRepository extends JpaRepository<Price, Long> {
                                                           @Param("brandId") Integer brandId,
                                                           @Param("startDate") LocalDateTime startDate);
 
+    /**
+     * Devuelve todos los precios de un par (producto, marca), con los que se construye su línea temporal.
+     * Se cargan en modo solo lectura: Hibernate no guarda la copia de su estado para detectar cambios.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    List<Price> findByProductIdAndBrandId(Integer productId, Integer brandId);
+
+    /**
+     * Devuelve los precios cuyos producto y marca están entre los indicados. El resultado puede incluir
+     * combinaciones cruzadas que el llamante debe filtrar.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    List<Price> findByProductIdInAndBrandIdIn(Collection<Integer> productIds, Collection<Integer> brandIds);
+
+    /**
+     * Devuelve los precios de varios pares, agrupados por su clave compacta ({@link PriceIndex#key}), con una
+     * consulta por cada bloque de {@code chunkSize} pares. Los pares sin precios no aparecen en el resultado.
+     */
+    default Map<Long, List<Price>> findByKeys(Collection<Long> keys, int chunkSize) {
+        Map<Long, List<Price>> pricesByKey = new HashMap<>();
+        List<Long> pending = new ArrayList<>(keys);
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + chunkSize));
+            Set<Long> wanted = new HashSet<>(chunk);
+            Set<Integer> productIds = new HashSet<>();
+            Set<Integer> brandIds = new HashSet<>();
+            for (long key : chunk) {
+                productIds.add((int) (key >>> 32));
+                brandIds.add((int) key);
+            }
+            for (Price price : findByProductIdInAndBrandIdIn(productIds, brandIds)) {
+                long key = PriceIndex.key(price.getProductId(), price.getBrandId());
+                if (wanted.contains(key)) {
+                    pricesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(price);
+                }
+            }
+        }
+        return pricesByKey;
+    }
+
+    /**
+     * Devuelve los pares (productId, brandId) con precios, ordenados, de la página indicada.
+     */
+    @Query("SELECT DISTINCT p.productId, p.brandId FROM Price p ORDER BY p.productId, p.brandId")
+    List<Object[]> findKeys(Pageable pageable);
+
+    /**
+     * Devuelve (productId, brandId, startDate) de los precios existentes que coinciden con alguno de los
+     * valores indicados. El resultado puede incluir combinaciones cruzadas que el llamante debe filtrar.
+     */
+    @Query("SELECT p.productId, p.brandId, p.startDate FROM Price p " +
+            "WHERE p.productId IN :productIds AND p.brandId IN :brandIds AND p.startDate IN :startDates")
+    List<Object[]> findExistingKeys(@Param("productIds") Collection<Integer> productIds,
+                                    @Param("brandIds") Collection<Integer> brandIds,
+                                    @Param("startDates") Collection<LocalDateTime> startDates);
+
 }
@@ -0,0 +1,39 @@
+package com.miempresa.priceapplication.repository;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Consultas de {@link PriceRepository} que no pasan por JPA.
+ */
+public interface PriceRepositoryCustom {
+
+    /**
+     * Recorre la tabla price ordenada por (producto, marca, fecha de inicio) con un cursor JDBC, sin
+     * materializar entidades ni mantenerlas en el contexto de persistencia: la memoria usada no depende
+     * del número de filas.
+     */
+    void forEachOrdered(PriceStore.PriceConsumer consumer) throws IOException;
+
+    /**
+     * Como {@link #forEachOrdered(PriceStore.PriceConsumer)}, limitado a los pares del rango.
+     */
+    void forEachOrdered(PriceKeyRange range, PriceStore.PriceConsumer consumer) throws IOException;
+
+    /**
+     * Recorre las claves compactas ({@link PriceIndex#key}) de los pares con precios en la tabla price, sin repetir.
+     */
+    void forEachKey(LongConsumer consumer);
+
+    /**
+     * Rango de productos de la tabla price, con todas las marcas, o vacío si no tiene filas.
+     */
+    Optional<PriceKeyRange> productRange();
+
+    /**
+     * Adelanta la secuencia price_seq para que los IDs que se generen a partir de ahora sean mayores que
+     * {@code maxId} y que cualquier ID ya presente en la tabla.
+     */
+    void reserveIdsAbove(long maxId);
+}
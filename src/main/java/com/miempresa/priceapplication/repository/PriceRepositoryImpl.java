@@ -0,0 +1,96 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.PriceView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Implementación de {@link PriceRepositoryCustom}, que Spring Data combina con {@link PriceRepository}.
+ */
+public class PriceRepositoryImpl implements PriceRepositoryCustom {
+
+    private static final int FETCH_SIZE = 1000;
+
+    /** Incremento de price_seq y tamaño de bloque del optimizador de Hibernate (allocationSize de Price). */
+    private static final int ID_ALLOCATION = 50;
+
+    private static final String ORDERED_PRICES = "SELECT id, brand_id, start_date, end_date, price_list, product_id, "
+            + "priority, price, currency FROM price ORDER BY product_id, brand_id, start_date";
+
+    private static final String ORDERED_PRICES_IN_RANGE = "SELECT id, brand_id, start_date, end_date, price_list, product_id, "
+            + "priority, price, currency FROM price WHERE product_id BETWEEN ? AND ? AND brand_id BETWEEN ? AND ? "
+            + "ORDER BY product_id, brand_id, start_date";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PriceRepositoryImpl(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Override
+    public void forEachOrdered(PriceStore.PriceConsumer consumer) throws IOException {
+        query(ORDERED_PRICES, consumer);
+    }
+
+    @Override
+    public void forEachOrdered(PriceKeyRange range, PriceStore.PriceConsumer consumer) throws IOException {
+        if (range.equals(PriceKeyRange.ALL)) {
+            query(ORDERED_PRICES, consumer);
+        } else {
+            query(ORDERED_PRICES_IN_RANGE, consumer, range.productIdFrom(), range.productIdTo(),
+                    range.brandIdFrom(), range.brandIdTo());
+        }
+    }
+
+    @Override
+    public void forEachKey(LongConsumer consumer) {
+        // Se resuelve sobre el índice de uk_price_product_brand_start, sin leer las filas
+        jdbcTemplate.query("SELECT DISTINCT product_id, brand_id FROM price",
+                (RowCallbackHandler) resultSet -> consumer.accept(PriceIndex.key(resultSet.getInt(1), resultSet.getInt(2))));
+    }
+
+    @Override
+    public Optional<PriceKeyRange> productRange() {
+        return jdbcTemplate.query("SELECT MIN(product_id), MAX(product_id) FROM price", resultSet -> {
+            resultSet.next();
+            int min = resultSet.getInt(1);
+            return resultSet.wasNull()
+                    ? Optional.empty()
+                    : Optional.of(new PriceKeyRange(min, resultSet.getInt(2), 0, Integer.MAX_VALUE));
+        });
+    }
+
+    private void query(String sql, PriceStore.PriceConsumer consumer, Object... arguments) throws IOException {
+        try {
+            jdbcTemplate.query(sql, resultSet -> {
+                try {
+                    consumer.accept(new PriceView(resultSet.getLong(1), resultSet.getInt(2),
+                            resultSet.getTimestamp(3).toLocalDateTime(), resultSet.getTimestamp(4).toLocalDateTime(),
+                            resultSet.getInt(5), resultSet.getInt(6), resultSet.getInt(7),
+                            Money.fromDecimal(resultSet.getBigDecimal(8)), resultSet.getString(9)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, arguments);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void reserveIdsAbove(long maxId) {
+        Long tableMaxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM price", Long.class);
+        long next = Math.max(maxId, tableMaxId == null ? 0 : tableMaxId) + ID_ALLOCATION;
+        jdbcTemplate.execute("ALTER SEQUENCE price_seq RESTART WITH " + next);
+    }
+}
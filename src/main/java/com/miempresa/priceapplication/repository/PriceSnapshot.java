@@ -0,0 +1,572 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceView;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Instantánea columnar e inmutable de los precios, guardada en un fichero que se proyecta en memoria.
+ *
+ * Las filas se ordenan por (producto, marca, fecha de inicio) y cada campo se guarda en su propia columna
+ * de tipo primitivo: IDs {@code int}, fechas en segundos epoch (UTC), importes en céntimos y la divisa como
+ * índice de un diccionario. Un directorio con la clave compacta de cada par ({@link PriceIndex#key}) y su
+ * primera fila localiza las filas de un par con una búsqueda binaria.
+ *
+ * Abrir una instantánea solo lee la cabecera y el diccionario: las columnas se proyectan con
+ * {@link FileChannel#map} y residen en la caché de páginas del sistema operativo, fuera del heap, de modo
+ * que el coste de arranque y de memoria no depende del número de filas. Una fila ocupa 37 bytes.
+ *
+ * Formato (little-endian, secciones alineadas a 8 bytes):
+ * <pre>
+ * cabecera (128 bytes): magic "PRCS", versión, filas, pares, divisas, offset de cada sección e ID máximo
+ * KEYS long[pares] | FIRST_ROW int[pares + 1] | ID int[filas] | START long[filas] | END long[filas]
+ * PRICE_LIST int[filas] | PRIORITY int[filas] | PRICE long[filas] (unidades mínimas, ver Money) | CURRENCY byte[filas] | DICTIONARY
+ * </pre>
+ */
+public final class PriceSnapshot {
+
+    static final int MAGIC = 0x50524353;
+
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 128;
+
+    /** MappedByteBuffer se indexa con int, así que los ficheros de más de 1 GiB se proyectan por tramos. */
+    private static final int CHUNK_SHIFT = 30;
+
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private static final int MAX_CURRENCIES = 256;
+
+    private enum Section {
+        KEYS(8), FIRST_ROW(4), ID(4), START(8), END(8), PRICE_LIST(4), PRIORITY(4), PRICE(8), CURRENCY(1), DICTIONARY(1);
+
+        private final int width;
+
+        Section(int width) {
+            this.width = width;
+        }
+    }
+
+    private static final int MAX_ID_POSITION = 24 + Section.values().length * 8;
+
+    private static final PriceSnapshot EMPTY = new PriceSnapshot(null, 0, 0, 0, new String[0],
+            new long[Section.values().length], new ByteBuffer[0], 0);
+
+    private final Path path;
+    private final long rows;
+    private final int keys;
+    private final long maxId;
+    private final String[] currencies;
+    private final long[] offsets;
+    private final ByteBuffer[] chunks;
+    private final long bytes;
+
+    private PriceSnapshot(Path path, long rows, int keys, long maxId, String[] currencies, long[] offsets,
+                          ByteBuffer[] chunks, long bytes) {
+        this.path = path;
+        this.rows = rows;
+        this.keys = keys;
+        this.maxId = maxId;
+        this.currencies = currencies;
+        this.offsets = offsets;
+        this.chunks = chunks;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Instantánea sin filas, para arrancar sin fichero.
+     */
+    public static PriceSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Proyecta en memoria una instantánea escrita con {@link #writer(Path)}.
+     *
+     * @throws IOException si el fichero no se puede leer o no es una instantánea de precios válida.
+     */
+    public static PriceSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Instantánea de precios truncada: " + path);
+            }
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, 1L << CHUNK_SHIFT));
+                chunks[i] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            ByteBuffer header = chunks[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("El fichero no es una instantánea de precios: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Versión de instantánea no soportada (" + header.getInt(4) + "): " + path);
+            }
+            long rows = header.getLong(8);
+            int keys = header.getInt(16);
+            int currencyCount = header.getInt(20);
+            long[] offsets = new long[Section.values().length];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = header.getLong(24 + i * 8);
+            }
+            if (offsets[Section.DICTIONARY.ordinal()] > size) {
+                throw new IOException("Instantánea de precios truncada: " + path);
+            }
+
+            PriceSnapshot snapshot = new PriceSnapshot(path, rows, keys, header.getLong(MAX_ID_POSITION),
+                    new String[currencyCount], offsets, chunks, size);
+            long position = offsets[Section.DICTIONARY.ordinal()];
+            for (int i = 0; i < currencyCount; i++) {
+                byte[] code = new byte[snapshot.getByte(position++)];
+                for (int j = 0; j < code.length; j++) {
+                    code[j] = snapshot.getByte(position++);
+                }
+                snapshot.currencies[i] = new String(code, StandardCharsets.US_ASCII);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Crea un escritor de instantáneas. El fichero se escribe aparte y sustituye a {@code target} de forma
+     * atómica al terminar, de modo que quien lo tenga abierto nunca ve una instantánea a medias.
+     */
+    public static Writer writer(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    /**
+     * Devuelve los precios de un par (producto, marca), ordenados por fecha de inicio.
+     */
+    public List<PriceView> find(int productId, int brandId) {
+        int key = indexOf(PriceIndex.key(productId, brandId));
+        if (key < 0) {
+            return List.of();
+        }
+        long first = firstRow(key);
+        long last = firstRow(key + 1);
+        List<PriceView> prices = new ArrayList<>((int) (last - first));
+        long pair = getLong(column(Section.KEYS, key));
+        for (long row = first; row < last; row++) {
+            prices.add(row(row, pair));
+        }
+        return prices;
+    }
+
+    /**
+     * Indica si la instantánea contiene el precio (producto, marca, fecha de inicio).
+     */
+    public boolean contains(int productId, int brandId, LocalDateTime startDate) {
+        int key = indexOf(PriceIndex.key(productId, brandId));
+        if (key < 0) {
+            return false;
+        }
+        long start = epochSecond(startDate);
+        long low = firstRow(key);
+        long high = firstRow(key + 1) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long value = getLong(column(Section.START, middle));
+            if (value < start) {
+                low = middle + 1;
+            } else if (value > start) {
+                high = middle - 1;
+            } else {
+                return startDate.getNano() == 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recorre en orden los precios de los pares del rango. Los pares se localizan con una búsqueda binaria y
+     * las filas se leen a medida que se piden, de modo que la memoria usada no depende del tamaño del rango.
+     */
+    public Iterator<PriceView> iterator(PriceKeyRange range) {
+        return new Iterator<>() {
+
+            private int key = lowerBound(range.firstKey()) - 1;
+            private long pair;
+            private long row;
+            private long end;
+
+            @Override
+            public boolean hasNext() {
+                while (row == end) {
+                    if (++key >= keys) {
+                        return false;
+                    }
+                    pair = key(key);
+                    if (pair > range.lastKey()) {
+                        key = keys;
+                        return false;
+                    }
+                    if (range.contains((int) (pair >>> 32), (int) pair)) {
+                        row = firstRow(key);
+                        end = firstRow(key + 1);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public PriceView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return row(row++, pair);
+            }
+        };
+    }
+
+    /**
+     * Rango de productos de la instantánea, con todas las marcas, o vacío si no tiene precios.
+     */
+    public Optional<PriceKeyRange> productRange() {
+        if (keys == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new PriceKeyRange((int) (key(0) >>> 32), (int) (key(keys - 1) >>> 32), 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Clave compacta ({@link PriceIndex#key}) del par indicado, entre 0 y {@link #keyCount()} - 1, en orden ascendente.
+     */
+    public long key(int index) {
+        return getLong(column(Section.KEYS, index));
+    }
+
+    /**
+     * Lee la fila indicada, entre 0 y {@link #size()} - 1, en el orden de la instantánea.
+     */
+    public PriceView row(long row) {
+        return row(row, getLong(column(Section.KEYS, keyOfRow(row))));
+    }
+
+    private PriceView row(long row, long pair) {
+        return new PriceView(
+                getInt(column(Section.ID, row)),
+                (int) pair,
+                LocalDateTime.ofEpochSecond(getLong(column(Section.START, row)), 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(getLong(column(Section.END, row)), 0, ZoneOffset.UTC),
+                getInt(column(Section.PRICE_LIST, row)),
+                (int) (pair >>> 32),
+                getInt(column(Section.PRIORITY, row)),
+                getLong(column(Section.PRICE, row)),
+                currencies[getByte(column(Section.CURRENCY, row)) & 0xFF]);
+    }
+
+    public long size() {
+        return rows;
+    }
+
+    public int keyCount() {
+        return keys;
+    }
+
+    /**
+     * Mayor ID de la instantánea, o 0 si está vacía.
+     */
+    public long maxId() {
+        return maxId;
+    }
+
+    /**
+     * Tamaño del fichero en bytes, o 0 para la instantánea vacía.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    private int indexOf(long key) {
+        int low = 0;
+        int high = keys - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = getLong(column(Section.KEYS, middle));
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Posición del primer par cuya clave no es menor que {@code key}, o {@link #keyCount()} si no hay ninguno.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = keys;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getLong(column(Section.KEYS, middle)) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Busca el par al que pertenece una fila: el último cuya primera fila no es posterior a ella.
+     */
+    private int keyOfRow(long row) {
+        int low = 0;
+        int high = keys - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (firstRow(middle) <= row) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private long firstRow(int key) {
+        return Integer.toUnsignedLong(getInt(column(Section.FIRST_ROW, key)));
+    }
+
+    private long column(Section section, long index) {
+        return offsets[section.ordinal()] + index * section.width;
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    private int getInt(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    private byte getByte(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].get((int) (position & CHUNK_MASK));
+    }
+
+    private static long epochSecond(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Escritor en streaming de una instantánea. Las filas se reciben ya ordenadas por (producto, marca,
+     * fecha de inicio) y cada columna se vuelca a su propio fichero temporal, por lo que escribir una
+     * instantánea no requiere memoria proporcional al número de filas. {@link #finish()} concatena las
+     * columnas tras la cabecera y publica el fichero.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path directory;
+        private final DataOutputStream[] columns = new DataOutputStream[Section.DICTIONARY.ordinal()];
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private long rows;
+        private int keys;
+        private long maxId;
+        private long lastKey = Long.MIN_VALUE;
+        private long lastStart = Long.MIN_VALUE;
+        private boolean finished;
+
+        private Writer(Path target) throws IOException {
+            this.target = target.toAbsolutePath();
+            Files.createDirectories(this.target.getParent());
+            this.directory = Files.createTempDirectory(this.target.getParent(), ".snapshot-");
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(directory.resolve(Section.values()[i].name())), 64 * 1024));
+            }
+        }
+
+        /**
+         * Añade una fila.
+         *
+         * @throws IllegalArgumentException si la fila no sigue el orden de la instantánea o no se puede
+         * representar en ella (ID fuera del rango int, fechas con fracciones de segundo).
+         */
+        public void add(PriceView price) throws IOException {
+            long key = PriceIndex.key(price.productId(), price.brandId());
+            long start = seconds(price.startDate(), price);
+            if (key < lastKey || (key == lastKey && start <= lastStart)) {
+                throw new IllegalArgumentException("Las filas deben llegar ordenadas por producto, marca y fecha de inicio: " + price);
+            }
+            if (price.id() < 0 || price.id() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("ID fuera del rango de la instantánea: " + price);
+            }
+            if (rows == 0xFFFFFFFFL) {
+                throw new IllegalStateException("La instantánea admite como máximo 2^32 - 1 filas");
+            }
+            if (key != lastKey) {
+                writeLong(Section.KEYS, key);
+                write(Section.FIRST_ROW).writeInt(Integer.reverseBytes((int) rows));
+                keys++;
+            }
+            write(Section.ID).writeInt(Integer.reverseBytes((int) price.id()));
+            writeLong(Section.START, start);
+            writeLong(Section.END, seconds(price.endDate(), price));
+            write(Section.PRICE_LIST).writeInt(Integer.reverseBytes(price.priceList()));
+            write(Section.PRIORITY).writeInt(Integer.reverseBytes(price.priority()));
+            writeLong(Section.PRICE, price.price());
+            write(Section.CURRENCY).writeByte(currency(price.currency()));
+            maxId = Math.max(maxId, price.id());
+            lastKey = key;
+            lastStart = start;
+            rows++;
+        }
+
+        /**
+         * Escribe la cabecera y las columnas en un fichero nuevo y lo mueve de forma atómica al destino.
+         *
+         * @return La instantánea publicada, ya proyectada en memoria.
+         */
+        public PriceSnapshot finish() throws IOException {
+            write(Section.FIRST_ROW).writeInt(Integer.reverseBytes((int) rows));
+            for (DataOutputStream column : columns) {
+                column.close();
+            }
+            ByteBuffer dictionaryBytes = ByteBuffer.allocate(dictionary.size() * 256);
+            for (String code : dictionary.keySet()) {
+                byte[] bytes = code.getBytes(StandardCharsets.US_ASCII);
+                dictionaryBytes.put((byte) bytes.length).put(bytes);
+            }
+            dictionaryBytes.flip();
+
+            long[] offsets = new long[Section.values().length];
+            long position = HEADER_BYTES;
+            for (Section section : Section.values()) {
+                offsets[section.ordinal()] = position;
+                long length = section == Section.DICTIONARY
+                        ? dictionaryBytes.remaining()
+                        : Files.size(directory.resolve(section.name()));
+                position = align(position + length);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(rows).putInt(keys).putInt(dictionary.size());
+            for (long offset : offsets) {
+                header.putLong(offset);
+            }
+            header.putLong(maxId);
+            header.clear();
+
+            Path file = directory.resolve("snapshot");
+            try (FileChannel output = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writeFully(output, header, 0);
+                for (Section section : Section.values()) {
+                    long offset = offsets[section.ordinal()];
+                    if (section == Section.DICTIONARY) {
+                        writeFully(output, dictionaryBytes, offset);
+                        continue;
+                    }
+                    try (FileChannel input = FileChannel.open(directory.resolve(section.name()), StandardOpenOption.READ)) {
+                        long size = input.size();
+                        for (long copied = 0; copied < size; ) {
+                            copied += input.transferTo(copied, size - copied, output.position(offset + copied));
+                        }
+                    }
+                }
+                output.force(true);
+            }
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            deleteDirectory();
+            return open(target);
+        }
+
+        /**
+         * Descarta los ficheros temporales. Si no se llamó a {@link #finish()}, el destino no se modifica.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                for (DataOutputStream column : columns) {
+                    column.close();
+                }
+                deleteDirectory();
+            }
+        }
+
+        private DataOutputStream write(Section section) {
+            return columns[section.ordinal()];
+        }
+
+        private void writeLong(Section section, long value) throws IOException {
+            write(section).writeLong(Long.reverseBytes(value));
+        }
+
+        private int currency(String code) {
+            Integer index = dictionary.get(code);
+            if (index == null) {
+                if (dictionary.size() == MAX_CURRENCIES) {
+                    throw new IllegalStateException("La instantánea admite como máximo " + MAX_CURRENCIES + " divisas");
+                }
+                if (code.length() > 255 || !StandardCharsets.US_ASCII.newEncoder().canEncode(code)) {
+                    throw new IllegalArgumentException("Código de divisa no representable: " + code);
+                }
+                index = dictionary.size();
+                dictionary.put(code, index);
+            }
+            return index;
+        }
+
+        private static long seconds(LocalDateTime date, PriceView price) {
+            if (date.getNano() != 0) {
+                throw new IllegalArgumentException("La instantánea guarda las fechas con precisión de segundos: " + price);
+            }
+            return epochSecond(date);
+        }
+
+        private static long align(long position) {
+            return (position + 7) & ~7L;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void deleteDirectory() throws IOException {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceView;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Origen de los precios de la ruta de lectura, del que {@link PriceIndex} carga las líneas temporales.
+ *
+ * Se elige con {@code price.store.type}: {@code jpa} (por defecto, {@link JpaPriceStore}) consulta la tabla
+ * price; {@code columnar} ({@link ColumnarPriceStore}) sirve el catálogo desde una {@link PriceSnapshot}
+ * proyectada en memoria y usa la base de datos solo para los precios dados de alta después.
+ */
+public interface PriceStore {
+
+    /**
+     * Devuelve todos los precios de un par (producto, marca).
+     */
+    List<PriceView> findByProductIdAndBrandId(Integer productId, Integer brandId);
+
+    /**
+     * Devuelve los precios de varios pares con pocas consultas, agrupados por su clave compacta
+     * ({@link PriceIndex#key}). Los pares sin precios no aparecen en el resultado.
+     */
+    Map<Long, List<PriceView>> findByKeys(Collection<Long> keys);
+
+    /**
+     * Devuelve los precios de un par que cubren la fecha, ordenados por prioridad descendente.
+     */
+    List<PriceView> findApplicablePrices(Integer productId, Integer brandId, LocalDateTime date);
+
+    /**
+     * Recorre todos los precios ordenados por (producto, marca, fecha de inicio), sin cargarlos en memoria.
+     */
+    default void forEachOrdered(PriceConsumer consumer) throws IOException {
+        forEachOrdered(PriceKeyRange.ALL, consumer);
+    }
+
+    /**
+     * Recorre en orden, sin cargarlos en memoria, los precios de los pares del rango.
+     */
+    void forEachOrdered(PriceKeyRange range, PriceConsumer consumer) throws IOException;
+
+    /**
+     * Rango de productos con precios, con todas las marcas, o vacío si no hay ninguno.
+     */
+    Optional<PriceKeyRange> productRange();
+
+    /**
+     * Devuelve las claves compactas ({@link PriceIndex#key}) de hasta {@code limit} pares con precios,
+     * por ejemplo para precargarlos en el índice al arrancar.
+     */
+    List<Long> keys(int limit);
+
+    /**
+     * Recorre las claves compactas ({@link PriceIndex#key}) de todos los pares con precios. Un par puede
+     * aparecer más de una vez si está en varias capas.
+     */
+    void forEachKey(LongConsumer consumer);
+
+    /**
+     * Indica si el precio (producto, marca, fecha de inicio) existe en una capa de solo lectura que la
+     * restricción única de la tabla price no ve, de modo que un alta con esa clave debe rechazarse como duplicada.
+     */
+    default boolean containsReadOnly(Integer productId, Integer brandId, LocalDateTime startDate) {
+        return false;
+    }
+
+    /**
+     * Avisa de que se ha publicado una instantánea nueva, que ya contiene todos los precios de este origen.
+     */
+    default void snapshotWritten(PriceSnapshot snapshot) {
+    }
+
+    @FunctionalInterface
+    interface PriceConsumer {
+        void accept(PriceView price) throws IOException;
+    }
+}
@@ -0,0 +1,223 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Línea temporal inmutable de los precios de un único par (producto, marca).
+ *
+ * Las fechas de inicio y fin de todos los precios dividen el tiempo en segmentos
+ * disjuntos. Para cada segmento se precalcula la lista de precios que lo cubren,
+ * ordenada por prioridad descendente, junto con el precio ganador del segmento, de forma
+ * que una consulta se resuelve con una única búsqueda binaria sobre los límites de los segmentos.
+ *
+ * Guarda proyecciones inmutables {@link PriceView}, por lo que las listas devueltas pueden compartirse
+ * entre hilos y serializarse directamente. Las escrituras no modifican la instancia: generan una nueva
+ * línea temporal solo para el par afectado.
+ */
+public final class PriceTimeline {
+
+    /**
+     * Orden de resolución: mayor prioridad primero; a igualdad de prioridad gana el precio con la
+     * fecha de inicio más reciente y, si también coincide, el de mayor ID (el último dado de alta).
+     */
+    static final Comparator<PriceView> PRIORITY_ORDER = Comparator
+            .comparingInt(PriceView::priority).reversed()
+            .thenComparing(PriceView::startDate, Comparator.reverseOrder())
+            .thenComparing(Comparator.comparingLong(PriceView::id).reversed());
+
+    static final PriceTimeline EMPTY = new PriceTimeline(new PriceView[0], new LocalDateTime[0], List.of(), new PriceView[0]);
+
+    private final PriceView[] rows;
+    private final LocalDateTime[] boundaries;
+    private final List<List<PriceView>> segments;
+    private final PriceView[] winners;
+
+    private PriceTimeline(PriceView[] rows, LocalDateTime[] boundaries, List<List<PriceView>> segments, PriceView[] winners) {
+        this.rows = rows;
+        this.boundaries = boundaries;
+        this.segments = segments;
+        this.winners = winners;
+    }
+
+    /**
+     * Construye la línea temporal a partir de todos los precios de un par (producto, marca).
+     * Los precios sin fechas se ignoran, ya que nunca pueden ser aplicables.
+     */
+    public static PriceTimeline of(Collection<PriceView> prices) {
+        PriceView[] rows = prices.stream()
+                .filter(p -> p.startDate() != null && p.endDate() != null)
+                .filter(p -> !p.endDate().isBefore(p.startDate()))
+                .sorted(Comparator.comparing(PriceView::startDate))
+                .toArray(PriceView[]::new);
+        if (rows.length == 0) {
+            return EMPTY;
+        }
+
+        // Cada precio abre un segmento en su inicio y lo cierra justo después de su fin (fin inclusivo).
+        TreeSet<LocalDateTime> points = new TreeSet<>();
+        for (PriceView row : rows) {
+            points.add(row.startDate());
+            if (!row.endDate().equals(LocalDateTime.MAX)) {
+                points.add(row.endDate().plusNanos(1));
+            }
+        }
+        LocalDateTime[] boundaries = points.toArray(new LocalDateTime[0]);
+
+        List<List<PriceView>> segments = new ArrayList<>(boundaries.length);
+        PriceView[] winners = new PriceView[boundaries.length];
+        List<PriceView> active = new ArrayList<>();
+        List<PriceView> previous = List.of();
+        int next = 0;
+        for (LocalDateTime boundary : boundaries) {
+            boolean changed = active.removeIf(p -> p.endDate().isBefore(boundary));
+            while (next < rows.length && !rows[next].startDate().isAfter(boundary)) {
+                active.add(rows[next++]);
+                changed = true;
+            }
+            if (changed) {
+                active.sort(PRIORITY_ORDER);
+                previous = List.copyOf(active);
+            }
+            winners[segments.size()] = previous.isEmpty() ? null : previous.get(0);
+            segments.add(previous);
+        }
+        return new PriceTimeline(rows, boundaries, segments, winners);
+    }
+
+    /**
+     * Devuelve los precios aplicables en la fecha indicada, ordenados por prioridad descendente.
+     *
+     * @param date La fecha de consulta.
+     * @return Una lista inmutable, vacía si ningún precio cubre la fecha.
+     */
+    public List<PriceView> applicableAt(LocalDateTime date) {
+        int index = segmentIndex(date);
+        return index < 0 ? List.of() : segments.get(index);
+    }
+
+    /**
+     * Devuelve el precio que prevalece en la fecha indicada según {@link #PRIORITY_ORDER}.
+     *
+     * @param date La fecha de consulta.
+     * @return El precio efectivo, o {@code null} si ningún precio cubre la fecha.
+     */
+    public PriceView effectiveAt(LocalDateTime date) {
+        int index = segmentIndex(date);
+        return index < 0 ? null : winners[index];
+    }
+
+    /**
+     * Devuelve los intervalos del rango [from, to], ambos inclusivos, en orden, con el precio que prevalece en
+     * cada uno. Los segmentos consecutivos con el mismo ganador se unen en un único intervalo y los periodos
+     * sin precio se omiten. El coste es una búsqueda binaria más un recorrido de los segmentos que solapan el rango.
+     *
+     * @param from El inicio del rango.
+     * @param to El fin del rango, no anterior a {@code from}.
+     * @return Los intervalos, recortados al rango.
+     */
+    public List<PriceSegment> segmentsBetween(LocalDateTime from, LocalDateTime to) {
+        List<PriceSegment> result = new ArrayList<>();
+        PriceView current = null;
+        LocalDateTime currentStart = null;
+        for (int index = Math.max(segmentIndex(from), 0); index < boundaries.length && !boundaries[index].isAfter(to); index++) {
+            PriceView winner = winners[index];
+            if (winner == current) {
+                continue;
+            }
+            if (current != null) {
+                result.add(new PriceSegment(currentStart, boundaries[index].minusNanos(1), current));
+            }
+            current = winner;
+            currentStart = boundaries[index].isBefore(from) ? from : boundaries[index];
+        }
+        if (current != null) {
+            // El último intervalo contiene a to: su ganador sigue vigente al menos hasta el fin del rango
+            result.add(new PriceSegment(currentStart, to, current));
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve una nueva línea temporal con el precio añadido o, si ya existía uno con el mismo ID, reemplazado.
+     */
+    public PriceTimeline with(PriceView price) {
+        List<PriceView> updated = new ArrayList<>(rows.length + 1);
+        for (PriceView row : rows) {
+            if (price.id() == 0 || row.id() != price.id()) {
+                updated.add(row);
+            }
+        }
+        updated.add(price);
+        return of(updated);
+    }
+
+    /**
+     * Devuelve una nueva línea temporal con todos los precios añadidos o reemplazados, reconstruyéndola una sola vez.
+     */
+    public PriceTimeline withAll(Collection<PriceView> prices) {
+        Set<Long> replacedIds = new HashSet<>();
+        for (PriceView price : prices) {
+            if (price.id() != 0) {
+                replacedIds.add(price.id());
+            }
+        }
+        List<PriceView> updated = new ArrayList<>(rows.length + prices.size());
+        for (PriceView row : rows) {
+            if (!replacedIds.contains(row.id())) {
+                updated.add(row);
+            }
+        }
+        updated.addAll(prices);
+        return of(updated);
+    }
+
+    /**
+     * Devuelve una nueva línea temporal sin el precio con el ID indicado.
+     */
+    public PriceTimeline without(long id) {
+        List<PriceView> updated = new ArrayList<>(rows.length);
+        for (PriceView row : rows) {
+            if (row.id() != id) {
+                updated.add(row);
+            }
+        }
+        return updated.size() == rows.length ? this : of(updated);
+    }
+
+    /**
+     * Devuelve una nueva línea temporal sin los precios con los IDs indicados, reconstruyéndola una sola vez.
+     */
+    public PriceTimeline withoutAll(Set<Long> ids) {
+        List<PriceView> updated = new ArrayList<>(rows.length);
+        for (PriceView row : rows) {
+            if (!ids.contains(row.id())) {
+                updated.add(row);
+            }
+        }
+        return updated.size() == rows.length ? this : of(updated);
+    }
+
+    public boolean isEmpty() {
+        return rows.length == 0;
+    }
+
+    public List<PriceView> getPrices() {
+        return Arrays.asList(rows.clone());
+    }
+
+    private int segmentIndex(LocalDateTime date) {
+        int found = Arrays.binarySearch(boundaries, date);
+        return found >= 0 ? found : -found - 2;
+    }
+}
@@ -0,0 +1,75 @@
+package com.miempresa.priceapplication.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las ejecuciones concurrentes de una misma consulta: mientras una está en curso, las llamadas con la
+ * misma clave esperan su resultado en lugar de lanzar otra. No guarda nada: en cuanto la consulta termina,
+ * la siguiente llamada vuelve a ejecutarla.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder joined = new LongAdder();
+
+    /**
+     * Ejecuta {@code query}, o espera a la ejecución en curso con la misma clave. Si la consulta falla,
+     * todas las llamadas agrupadas reciben la misma excepción.
+     */
+    V execute(K key, Supplier<V> query) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            joined.increment();
+            return await(running);
+        }
+        try {
+            V value = query.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Llamadas que han reutilizado una ejecución en curso en lugar de lanzar la suya.
+     */
+    long joinedCount() {
+        return joined.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return running.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    if (e.getCause() instanceof Error cause) {
+                        throw cause;
+                    }
+                    throw new CompletionException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.miempresa.priceapplication.service;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parseo rápido de fechas ISO 8601 locales ({@code yyyy-MM-ddTHH:mm[:ss[.fffffffff]]}), equivalente a
+ * {@link LocalDateTime#parse(CharSequence)} para los formatos habituales de las consultas.
+ *
+ * Los formatos habituales se leen carácter a carácter, sin el contexto de parseo intermedio que crea
+ * {@code DateTimeFormatter}. Cualquier otro texto, o uno con campos fuera de rango, se delega en
+ * {@code LocalDateTime.parse}, de modo que los errores son los mismos que antes.
+ *
+ * Además guarda las últimas fechas parseadas en una tabla de acceso directo: una consulta repetida con la
+ * misma fecha no vuelve a parsearla ni crea objetos nuevos. Las entradas son inmutables, así que la tabla
+ * puede compartirse entre hilos sin sincronización; en el peor caso una carrera solo provoca un fallo de caché.
+ */
+public final class IsoDateTimeParser {
+
+    private record Entry(String text, LocalDateTime value) {
+    }
+
+    private final Entry[] cache;
+    private final int mask;
+
+    /**
+     * @param cacheSize Número de entradas de la caché, redondeado a potencia de dos; 0 la desactiva.
+     */
+    public IsoDateTimeParser(int cacheSize) {
+        int size = cacheSize <= 1 ? Math.max(cacheSize, 0) : Integer.highestOneBit(cacheSize - 1) << 1;
+        this.cache = new Entry[size];
+        this.mask = cache.length - 1;
+    }
+
+    /**
+     * Parsea la fecha indicada.
+     *
+     * @throws DateTimeParseException si el texto no es una fecha ISO 8601 local válida.
+     */
+    public LocalDateTime parse(String text) {
+        if (cache.length == 0) {
+            return parseUncached(text);
+        }
+        int slot = text.hashCode() & mask;
+        Entry entry = cache[slot];
+        if (entry != null && entry.text().equals(text)) {
+            return entry.value();
+        }
+        LocalDateTime value = parseUncached(text);
+        cache[slot] = new Entry(text, value);
+        return value;
+    }
+
+    private static LocalDateTime parseUncached(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':') {
+            return LocalDateTime.parse(text);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || text.charAt(16) != ':') {
+                return LocalDateTime.parse(text);
+            }
+            second = digits(text, 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return LocalDateTime.parse(text);
+                }
+                nano = digits(text, 20, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return LocalDateTime.parse(text);
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            return LocalDateTime.parse(text);
+        }
+    }
+
+    /**
+     * Lee {@code count} dígitos decimales a partir de {@code from}, o devuelve -1 si alguno no lo es.
+     */
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,37 @@
+package com.miempresa.priceapplication.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Muestreo de los logs que se escriben una vez por petición ({@code price.logging.sample-rate}): con N se
+ * registra de media una de cada N peticiones, elegida al azar y sin estado compartido entre hilos. Los logs
+ * muestreados llevan el campo {@code sampleRate}, para escalar los recuentos. Con 1 se registran todas.
+ *
+ * Solo se muestrean los logs informativos de la ruta normal; los avisos y errores se escriben siempre.
+ */
+@Component
+public class LogSampler {
+
+    private final int rate;
+
+    public LogSampler(@Value("${price.logging.sample-rate:1}") int rate) {
+        if (rate < 1) {
+            throw new IllegalStateException("price.logging.sample-rate debe ser mayor que 0");
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Indica si la petición actual debe registrarse.
+     */
+    public boolean sample() {
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    public int rate() {
+        return rate;
+    }
+}
@@ -0,0 +1,133 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compactación de la tabla price: mueve al {@link PriceArchive} los precios que terminaron hace más de
+ * {@code price.archive.min-age}, en lotes de {@code price.archive.batch-size} filas con una transacción cada uno,
+ * y los quita después de las líneas temporales en caché del {@link PriceIndex}. Así la tabla y el índice guardan
+ * solo precios vigentes y futuros, y su tamaño no depende de cuánto histórico se acumule.
+ *
+ * Archivar no es una baja: las consultas de fechas pasadas siguen encontrando esos precios en el archivo, el
+ * registro de cambios no lo recoge y la versión de los pares no cambia. Las instantáneas incluyen los precios
+ * archivados, de modo que una instancia columnar conserva el histórico; la exportación, que recorre solo el
+ * {@code PriceStore}, no los incluye.
+ *
+ * Con {@code price.archive.interval} mayor que cero se ejecuta periódicamente en segundo plano (perfil prod).
+ */
+@Service
+@Slf4j
+public class PriceArchiveService {
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${price.archive.interval:0s}")
+    private Duration interval;
+
+    @Value("${price.archive.min-age:1d}")
+    private Duration minAge;
+
+    @Value("${price.archive.batch-size:1000}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("price-archive").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::archiveScheduled, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Archivado de precios programado cada {}: precios terminados hace más de {}, en lotes de {}",
+                interval, minAge, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archiva todos los precios que terminaron hace más de {@code price.archive.min-age}.
+     *
+     * @return El informe con los precios y pares archivados, los lotes, el horizonte del archivo y el tiempo empleado.
+     * @throws PriceServiceException si algún lote no se puede archivar; los anteriores quedan archivados.
+     */
+    public synchronized PriceArchiveReport archive() {
+        return archive(LocalDateTime.now().minus(minAge));
+    }
+
+    /**
+     * Archiva todos los precios que terminaron antes de {@code cutoff}.
+     */
+    public synchronized PriceArchiveReport archive(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        long rows = 0;
+        int batches = 0;
+        Set<Long> keys = new HashSet<>();
+        try {
+            List<PriceView> moved;
+            do {
+                moved = transactionTemplate.execute(status -> priceArchive.moveExpired(cutoff, batchSize));
+                priceIndex.archived(moved);
+                for (PriceView price : moved) {
+                    keys.add(PriceIndex.key(price.productId(), price.brandId()));
+                }
+                rows += moved.size();
+                batches += moved.isEmpty() ? 0 : 1;
+            } while (moved.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.error("Error archivando precios tras {} lotes: {}", batches, e.getMessage(), e);
+            throw new PriceServiceException("Error archivando precios: " + e.getMessage());
+        }
+
+        PriceArchiveReport report = new PriceArchiveReport(rows, keys.size(), batches, priceArchive.horizon(),
+                (System.nanoTime() - start) / 1_000_000);
+        if (rows > 0) {
+            log.info("Archivados {} precios de {} pares terminados antes de {} en {} lotes y {} ms",
+                    rows, keys.size(), cutoff, batches, report.getElapsedMillis());
+        }
+        return report;
+    }
+
+    private void archiveScheduled() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("El archivado programado no se pudo completar; se reintentará en {}", interval);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.exception.PriceChangesExpiredException;
+import com.miempresa.priceapplication.model.PriceChange;
+import com.miempresa.priceapplication.repository.PriceChangeLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lectura incremental del {@link PriceChangeLog} para los consumidores de {@code GET /api/prices/changes}.
+ *
+ * Un consumidor abre un {@link Cursor} desde la última secuencia que ha aplicado (o desde la actual, si
+ * todavía no tiene ninguna) y va pidiendo lotes: cada lote contiene todos los cambios disponibles hasta
+ * {@code price.changes.max-batch}, de modo que se escribe y se envía de una vez. Si no llega ningún cambio
+ * en {@code price.changes.heartbeat} se devuelve un lote vacío para que el endpoint pueda enviar un latido y
+ * detectar consumidores desconectados. Cada flujo dura como máximo {@code price.changes.max-stream-duration};
+ * después el consumidor se vuelve a conectar desde su última secuencia.
+ */
+@Service
+public class PriceChangeFeed {
+
+    @Autowired
+    private PriceChangeLog priceChangeLog;
+
+    @Value("${price.changes.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${price.changes.heartbeat:15s}")
+    private Duration heartbeat;
+
+    @Value("${price.changes.max-stream-duration:10m}")
+    private Duration maxStreamDuration;
+
+    /**
+     * Abre un cursor posicionado tras la secuencia {@code after}, o tras la última publicada si es {@code null}.
+     *
+     * @param after La última secuencia ya aplicada por el consumidor.
+     * @param batchSize El número máximo de cambios por lote, o {@code null} para usar {@code price.changes.max-batch}.
+     * @throws InvalidPriceRequestException si el tamaño de lote no está entre 1 y {@code price.changes.max-batch}.
+     * @throws PriceChangesExpiredException si los cambios posteriores a {@code after} ya no se retienen.
+     */
+    public Cursor open(Long after, Integer batchSize) {
+        int size = batchSize != null ? batchSize : maxBatch;
+        if (size < 1 || size > maxBatch) {
+            throw new InvalidPriceRequestException("El tamaño de lote debe estar entre 1 y " + maxBatch + ".");
+        }
+        long position = after != null ? after : priceChangeLog.lastSequence();
+        priceChangeLog.read(position, 1);
+        return new Cursor(position, size, System.nanoTime() + maxStreamDuration.toNanos());
+    }
+
+    /**
+     * Tiempo sin cambios tras el que se envía un latido.
+     */
+    public Duration heartbeat() {
+        return heartbeat;
+    }
+
+    /**
+     * Tiempo máximo que puede permanecer abierto un flujo, con margen para el último latido.
+     */
+    public Duration streamTimeout() {
+        return maxStreamDuration.plus(heartbeat).plus(heartbeat);
+    }
+
+    /**
+     * Posición de un consumidor en el registro de cambios. No es seguro compartirlo entre hilos.
+     */
+    public final class Cursor {
+
+        private long position;
+
+        private final int batchSize;
+
+        private final long deadline;
+
+        private Cursor(long position, int batchSize, long deadline) {
+            this.position = position;
+            this.batchSize = batchSize;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Devuelve los cambios disponibles sin esperar.
+         */
+        public List<PriceChange> poll() {
+            return advance(priceChangeLog.read(position, batchSize));
+        }
+
+        /**
+         * Espera al siguiente lote durante un latido como máximo; devuelve una lista vacía si no llega ninguno.
+         *
+         * @throws PriceChangesExpiredException si el consumidor se ha quedado más atrás que la retención.
+         */
+        public List<PriceChange> next() throws InterruptedException {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return advance(priceChangeLog.await(position, batchSize, heartbeat.compareTo(Duration.ofNanos(remaining)) < 0
+                    ? heartbeat : Duration.ofNanos(remaining)));
+        }
+
+        /**
+         * Indica si el flujo ha alcanzado {@code price.changes.max-stream-duration} y debe cerrarse.
+         */
+        public boolean isExpired() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        /**
+         * Tiempo que le queda al flujo hasta {@code price.changes.max-stream-duration}.
+         */
+        public Duration remaining() {
+            return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        }
+
+        /**
+         * Última secuencia entregada.
+         */
+        public long position() {
+            return position;
+        }
+
+        private List<PriceChange> advance(List<PriceChange> changes) {
+            if (!changes.isEmpty()) {
+                position = changes.get(changes.size() - 1).sequence();
+            }
+            return changes;
+        }
+    }
+}
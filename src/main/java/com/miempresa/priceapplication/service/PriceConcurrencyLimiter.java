@@ -0,0 +1,195 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite adaptativo de consultas simultáneas delante de {@link PriceService}.
+ *
+ * Una consulta que llega con el límite ya alcanzado se rechaza al instante con
+ * {@link PriceOverloadedException} (503 con Retry-After) en lugar de esperar en la cola del pool de conexiones
+ * hasta agotar su tiempo: así las consultas admitidas mantienen su latencia y el cliente sabe cuándo reintentar.
+ *
+ * El límite se ajusta en ventanas de {@code price.limiter.window} con un esquema AIMD sobre la latencia: la
+ * latencia mínima observada es la de referencia sin carga (sube un 1 % por ventana para seguir los cambios del
+ * sistema). Si la latencia media de la ventana supera {@code price.limiter.latency-tolerance} veces la de
+ * referencia, o alguna consulta ha fallado por falta de conexiones, el límite baja un 10 %; si no, y la ventana
+ * ha llegado a usar la mayor parte del límite, sube en su raíz cuadrada. Queda entre
+ * {@code price.limiter.min-limit} y {@code price.limiter.max-limit}.
+ */
+@Component
+@Slf4j
+public class PriceConcurrencyLimiter {
+
+    /**
+     * Margen absoluto sobre la latencia de referencia, para que la variación normal de las consultas que se
+     * resuelven en microsegundos desde la caché no se tome como sobrecarga.
+     */
+    private static final long LATENCY_SLACK_NANOS = 1_000_000;
+
+    private static final double BACKOFF = 0.9;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${price.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${price.limiter.initial-limit:100}")
+    private int initialLimit;
+
+    @Value("${price.limiter.min-limit:8}")
+    private int minLimit;
+
+    @Value("${price.limiter.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${price.limiter.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${price.limiter.window:100ms}")
+    private Duration window;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder samples = new LongAdder();
+
+    private final LongAdder latencySum = new LongAdder();
+
+    private final AtomicLong windowMinLatency = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicInteger windowPeak = new AtomicInteger();
+
+    private final AtomicBoolean windowOverloaded = new AtomicBoolean();
+
+    private final AtomicLong windowEnd = new AtomicLong();
+
+    private volatile int limit;
+
+    /**
+     * Solo los modifica el hilo que cierra cada ventana.
+     */
+    private double exactLimit;
+
+    private long baselineLatency = Long.MAX_VALUE;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        if (minLimit < 1 || maxLimit < minLimit || latencyTolerance <= 1) {
+            throw new IllegalStateException("price.limiter: se requiere 1 <= min-limit <= max-limit y latency-tolerance > 1");
+        }
+        exactLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        limit = (int) exactLimit;
+        windowEnd.set(System.nanoTime() + window.toNanos());
+        rejected = Counter.builder("price.limiter.rejected")
+                .description("Consultas rechazadas con 503 por superar el límite de concurrencia")
+                .register(meterRegistry);
+        Gauge.builder("price.limiter.limit", this, PriceConcurrencyLimiter::getLimit)
+                .description("Límite actual de consultas simultáneas")
+                .register(meterRegistry);
+        Gauge.builder("price.limiter.in-flight", inFlight, AtomicInteger::get)
+                .description("Consultas en curso")
+                .register(meterRegistry);
+        log.info("Límite adaptativo de consultas {}: inicial {}, entre {} y {}", enabled ? "activado" : "desactivado",
+                limit, minLimit, maxLimit);
+    }
+
+    /**
+     * Admite una consulta o la rechaza si ya se ha alcanzado el límite.
+     *
+     * @return El instante de admisión, que se pasa a {@link #release}.
+     * @throws PriceOverloadedException si la consulta se rechaza.
+     */
+    public long acquire() {
+        long start = System.nanoTime();
+        if (!enabled) {
+            return start;
+        }
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new PriceOverloadedException("Demasiadas consultas simultáneas (límite " + limit
+                    + "). Por favor, reintenta en unos instantes.");
+        }
+        if (current > windowPeak.get()) {
+            windowPeak.accumulateAndGet(current, Math::max);
+        }
+        return start;
+    }
+
+    /**
+     * Registra el final de una consulta admitida.
+     *
+     * @param overloaded Si la consulta ha fallado por falta de recursos (por ejemplo, sin conexión libre).
+     */
+    public void release(long start, boolean overloaded) {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        long latency = now - start;
+        samples.increment();
+        latencySum.add(latency);
+        if (latency < windowMinLatency.get()) {
+            windowMinLatency.accumulateAndGet(latency, Math::min);
+        }
+        if (overloaded) {
+            windowOverloaded.set(true);
+        }
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + window.toNanos())) {
+            adjust();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void adjust() {
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        long minLatency = windowMinLatency.getAndSet(Long.MAX_VALUE);
+        int peak = windowPeak.getAndSet(0);
+        boolean overloaded = windowOverloaded.getAndSet(false);
+        if (count == 0) {
+            return;
+        }
+        baselineLatency = baselineLatency == Long.MAX_VALUE
+                ? minLatency
+                : Math.min(minLatency, baselineLatency + Math.max(1, baselineLatency / 100));
+        long averageLatency = sum / count;
+        double previous = exactLimit;
+        if (overloaded || averageLatency > baselineLatency * latencyTolerance + LATENCY_SLACK_NANOS) {
+            exactLimit = Math.max(minLimit, exactLimit * BACKOFF);
+        } else if (peak >= exactLimit * 0.8) {
+            exactLimit = Math.min(maxLimit, exactLimit + Math.sqrt(exactLimit));
+        }
+        limit = (int) exactLimit;
+        if ((int) previous != limit && log.isDebugEnabled()) {
+            log.debug("Límite de concurrencia {} -> {} (latencia media {} us, referencia {} us, pico {})", (int) previous,
+                    limit, averageLatency / 1_000, baselineLatency / 1_000, peak);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceKeyRange;
+import com.miempresa.priceapplication.repository.PriceStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Exportación masiva del catálogo de precios en CSV o en un formato binario compacto.
+ *
+ * Los precios se recorren con {@link PriceStore#forEachOrdered(PriceKeyRange, PriceStore.PriceConsumer)}, es
+ * decir, con un cursor JDBC o sobre la instantánea columnar, y cada fila se escribe directamente en la salida
+ * según se lee: la memoria usada no depende del número de filas y nunca se materializan entidades JPA.
+ *
+ * El CSV lleva cabecera y las columnas que acepta {@link PriceImportService#importCsv} más el ID, de modo que
+ * el fichero puede volver a importarse en otra instancia.
+ * El formato binario (big-endian) es:
+ * <pre>
+ * cabecera: magic "PRCX" (int) | versión (short)
+ * fila:     1 (byte) | id (long) | productId (int) | brandId (int) | inicio (long) | fin (long)
+ *           | priceList (int) | priority (int) | importe en céntimos (long) | divisa (UTF)
+ * final:    0 (byte) | número de filas (long)
+ * </pre>
+ * con las fechas en segundos epoch UTC. El recuento final permite al lector comprobar que el fichero está completo.
+ */
+@Service
+@Slf4j
+public class PriceExportService {
+
+    public static final int BINARY_MAGIC = 0x50524358;
+
+    public static final short BINARY_VERSION = 1;
+
+    private static final String CSV_HEADER = "id,brandId,startDate,endDate,priceList,productId,priority,price,currency\n";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format { CSV, BINARY }
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceMetrics priceMetrics;
+
+    /**
+     * Calcula el rango que corresponde a una petición de exportación: los filtros de producto y marca y,
+     * si se pide, uno de {@code partitions} tramos contiguos de productos de igual anchura dentro de los
+     * productos que tienen precios. Las particiones permiten exportar el catálogo con varias peticiones en paralelo.
+     *
+     * @return El rango a exportar, o vacío si no puede contener ningún precio.
+     * @throws InvalidPriceRequestException si algún límite o la partición son inválidos.
+     */
+    public Optional<PriceKeyRange> resolveRange(Integer productIdFrom, Integer productIdTo, Integer brandIdFrom,
+                                                Integer brandIdTo, Integer partition, Integer partitions) {
+        PriceKeyRange range;
+        try {
+            range = new PriceKeyRange(
+                    productIdFrom != null ? productIdFrom : 0, productIdTo != null ? productIdTo : Integer.MAX_VALUE,
+                    brandIdFrom != null ? brandIdFrom : 0, brandIdTo != null ? brandIdTo : Integer.MAX_VALUE);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPriceRequestException("Los rangos de producto y marca deben ser positivos y no estar invertidos.");
+        }
+        if (partition == null && partitions == null) {
+            return Optional.of(range);
+        }
+        int count = partitions != null ? partitions : 1;
+        int index = partition != null ? partition : 0;
+        if (count < 1 || index < 0 || index >= count) {
+            throw new InvalidPriceRequestException("La partición debe estar entre 0 y partitions - 1.");
+        }
+        return priceStore.productRange()
+                .flatMap(bounds -> range.narrow(bounds.productIdFrom(), bounds.productIdTo()))
+                .flatMap(narrowed -> narrowed.partition(index, count));
+    }
+
+    /**
+     * Escribe en la salida los precios del rango en el formato indicado. La salida no se cierra.
+     *
+     * @return El número de precios exportados.
+     */
+    public long export(Optional<PriceKeyRange> range, Format format, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        long rows = switch (format) {
+            case CSV -> exportCsv(range, output);
+            case BINARY -> exportBinary(range, output);
+        };
+        priceMetrics.record(PriceMetrics.Method.EXPORT_PRICES, start);
+        log.info("Exportación {} de {} finalizada: {} precios en {} ms", format, range.map(Object::toString).orElse("rango vacío"),
+                rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long exportCsv(Optional<PriceKeyRange> range, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        long[] rows = {0};
+        if (range.isPresent()) {
+            StringBuilder line = new StringBuilder(128);
+            priceStore.forEachOrdered(range.get(), price -> {
+                line.setLength(0);
+                line.append(price.id()).append(',').append(price.brandId()).append(',');
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(price.startDate(), line);
+                line.append(',');
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(price.endDate(), line);
+                line.append(',').append(price.priceList()).append(',').append(price.productId()).append(',')
+                        .append(price.priority()).append(',');
+                Money.appendTo(line, price.price()).append(',').append(price.currency()).append('\n');
+                writer.append(line);
+                rows[0]++;
+            });
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private long exportBinary(Optional<PriceKeyRange> range, OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+        data.writeInt(BINARY_MAGIC);
+        data.writeShort(BINARY_VERSION);
+        long[] rows = {0};
+        if (range.isPresent()) {
+            priceStore.forEachOrdered(range.get(), price -> {
+                writeBinary(data, price);
+                rows[0]++;
+            });
+        }
+        data.writeByte(0);
+        data.writeLong(rows[0]);
+        data.flush();
+        return rows[0];
+    }
+
+    private static void writeBinary(DataOutputStream data, PriceView price) throws IOException {
+        data.writeByte(1);
+        data.writeLong(price.id());
+        data.writeInt(price.productId());
+        data.writeInt(price.brandId());
+        data.writeLong(price.startDate().toEpochSecond(ZoneOffset.UTC));
+        data.writeLong(price.endDate().toEpochSecond(ZoneOffset.UTC));
+        data.writeInt(price.priceList());
+        data.writeInt(price.priority());
+        data.writeLong(price.price());
+        data.writeUTF(price.currency());
+    }
+}
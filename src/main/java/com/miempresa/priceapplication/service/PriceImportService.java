@@ -0,0 +1,333 @@
+package com.miempresa.priceapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import com.miempresa.priceapplication.model.Money;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.model.PriceImportReport.ChunkResult;
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import com.miempresa.priceapplication.repository.PriceStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de precios desde un flujo NDJSON o CSV.
+ *
+ * El flujo se procesa en bloques de tamaño configurable. Cada bloque se valida, se comprueban sus
+ * duplicados con una única consulta y se inserta en su propia transacción mediante inserciones JDBC
+ * por lotes, de modo que un bloque fallido no afecta a los ya confirmados. Si un alta concurrente hace que el
+ * bloque choque con la restricción de unicidad, sus filas se reintentan una a una y solo esa cuenta como duplicada.
+ */
+@Service
+@Slf4j
+public class PriceImportService {
+
+    private static final int MAX_ERRORS_PER_CHUNK = 10;
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "brandId", "startDate", "endDate", "priceList", "productId", "priority", "price", "currency");
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PriceMetrics priceMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${price.import.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    /**
+     * Importa precios desde un flujo NDJSON: un objeto {@link Price} en JSON por línea.
+     *
+     * @param input El flujo de entrada.
+     * @param chunkSize El número de filas por transacción, o {@code null} para usar el valor configurado.
+     * @return El informe de la importación, con el resultado de cada bloque.
+     */
+    public PriceImportReport importNdjson(InputStream input, Integer chunkSize) {
+        return importRows(input, chunkSize, false, header -> line -> {
+            try {
+                return objectMapper.readValue(line, Price.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    /**
+     * Importa precios desde un flujo CSV. La primera línea es una cabecera con los nombres de los campos
+     * de {@link Price} (brandId, startDate, endDate, priceList, productId, priority, price, currency) en cualquier orden.
+     *
+     * @param input El flujo de entrada.
+     * @param chunkSize El número de filas por transacción, o {@code null} para usar el valor configurado.
+     * @return El informe de la importación, con el resultado de cada bloque.
+     */
+    public PriceImportReport importCsv(InputStream input, Integer chunkSize) {
+        return importRows(input, chunkSize, true, this::csvParser);
+    }
+
+    private PriceImportReport importRows(InputStream input, Integer chunkSize, boolean hasHeader,
+                                         Function<String, Function<String, Price>> parserForHeader) {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1) {
+            throw new InvalidPriceRequestException("El tamaño de bloque debe ser mayor que 0.");
+        }
+
+        long start = System.nanoTime();
+        PriceImportReport report = new PriceImportReport();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String header = null;
+            if (hasHeader) {
+                header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    throw new InvalidPriceRequestException("El fichero CSV debe incluir una cabecera.");
+                }
+            }
+            Function<String, Price> parser = parserForHeader.apply(header);
+
+            List<ParsedRow> chunk = new ArrayList<>(size);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(parse(lineNumber, line, parser));
+                if (chunk.size() == size) {
+                    report.add(processChunk(report.getChunks().size(), chunk));
+                    chunk = new ArrayList<>(size);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                report.add(processChunk(report.getChunks().size(), chunk));
+            }
+        } catch (IOException e) {
+            log.error("Error leyendo el flujo de importación: {}", e.getMessage(), e);
+            throw new PriceServiceException("Error leyendo el flujo de importación.");
+        }
+
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        priceMetrics.record(PriceMetrics.Method.IMPORT_PRICES, start);
+        priceMetrics.increment(PriceMetrics.Operation.IMPORT, PriceMetrics.Outcome.DUPLICATE, report.getDuplicates());
+        log.info("Importación finalizada: {} recibidos, {} insertados, {} duplicados, {} inválidos, {} fallidos en {} ms",
+                report.getReceived(), report.getInserted(), report.getDuplicates(), report.getInvalid(),
+                report.getFailed(), report.getElapsedMillis());
+        return report;
+    }
+
+    private ParsedRow parse(long lineNumber, String line, Function<String, Price> parser) {
+        try {
+            Price price = parser.apply(line);
+            Set<ConstraintViolation<Price>> violations = validator.validate(price);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                return new ParsedRow(lineNumber, null, message);
+            }
+            price.setId(null);
+            return new ParsedRow(lineNumber, price, null);
+        } catch (RuntimeException e) {
+            return new ParsedRow(lineNumber, null, e.getMessage());
+        }
+    }
+
+    private ChunkResult processChunk(int chunkIndex, List<ParsedRow> rows) {
+        List<String> errors = new ArrayList<>();
+        Map<PriceKey, Price> candidates = new LinkedHashMap<>();
+        int invalid = 0;
+        int duplicates = 0;
+
+        for (ParsedRow row : rows) {
+            if (row.error() != null) {
+                invalid++;
+                addError(errors, "Línea " + row.line() + ": " + row.error());
+            } else if (candidates.putIfAbsent(PriceKey.of(row.price()), row.price()) != null) {
+                duplicates++;
+                addError(errors, "Línea " + row.line() + ": precio duplicado dentro del fichero");
+            }
+        }
+
+        int inserted;
+        try {
+            int[] counts = transactionTemplate.execute(status -> insertNew(candidates));
+            inserted = counts[0];
+            duplicates += counts[1];
+        } catch (DataIntegrityViolationException e) {
+            // Un alta concurrente (de la PriceWritePipeline, de otra importación o de otra instancia) insertó alguna
+            // clave tras la consulta de existencia: se reintenta cada fila en su propia transacción, como hace la
+            // PriceWritePipeline, y las que chocan con la restricción cuentan como duplicadas
+            log.debug("Bloque {} revertido, se reintentan sus {} filas por separado: {}", chunkIndex, candidates.size(), e.getMessage());
+            inserted = 0;
+            for (Map.Entry<PriceKey, Price> candidate : candidates.entrySet()) {
+                Price price = candidate.getValue();
+                price.setId(null);
+                try {
+                    int[] counts = transactionTemplate.execute(status -> insertNew(Map.of(candidate.getKey(), price)));
+                    inserted += counts[0];
+                    duplicates += counts[1];
+                } catch (DataIntegrityViolationException single) {
+                    if (PriceService.isDuplicatePrice(single)) {
+                        duplicates++;
+                    } else {
+                        invalid++;
+                        addError(errors, "Precio " + candidate.getKey() + ": " + single.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error insertando el bloque {}: {}", chunkIndex, e.getMessage(), e);
+            addError(errors, "Bloque revertido: " + e.getMessage());
+            return new ChunkResult(chunkIndex, rows.get(0).line(), rows.size(), 0, duplicates, invalid,
+                    ChunkResult.Status.FAILED, errors);
+        }
+        log.debug("Bloque {} confirmado: {} insertados, {} duplicados, {} inválidos", chunkIndex, inserted, duplicates, invalid);
+        return new ChunkResult(chunkIndex, rows.get(0).line(), rows.size(), inserted, duplicates, invalid,
+                ChunkResult.Status.COMMITTED, errors);
+    }
+
+    /**
+     * Inserta los candidatos que no existen todavía. Devuelve {insertados, duplicados}.
+     */
+    private int[] insertNew(Map<PriceKey, Price> candidates) {
+        if (candidates.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        Set<Integer> productIds = new HashSet<>();
+        Set<Integer> brandIds = new HashSet<>();
+        Set<LocalDateTime> startDates = new HashSet<>();
+        for (PriceKey key : candidates.keySet()) {
+            productIds.add(key.productId());
+            brandIds.add(key.brandId());
+            startDates.add(key.startDate());
+        }
+        Set<PriceKey> existing = new HashSet<>();
+        for (Object[] row : priceRepository.findExistingKeys(productIds, brandIds, startDates)) {
+            existing.add(new PriceKey((Integer) row[0], (Integer) row[1], (LocalDateTime) row[2]));
+        }
+        for (Object[] row : priceArchive.findExistingKeys(productIds, brandIds, startDates)) {
+            existing.add(new PriceKey((Integer) row[0], (Integer) row[1], (LocalDateTime) row[2]));
+        }
+
+        int inserted = 0;
+        int duplicates = 0;
+        for (Map.Entry<PriceKey, Price> candidate : candidates.entrySet()) {
+            PriceKey key = candidate.getKey();
+            if (existing.contains(key) || priceStore.containsReadOnly(key.productId(), key.brandId(), key.startDate())) {
+                duplicates++;
+            } else {
+                entityManager.persist(candidate.getValue());
+                inserted++;
+            }
+        }
+        // El flush del repositorio traduce la violación de uk_price_product_brand_start a DataIntegrityViolationException
+        priceRepository.flush();
+        entityManager.clear();
+        return new int[]{inserted, duplicates};
+    }
+
+    private Function<String, Price> csvParser(String header) {
+        String[] names = header.trim().split(",");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new InvalidPriceRequestException("Falta la columna '" + column + "' en la cabecera CSV.");
+            }
+        }
+        return line -> {
+            String[] values = line.split(",", -1);
+            if (values.length < names.length) {
+                throw new IllegalArgumentException("se esperaban " + names.length + " columnas");
+            }
+            Price price = new Price();
+            price.setBrandId(parseInteger(values[columns.get("brandId")]));
+            price.setStartDate(parseDateTime(values[columns.get("startDate")]));
+            price.setEndDate(parseDateTime(values[columns.get("endDate")]));
+            price.setPriceList(parseInteger(values[columns.get("priceList")]));
+            price.setProductId(parseInteger(values[columns.get("productId")]));
+            price.setPriority(parseInteger(values[columns.get("priority")]));
+            String amount = values[columns.get("price")].trim();
+            price.setPrice(amount.isEmpty() ? null : Money.parse(amount));
+            String currency = values[columns.get("currency")].trim();
+            price.setCurrency(currency.isEmpty() ? null : currency.toUpperCase(Locale.ROOT));
+            return price;
+        };
+    }
+
+    private static Integer parseInteger(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : Integer.valueOf(trimmed);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : LocalDateTime.parse(trimmed.replace(' ', 'T'));
+    }
+
+    private static void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+            errors.add(error);
+        }
+    }
+
+    private record ParsedRow(long line, Price price, String error) {
+    }
+
+    private record PriceKey(Integer productId, Integer brandId, LocalDateTime startDate) {
+        static PriceKey of(Price price) {
+            return new PriceKey(price.getProductId(), price.getBrandId(), price.getStartDate());
+        }
+    }
+}
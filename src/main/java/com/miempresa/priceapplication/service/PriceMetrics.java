@@ -0,0 +1,87 @@
+package com.miempresa.priceapplication.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de los servicios de precios:
+ * <ul>
+ *     <li>{@code price.service}: temporizador con histograma de cada método público, etiquetado por {@code method}.</li>
+ *     <li>{@code price.outcomes}: resultados de negocio que no son un éxito (precio no encontrado, fecha inválida
+ *     y precio duplicado), etiquetados por operación.</li>
+ * </ul>
+ *
+ * Todos los medidores se registran al arrancar, de modo que medir no requiere buscar ni crear nada en el
+ * registro y las series aparecen desde el principio. Se evita a propósito un aspecto {@code @Observed}:
+ * en la consulta de precios, resuelta en memoria en menos de un microsegundo, multiplicaba el coste por diez.
+ */
+@Component
+public class PriceMetrics {
+
+    public enum Method { GET_APPLICABLE_PRICES, GET_EFFECTIVE_PRICE, GET_PRICE_TIMELINE, RESOLVE_PRICES, CREATE_PRICE, IMPORT_PRICES, EXPORT_PRICES }
+
+    public enum Operation { QUERY, RESOLVE, CREATE, IMPORT }
+
+    public enum Outcome { NOT_FOUND, INVALID_DATE, DUPLICATE }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer[] timers;
+
+    private Counter[][] counters;
+
+    @PostConstruct
+    public void init() {
+        timers = new Timer[Method.values().length];
+        for (Method method : Method.values()) {
+            timers[method.ordinal()] = Timer.builder("price.service")
+                    .description("Tiempo de ejecución de los servicios de precios")
+                    .tag("method", camelCase(method.name()))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        counters = new Counter[Operation.values().length][Outcome.values().length];
+        for (Operation operation : Operation.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                counters[operation.ordinal()][outcome.ordinal()] = Counter.builder("price.outcomes")
+                        .description("Consultas y altas de precios que no terminan con éxito, por motivo")
+                        .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Registra la duración de una llamada iniciada en {@code startNanos} (valor de {@link System#nanoTime()}).
+     */
+    public void record(Method method, long startNanos) {
+        timers[method.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void increment(Operation operation, Outcome outcome) {
+        counters[operation.ordinal()][outcome.ordinal()].increment();
+    }
+
+    public void increment(Operation operation, Outcome outcome, long amount) {
+        if (amount > 0) {
+            counters[operation.ordinal()][outcome.ordinal()].increment(amount);
+        }
+    }
+
+    private static String camelCase(String constant) {
+        StringBuilder name = new StringBuilder();
+        for (String word : constant.toLowerCase(Locale.ROOT).split("_")) {
+            name.append(name.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return name.toString();
+    }
+}
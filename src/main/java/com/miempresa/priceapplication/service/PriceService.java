@@ -2,26 +2,69 @@ package com.miempresa.priceapplication.service;
 
 import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
 import com.miempresa.priceapplication.exception.PriceNotFoundException;
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.miempresa.priceapplication.model.Price;
-import com.miempresa.priceapplication.repository.PriceRepository;
+import com.miempresa.priceapplication.model.PriceCacheStats;
+import com.miempresa.priceapplication.model.PriceResolveRequest;
+import com.miempresa.priceapplication.model.PriceResolveResult;
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceStore;
+import com.miempresa.priceapplication.repository.PriceTimeline;
+import com.miempresa.priceapplication.service.PriceMetrics.Method;
+import com.miempresa.priceapplication.service.PriceMetrics.Operation;
+import com.miempresa.priceapplication.service.PriceMetrics.Outcome;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class PriceService {
 
+    private static final String UNIQUE_PRICE_CONSTRAINT = "UK_PRICE_PRODUCT_BRAND_START";
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceWritePipeline priceWritePipeline;
+
     @Autowired
-    private PriceRepository priceRepository;
+    private PriceMetrics priceMetrics;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    @Value("${price.resolve.max-items:5000}")
+    private int maxResolveItems;
+
+    private final IsoDateTimeParser dateParser = new IsoDateTimeParser(1024);
 
     /**
      * Obtiene los precios aplicables según el producto, marca y fecha proporcionados.
+     * La consulta se resuelve sobre el índice en memoria {@link PriceIndex}, sin acceder a la base de datos,
+     * y devuelve las proyecciones inmutables que ya guarda el índice, sin copiarlas.
      * Si no se encuentran precios, se lanza una excepción personalizada PriceNotFoundException.
      *
      * @param productId El ID del producto.
@@ -29,60 +72,322 @@ public class PriceService {
      * @param date La fecha en formato LocalDateTime.
      * @return Una lista de precios aplicables.
      */
-    public List<Price> getApplicablePrices(Integer productId, Integer brandId, String date) {
-        log.info("Consultando precios para ProductID: {}, BrandID: {}, Fecha: {}", productId, brandId, date);
-        LocalDateTime dateTime;
+    public List<PriceView> getApplicablePrices(Integer productId, Integer brandId, String date) {
+        List<PriceView> prices = findApplicablePrices(productId, brandId, date);
+        if (prices.isEmpty()) {
+            throw new PriceNotFoundException(PriceNotFoundException.DEFAULT_MESSAGE);
+        }
+        return prices;
+    }
 
+    /**
+     * Igual que {@link #getApplicablePrices}, pero sin excepción cuando no hay precios: devuelve una lista vacía.
+     * Es la variante del controlador, para el que un precio inexistente es una respuesta 404 más.
+     *
+     * @return Los precios aplicables; vacía si no hay ninguno.
+     */
+    public List<PriceView> findApplicablePrices(Integer productId, Integer brandId, String date) {
+        long start = System.nanoTime();
         try {
-            dateTime = LocalDateTime.parse(date);
-            log.debug("Fecha parseada correctamente: {}", dateTime);
-        } catch (DateTimeParseException e) {
-            log.error("Error en el formato de la fecha: {}", date, e);
-            throw new InvalidPriceRequestException("Formato de fecha inválido. Por favor, usa el formato ISO 8601: YYYY-MM-DDTHH:MM:SS");
+            if (log.isDebugEnabled()) {
+                log.debug("Consultando precios para ProductID: {}, BrandID: {}, Fecha: {}", productId, brandId, date);
+            }
+            LocalDateTime dateTime = parseDate(date, Operation.QUERY);
+
+            List<PriceView> prices = priceIndex.findApplicablePrices(productId, brandId, dateTime);
+
+            if (prices.isEmpty()) {
+                notFound(productId, brandId, date);
+            } else {
+                log.debug("Precios encontrados: {}", prices.size());
+            }
+            return prices;
+        } finally {
+            priceMetrics.record(Method.GET_APPLICABLE_PRICES, start);
         }
+    }
 
-        List<Price> prices = priceRepository.findApplicablePrices(productId, brandId, dateTime);
+    /**
+     * Obtiene el único precio que prevalece para el producto, marca y fecha proporcionados.
+     * Entre varios precios solapados gana el de mayor prioridad; los empates se resuelven
+     * a favor de la fecha de inicio más reciente y, después, del mayor ID.
+     *
+     * @param productId El ID del producto.
+     * @param brandId El ID de la marca.
+     * @param date La fecha en formato LocalDateTime.
+     * @return El precio efectivo.
+     * @throws PriceNotFoundException si ningún precio cubre la fecha.
+     */
+    public PriceView getEffectivePrice(Integer productId, Integer brandId, String date) {
+        return findEffectivePrice(productId, brandId, date)
+                .orElseThrow(() -> new PriceNotFoundException(PriceNotFoundException.DEFAULT_MESSAGE));
+    }
 
-        if (prices.isEmpty()) {
-            log.warn("No se encontraron precios para ProductID: {}, BrandID: {}, Fecha: {}", productId, brandId, date);
-            throw new PriceNotFoundException("No se encontraron precios para el producto, marca y fecha proporcionados.");
+    /**
+     * Igual que {@link #getEffectivePrice}, pero sin excepción cuando ningún precio cubre la fecha.
+     *
+     * @return El precio efectivo, o vacío si no hay ninguno.
+     */
+    public Optional<PriceView> findEffectivePrice(Integer productId, Integer brandId, String date) {
+        long start = System.nanoTime();
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Consultando precio efectivo para ProductID: {}, BrandID: {}, Fecha: {}", productId, brandId, date);
+            }
+            LocalDateTime dateTime = parseDate(date, Operation.QUERY);
+
+            Optional<PriceView> price = priceIndex.findEffectivePrice(productId, brandId, dateTime);
+            if (price.isEmpty()) {
+                notFound(productId, brandId, date);
+            }
+            return price;
+        } finally {
+            priceMetrics.record(Method.GET_EFFECTIVE_PRICE, start);
         }
+    }
 
-        log.info("Precios encontrados: {}", prices.size());
-        return prices;
+    /**
+     * Etiqueta del contenido actual de un par (producto, marca): cambia con cada alta o baja de sus precios,
+     * en esta instancia o en otra, y es única por arranque de la instancia. Se obtiene sin consultar los precios,
+     * y leída antes de la consulta, una etiqueta igual más tarde garantiza que el resultado no ha cambiado.
+     *
+     * @param productId El ID del producto.
+     * @param brandId El ID de la marca.
+     * @return La etiqueta, apta como ETag fuerte de cualquier consulta sobre el par.
+     */
+    public String getPriceTag(Integer productId, Integer brandId) {
+        return Long.toHexString(priceIndex.node()) + "-" + Long.toHexString(priceIndex.version(productId, brandId));
+    }
+
+    /**
+     * Obtiene la evolución del precio efectivo de un producto y marca en el rango [from, to]: los intervalos
+     * consecutivos en los que prevalece cada precio, en orden y recortados al rango. Se calculan en una sola
+     * pasada sobre la línea temporal del índice, de modo que el coste depende del número de precios que solapan
+     * el rango y no de su duración.
+     *
+     * @param productId El ID del producto.
+     * @param brandId El ID de la marca.
+     * @param from El inicio del rango en formato ISO 8601, inclusivo.
+     * @param to El fin del rango en formato ISO 8601, inclusivo.
+     * @return Los intervalos con su precio efectivo; vacía si ningún precio cubre el rango.
+     * @throws InvalidPriceRequestException si alguna fecha es inválida o el fin es anterior al inicio.
+     */
+    public List<PriceSegment> getPriceTimeline(Integer productId, Integer brandId, String from, String to) {
+        long start = System.nanoTime();
+        try {
+            LocalDateTime fromDate = parseDate(from, Operation.QUERY);
+            LocalDateTime toDate = parseDate(to, Operation.QUERY);
+            if (toDate.isBefore(fromDate)) {
+                throw new InvalidPriceRequestException("La fecha final no puede ser anterior a la inicial.");
+            }
+            List<PriceSegment> segments = priceIndex.findTimeline(productId, brandId, fromDate).segmentsBetween(fromDate, toDate);
+            log.debug("Línea temporal de ProductID: {}, BrandID: {} entre {} y {}: {} intervalos",
+                    productId, brandId, from, to, segments.size());
+            return segments;
+        } finally {
+            priceMetrics.record(Method.GET_PRICE_TIMELINE, start);
+        }
+    }
+
+    /**
+     * Resuelve el precio efectivo de un lote de consultas (producto, marca, fecha) en una única pasada
+     * sobre el índice: la línea temporal de cada par se obtiene una sola vez aunque se repita en el lote.
+     *
+     * Las consultas sin precio o con datos inválidos no interrumpen el lote, sino que se informan
+     * en su propio resultado con el estado correspondiente.
+     *
+     * @param requests Las consultas a resolver.
+     * @return Los resultados, en el mismo orden que las consultas.
+     * @throws InvalidPriceRequestException si el lote está vacío o supera el tamaño máximo permitido.
+     */
+    public List<PriceResolveResult> resolvePrices(List<PriceResolveRequest> requests) {
+        checkResolveBatch(requests);
+        List<PriceResolveResult> results = new ArrayList<>(requests.size());
+        resolvePrices(requests, results::add);
+        return results;
+    }
+
+    /**
+     * Como {@link #resolvePrices(List)}, pero entrega cada resultado al consumidor en cuanto se resuelve,
+     * en el orden de las consultas, sin acumular la lista de resultados. El lote no se valida aquí: quien
+     * llama lo comprueba antes con {@link #checkResolveBatch}, por ejemplo para responder un 400 antes de
+     * empezar a escribir los resultados.
+     */
+    public void resolvePrices(List<PriceResolveRequest> requests, Consumer<PriceResolveResult> consumer) {
+        long start = System.nanoTime();
+        try {
+            if (logSampler.sample()) {
+                log.atInfo()
+                        .addKeyValue("requests", requests.size())
+                        .addKeyValue("sampleRate", logSampler.rate())
+                        .log("Resolviendo lote de consultas de precio");
+            }
+
+            Map<Long, PriceTimeline> timelines = new HashMap<>();
+            for (PriceResolveRequest request : requests) {
+                consumer.accept(resolve(request, timelines));
+            }
+        } finally {
+            priceMetrics.record(Method.RESOLVE_PRICES, start);
+        }
+    }
+
+    /**
+     * Comprueba que el lote no está vacío ni supera {@code price.resolve.max-items}, para rechazarlo antes
+     * de empezar a escribir la respuesta.
+     *
+     * @throws InvalidPriceRequestException si el lote está vacío o supera el tamaño máximo permitido.
+     */
+    public void checkResolveBatch(List<PriceResolveRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidPriceRequestException("El lote de consultas no puede estar vacío.");
+        }
+        if (requests.size() > maxResolveItems) {
+            throw new InvalidPriceRequestException("El lote de consultas no puede superar " + maxResolveItems + " elementos.");
+        }
+    }
+
+    /**
+     * Devuelve las estadísticas de aciertos y fallos de la caché de precios.
+     *
+     * @return Las estadísticas acumuladas desde el arranque.
+     */
+    public PriceCacheStats getCacheStats() {
+        CacheStats stats = priceIndex.stats();
+        return new PriceCacheStats(priceIndex.isEnabled(), priceIndex.size(), stats.requestCount(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.missRate(), stats.evictionCount());
     }
 
     /**
      * Crea un nuevo registro de precio en la base de datos.
      *
-     * Este método recibe un objeto {@link Price}, lo valida y lo almacena en la base de datos
-     * utilizando el repositorio de JPA. En caso de que el proceso de guardado falle, se registra
-     * un mensaje de error en los logs y se lanza una excepción personalizada.
+     * Este método recibe un objeto {@link Price}, lo valida y lo almacena en la base de datos a través de la
+     * {@link PriceWritePipeline}: las altas de un mismo (producto, marca) se serializan en su partición y se
+     * agrupan con las de otros pares en una sola transacción, mientras que las de pares de otras particiones
+     * se escriben en paralelo. La unicidad de (producto, marca, fecha de inicio) la garantiza además la
+     * restricción uk_price_product_brand_start, de modo que dos altas concurrentes del mismo precio
+     * no pueden colarse entre una comprobación previa y la inserción. Con el origen columnar también se
+     * rechazan los precios que ya están en la instantánea, que la restricción no ve; los archivados los
+     * rechaza la cola con la misma consulta agrupada con la que comprueba la tabla price.
      *
      * @param price El objeto {@link Price} que contiene los detalles del nuevo precio.
      * @return El objeto {@link Price} almacenado en la base de datos con su ID generado.
-     * @throws InvalidPriceRequestException si ocurre un error durante el proceso de almacenamiento en la base de datos.
+     * @throws InvalidPriceRequestException si el precio ya existe o si ocurre un error durante el proceso de almacenamiento.
      */
     public Price createPrice(Price price) {
-        log.debug("Checking if price already exists for product {}, brand {}, startDate {}",
-                price.getProductId(), price.getBrandId(), price.getStartDate());
-
-        Optional<Price> existingPrice = priceRepository.findByProductIdAndBrandIdAndStartDate(
-                price.getProductId(), price.getBrandId(), price.getStartDate());
-
-        if (existingPrice.isPresent()) {
-            log.error("Price already exists for this product, brand, and date: {}", existingPrice.get());
-            throw new InvalidPriceRequestException("The price for this product, brand, and date already exists.");
+        long start = System.nanoTime();
+        if (log.isDebugEnabled()) {
+            log.debug("Saving new price for product {}, brand {}, startDate {}",
+                    price.getProductId(), price.getBrandId(), price.getStartDate());
         }
-
-        log.debug("Saving new price...");
         try {
-            Price savedPrice = priceRepository.save(price);
-            log.info("Price saved successfully: {}", savedPrice);
+            if (priceStore.containsReadOnly(price.getProductId(), price.getBrandId(), price.getStartDate())) {
+                throw duplicatePrice(price);
+            }
+            Price savedPrice = priceWritePipeline.save(price);
+            if (logSampler.sample()) {
+                // Campos sueltos en lugar del toString de la entidad: se formatean, si acaso, en el hilo del appender
+                log.atInfo()
+                        .addKeyValue("id", savedPrice.getId())
+                        .addKeyValue("productId", savedPrice.getProductId())
+                        .addKeyValue("brandId", savedPrice.getBrandId())
+                        .addKeyValue("startDate", savedPrice.getStartDate())
+                        .addKeyValue("sampleRate", logSampler.rate())
+                        .log("Price saved");
+            }
             return savedPrice;
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicatePrice(e)) {
+                throw duplicatePrice(price);
+            }
+            log.error("Error saving the price: {}", e.getMessage(), e);
+            throw new InvalidPriceRequestException("Error saving the price. Please verify the data.");
+        } catch (InvalidPriceRequestException e) {
+            throw e;
+        } catch (PriceServiceException e) {
+            log.error("Error saving the price: {}", e.getMessage());
+            throw e;
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException e) {
+            log.warn("Database unavailable while saving the price: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error saving the price: {}", e.getMessage(), e);
             throw new InvalidPriceRequestException("Error saving the price. Please verify the data.");
+        } finally {
+            priceMetrics.record(Method.CREATE_PRICE, start);
+        }
+    }
+
+    private PriceResolveResult resolve(PriceResolveRequest request, Map<Long, PriceTimeline> timelines) {
+        Integer productId = request.getProductId();
+        Integer brandId = request.getBrandId();
+        if (productId == null || productId < 1 || brandId == null || brandId < 1 || request.getDate() == null) {
+            return new PriceResolveResult(productId, brandId, request.getDate(), PriceResolveResult.Status.INVALID, null,
+                    "El producto, la marca y la fecha son obligatorios y los IDs deben ser mayores que 0.");
+        }
+
+        LocalDateTime dateTime;
+        try {
+            dateTime = dateParser.parse(request.getDate());
+        } catch (DateTimeParseException e) {
+            priceMetrics.increment(Operation.RESOLVE, Outcome.INVALID_DATE);
+            return new PriceResolveResult(productId, brandId, request.getDate(), PriceResolveResult.Status.INVALID, null,
+                    "Formato de fecha inválido. Por favor, usa el formato ISO 8601: YYYY-MM-DDTHH:MM:SS");
+        }
+
+        PriceTimeline timeline = timelines.computeIfAbsent(PriceIndex.key(productId, brandId),
+                key -> priceIndex.findTimeline(productId, brandId));
+        // Las fechas que cubre el archivo se resuelven con sus precios archivados, fuera de la línea temporal compartida
+        PriceView price = priceIndex.isHistorical(dateTime)
+                ? priceIndex.findEffectivePrice(productId, brandId, dateTime).orElse(null)
+                : timeline.effectiveAt(dateTime);
+        if (price == null) {
+            priceMetrics.increment(Operation.RESOLVE, Outcome.NOT_FOUND);
+            return new PriceResolveResult(productId, brandId, request.getDate(), PriceResolveResult.Status.NOT_FOUND, null,
+                    "No se encontraron precios para el producto, marca y fecha proporcionados.");
+        }
+        return new PriceResolveResult(productId, brandId, request.getDate(), PriceResolveResult.Status.FOUND, price, null);
+    }
+
+    /**
+     * Un precio inexistente es una respuesta esperada: se cuenta en las métricas y solo se registra en DEBUG,
+     * para no formatear ni escribir una línea de log por cada consulta de un par sin precios.
+     */
+    private void notFound(Integer productId, Integer brandId, String date) {
+        priceMetrics.increment(Operation.QUERY, Outcome.NOT_FOUND);
+        if (log.isDebugEnabled()) {
+            log.debug("No se encontraron precios para ProductID: {}, BrandID: {}, Fecha: {}", productId, brandId, date);
+        }
+    }
+
+    private InvalidPriceRequestException duplicatePrice(Price price) {
+        priceMetrics.increment(Operation.CREATE, Outcome.DUPLICATE);
+        log.atWarn()
+                .addKeyValue("productId", price.getProductId())
+                .addKeyValue("brandId", price.getBrandId())
+                .addKeyValue("startDate", price.getStartDate())
+                .log("Price already exists for this product, brand, and date");
+        return new InvalidPriceRequestException("The price for this product, brand, and date already exists.");
+    }
+
+    static boolean isDuplicatePrice(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains(UNIQUE_PRICE_CONSTRAINT);
+    }
+
+    private LocalDateTime parseDate(String date, Operation operation) {
+        try {
+            return dateParser.parse(date);
+        } catch (DateTimeParseException e) {
+            priceMetrics.increment(operation, Outcome.INVALID_DATE);
+            // Error del cliente, ya contado en las métricas: sin traza y solo en DEBUG
+            if (log.isDebugEnabled()) {
+                log.debug("Error en el formato de la fecha: {}", date);
+            }
+            throw new InvalidPriceRequestException("Formato de fecha inválido. Por favor, usa el formato ISO 8601: YYYY-MM-DDTHH:MM:SS");
         }
     }
 }
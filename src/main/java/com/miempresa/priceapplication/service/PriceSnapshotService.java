@@ -0,0 +1,103 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import com.miempresa.priceapplication.model.PriceSnapshotReport;
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceSnapshot;
+import com.miempresa.priceapplication.repository.PriceStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de instantáneas columnares del catálogo de precios ({@link PriceSnapshot}).
+ *
+ * La instantánea se escribe en {@code price.store.snapshot} recorriendo en orden el {@link PriceStore} y el
+ * {@link PriceArchive}, sin cargar los precios en memoria. Una instancia arrancada con
+ * {@code price.store.type=columnar} la usa para servir el catálogo completo, con su histórico, sin cargarlo
+ * en el heap.
+ *
+ * Con {@code price.store.snapshot-interval} mayor que cero la instantánea se reescribe periódicamente
+ * en segundo plano, de modo que las instancias nuevas arrancan con un catálogo reciente.
+ */
+@Service
+@Slf4j
+public class PriceSnapshotService {
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Value("${price.store.snapshot:prices.snapshot}")
+    private String snapshotPath;
+
+    @Value("${price.store.snapshot-interval:0s}")
+    private Duration snapshotInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("price-snapshot").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::writeScheduledSnapshot, snapshotInterval.toMillis(),
+                snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Instantánea de precios programada cada {} en {}", snapshotInterval, Path.of(snapshotPath).toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Escribe una instantánea con todos los precios, también los archivados, y la publica de forma atómica.
+     *
+     * @return El informe con el número de precios y pares, el tamaño del fichero y el tiempo empleado.
+     * @throws PriceServiceException si la instantánea no se puede escribir.
+     */
+    public synchronized PriceSnapshotReport writeSnapshot() {
+        long start = System.nanoTime();
+        Path path = Path.of(snapshotPath).toAbsolutePath();
+        PriceSnapshot snapshot;
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            priceArchive.forEachOrdered(priceStore, writer::add);
+            snapshot = writer.finish();
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            log.error("Error escribiendo la instantánea de precios {}: {}", path, e.getMessage(), e);
+            throw new PriceServiceException("Error escribiendo la instantánea de precios: " + e.getMessage());
+        }
+        priceStore.snapshotWritten(snapshot);
+
+        PriceSnapshotReport report = new PriceSnapshotReport(path.toString(), snapshot.size(), snapshot.keyCount(),
+                snapshot.bytes(), (System.nanoTime() - start) / 1_000_000);
+        log.info("Instantánea de precios escrita en {}: {} precios de {} pares, {} bytes en {} ms",
+                report.getPath(), report.getRows(), report.getKeys(), report.getBytes(), report.getElapsedMillis());
+        return report;
+    }
+
+    private void writeScheduledSnapshot() {
+        try {
+            writeSnapshot();
+        } catch (RuntimeException e) {
+            log.warn("La instantánea programada no se pudo escribir; se reintentará en {}", snapshotInterval);
+        }
+    }
+}
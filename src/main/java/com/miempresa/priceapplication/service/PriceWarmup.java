@@ -0,0 +1,197 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Calentamiento al arrancar ({@code price.warmup.enabled=true}, perfil {@code warm}).
+ *
+ * Se ejecuta como {@link ApplicationRunner}, antes de que Spring Boot marque la aplicación como lista
+ * ({@code /actuator/health/readiness}), en dos fases:
+ * <ol>
+ *     <li>Precarga en {@link PriceIndex} las líneas temporales de los primeros {@code price.warmup.preload-keys}
+ *     pares del {@link PriceStore}, con una consulta por bloque de pares.</li>
+ *     <li>Consulta los precios aplicables de esos pares en rondas de {@code price.warmup.round-size} consultas
+ *     hasta que el JIT ha compilado la ruta: el coste por consulta de {@code price.warmup.stable-rounds} rondas
+ *     seguidas no varía más de {@code price.warmup.tolerance}, o se agota {@code price.warmup.max-duration}.</li>
+ * </ol>
+ *
+ * Con servidor web las consultas son peticiones {@code GET /api/prices} a la propia instancia, de modo que se
+ * compila también la ruta de Tomcat o Netty, el controlador y Jackson, que pesa más que el servicio en la primera
+ * petición. Sin servidor web se llama directamente a {@link PriceService#findApplicablePrices}.
+ *
+ * Las duraciones se publican en {@code price.startup} (etiqueta {@code phase}) y la latencia estable alcanzada en
+ * {@code price.warmup.latency}. Las consultas de calentamiento también cuentan en {@code price.service}.
+ */
+@Component
+@ConditionalOnProperty(name = "price.warmup.enabled", havingValue = "true")
+@Slf4j
+public class PriceWarmup implements ApplicationRunner {
+
+    @Autowired
+    private PriceStore priceStore;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${price.warmup.preload-keys:10000}")
+    private int preloadKeys;
+
+    @Value("${price.warmup.round-size:1000}")
+    private int roundSize;
+
+    @Value("${price.warmup.stable-rounds:3}")
+    private int stableRounds;
+
+    @Value("${price.warmup.tolerance:0.1}")
+    private double tolerance;
+
+    @Value("${price.warmup.max-duration:30s}")
+    private Duration maxDuration;
+
+    private volatile Report report;
+
+    /**
+     * Resultado del calentamiento. Los tiempos {@code contextMillis} y {@code readyMillis} se miden desde el
+     * arranque de la JVM.
+     */
+    public record Report(long contextMillis, int preloadedKeys, long preloadMillis, long warmupCalls,
+                         long warmupMillis, double steadyMicros, boolean converged, long readyMillis) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long contextMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        long start = System.nanoTime();
+        List<Long> keys = priceStore.keys(preloadKeys);
+        List<Query> queries = preload(keys);
+        long preloadMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        long calls = 0;
+        double previous = 0;
+        double current = 0;
+        int stable = 0;
+        long deadline = start + maxDuration.toNanos();
+        int position = 0;
+        String port = environment.getProperty("local.server.port");
+        HttpClient client = port != null ? HttpClient.newHttpClient() : null;
+        while (!queries.isEmpty() && stable < stableRounds && System.nanoTime() < deadline) {
+            long roundStart = System.nanoTime();
+            for (int i = 0; i < roundSize; i++) {
+                Query query = queries.get(position);
+                position = position + 1 == queries.size() ? 0 : position + 1;
+                if (client != null) {
+                    request(client, port, query);
+                } else {
+                    query(query);
+                }
+            }
+            calls += roundSize;
+            current = (System.nanoTime() - roundStart) / 1_000.0 / roundSize;
+            stable = previous > 0 && Math.abs(current - previous) <= tolerance * previous ? stable + 1 : 0;
+            previous = current;
+        }
+        long warmupMillis = (System.nanoTime() - start) / 1_000_000;
+
+        report = new Report(contextMillis, keys.size(), preloadMillis, calls,
+                warmupMillis, current, stable >= stableRounds, ManagementFactory.getRuntimeMXBean().getUptime());
+        registerMetrics();
+        log.info("Calentamiento terminado: contexto en {} ms, {} pares precargados en {} ms, {} consultas en {} ms "
+                        + "({} a {} µs por consulta), lista a los {} ms del arranque de la JVM",
+                report.contextMillis(), report.preloadedKeys(), report.preloadMillis(), report.warmupCalls(),
+                report.warmupMillis(), report.converged() ? "estable" : "sin estabilizar",
+                String.format("%.2f", report.steadyMicros()), report.readyMillis());
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    /**
+     * Carga las líneas temporales de los primeros pares y prepara una consulta por cada precio: en su
+     * fecha de inicio, que siempre tiene al menos un precio aplicable.
+     */
+    private List<Query> preload(List<Long> keys) {
+        priceIndex.preload(keys);
+        List<Query> queries = new ArrayList<>();
+        for (long key : keys) {
+            int productId = (int) (key >>> 32);
+            int brandId = (int) key;
+            for (PriceView price : priceIndex.findTimeline(productId, brandId).getPrices()) {
+                queries.add(new Query(productId, brandId, price.startDate().toString()));
+            }
+        }
+        return queries;
+    }
+
+    private void query(Query query) {
+        // Un par sin precio en esa fecha también recorre la ruta que se quiere compilar
+        priceService.findApplicablePrices(query.productId(), query.brandId(), query.date());
+    }
+
+    private static void request(HttpClient client, String port, Query query) {
+        URI uri = URI.create("http://localhost:" + port + "/api/prices?productId=" + query.productId()
+                + "&brandId=" + query.brandId() + "&date=" + query.date());
+        try {
+            client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            log.debug("Petición de calentamiento fallida: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void registerMetrics() {
+        registerPhase("context", Report::contextMillis);
+        registerPhase("preload", Report::preloadMillis);
+        registerPhase("warmup", Report::warmupMillis);
+        registerPhase("ready", Report::readyMillis);
+        TimeGauge.builder("price.warmup.latency", report, TimeUnit.MICROSECONDS, Report::steadyMicros)
+                .description("Coste por consulta de precios aplicables al terminar el calentamiento")
+                .register(meterRegistry);
+    }
+
+    private void registerPhase(String phase, ToLongFunction<Report> millis) {
+        TimeGauge.builder("price.startup", report, TimeUnit.MILLISECONDS, millis::applyAsLong)
+                .description("Duración de cada fase del arranque; context y ready, desde el arranque de la JVM")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    private record Query(int productId, int brandId, String date) {
+    }
+}
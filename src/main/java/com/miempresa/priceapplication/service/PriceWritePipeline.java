@@ -0,0 +1,340 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cola de escritura de las altas de precios, repartida en {@code price.write.shards} particiones por
+ * (producto, marca).
+ *
+ * Cada partición tiene su propia cola y un único hilo escritor, de modo que:
+ * <ul>
+ *     <li>las altas de un mismo par se serializan siempre en la misma partición y las de pares distintos
+ *     avanzan en paralelo en particiones distintas;</li>
+ *     <li>el escritor agrupa lo que se ha acumulado en su cola, hasta {@code price.write.max-batch} altas,
+ *     en una sola transacción con una consulta de existencia en la tabla price y otra en price_archive y
+ *     una inserción JDBC por lotes, en lugar de una transacción por alta;</li>
+ *     <li>las altas repetidas dentro del mismo grupo se resuelven en memoria: gana la primera y el resto se
+ *     rechaza como duplicada sin llegar a la base de datos.</li>
+ * </ul>
+ *
+ * La restricción uk_price_product_brand_start sigue siendo la garantía final frente a otras instancias o a
+ * la importación masiva: si el grupo choca con ella, se revierte y cada alta se reintenta por separado para
+ * atribuir el error a la que corresponde. Si la cola de la partición está llena durante más de
+ * {@code price.write.enqueue-timeout}, el alta se rechaza con {@link DataAccessResourceFailureException} (503).
+ * Quien espera la confirmación lo hace como mucho {@code price.write.timeout}: si el escritor se bloquea,
+ * el alta termina con {@link PriceServiceException} (500) en lugar de retener el hilo de la petición, aunque
+ * todavía pueda escribirse después.
+ *
+ * Publica {@code price.write.pending} (altas encoladas) y {@code price.write.batch} (altas por transacción).
+ */
+@Component
+@Slf4j
+public class PriceWritePipeline {
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${price.write.shards:4}")
+    private int shardCount;
+
+    @Value("${price.write.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${price.write.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${price.write.enqueue-timeout:1s}")
+    private Duration enqueueTimeout;
+
+    @Value("${price.write.timeout:30s}")
+    private Duration writeTimeout;
+
+    private Shard[] shards;
+
+    private DistributionSummary batchSizes;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        if (shardCount < 1 || maxBatch < 1 || queueCapacity < 1) {
+            throw new IllegalStateException("price.write.shards, price.write.max-batch y price.write.queue-capacity deben ser mayores que 0");
+        }
+        batchSizes = DistributionSummary.builder("price.write.batch")
+                .description("Altas de precios confirmadas en cada transacción de la cola de escritura")
+                .register(meterRegistry);
+        Gauge.builder("price.write.pending", this, PriceWritePipeline::pending)
+                .description("Altas de precios encoladas pendientes de escribir")
+                .register(meterRegistry);
+
+        running = true;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(new ArrayBlockingQueue<>(queueCapacity));
+            shards[i].thread = Thread.ofPlatform().name("price-writer-" + i).daemon().start(shards[i]);
+        }
+    }
+
+    /**
+     * Deja de aceptar altas y espera a que cada escritor vacíe su cola.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Encola el alta en la partición de su par y espera a que se confirme.
+     *
+     * @param price El precio a guardar.
+     * @return El precio guardado, con su ID.
+     * @throws DuplicateKeyException si ya existe un precio con el mismo producto, marca y fecha de inicio.
+     * @throws DataAccessResourceFailureException si la cola de la partición sigue llena tras la espera máxima.
+     * @throws PriceServiceException si el alta no se confirma en {@code price.write.timeout}.
+     */
+    public Price save(Price price) {
+        Write write = new Write(price);
+        Shard shard = shardOf(price);
+        try {
+            if (!running || !shard.queue.offer(write, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DataAccessResourceFailureException("La cola de escritura de precios está llena");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Alta de precio interrumpida antes de encolarse", e);
+        }
+        try {
+            return write.result.get(writeTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new PriceServiceException("El alta de precio no se ha confirmado en " + writeTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PriceServiceException("Alta de precio interrumpida antes de confirmarse");
+        }
+    }
+
+    /**
+     * Número de altas encoladas en todas las particiones.
+     */
+    public int pending() {
+        int pending = 0;
+        for (Shard shard : shards) {
+            pending += shard.queue.size();
+        }
+        return pending;
+    }
+
+    private Shard shardOf(Price price) {
+        long key = price.getProductId() != null && price.getBrandId() != null
+                ? PriceIndex.key(price.getProductId(), price.getBrandId())
+                : 0;
+        // Mezcla los bits del producto y la marca para que productos consecutivos no caigan siempre juntos
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(mixed >>> 32, (long) shards.length)];
+    }
+
+    /**
+     * Escribe un grupo de altas de la misma partición.
+     */
+    private void process(List<Write> batch) {
+        Map<PriceKey, Write> candidates = new LinkedHashMap<>();
+        for (Write write : batch) {
+            if (candidates.putIfAbsent(PriceKey.of(write.price), write) != null) {
+                write.result.completeExceptionally(duplicate(write.price));
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertNew(candidates));
+        } catch (RuntimeException e) {
+            if (candidates.size() == 1) {
+                candidates.values().forEach(write -> write.result.completeExceptionally(e));
+                return;
+            }
+            // Otra instancia o una importación insertó alguna de las claves tras la consulta de existencia,
+            // o un alta del grupo es inválida: se reintenta cada una en su propia transacción
+            log.debug("Grupo de {} altas revertido, se reintentan por separado: {}", candidates.size(), e.getMessage());
+            for (Map.Entry<PriceKey, Write> candidate : candidates.entrySet()) {
+                Write write = candidate.getValue();
+                write.price.setId(write.requestedId);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertNew(Map.of(candidate.getKey(), write)));
+                    if (write.saved != null) {
+                        write.result.complete(write.saved);
+                    } else {
+                        write.result.completeExceptionally(duplicate(write.price));
+                    }
+                } catch (RuntimeException single) {
+                    write.result.completeExceptionally(single);
+                }
+            }
+            return;
+        }
+
+        int inserted = 0;
+        for (Write write : candidates.values()) {
+            if (write.saved != null) {
+                inserted++;
+                write.result.complete(write.saved);
+            } else {
+                write.result.completeExceptionally(duplicate(write.price));
+            }
+        }
+        batchSizes.record(inserted);
+    }
+
+    /**
+     * Inserta los candidatos que no existen todavía, ni en la tabla price ni archivados; los existentes quedan
+     * sin {@code saved}. Cada capa se comprueba con una sola consulta para todo el grupo.
+     */
+    private void insertNew(Map<PriceKey, Write> candidates) {
+        Set<Integer> productIds = new HashSet<>();
+        Set<Integer> brandIds = new HashSet<>();
+        Set<LocalDateTime> startDates = new HashSet<>();
+        for (PriceKey key : candidates.keySet()) {
+            if (key.isComplete()) {
+                productIds.add(key.productId());
+                brandIds.add(key.brandId());
+                startDates.add(key.startDate());
+            }
+        }
+        Set<PriceKey> existing = new HashSet<>();
+        if (!productIds.isEmpty()) {
+            for (Object[] row : priceRepository.findExistingKeys(productIds, brandIds, startDates)) {
+                existing.add(new PriceKey((Integer) row[0], (Integer) row[1], (LocalDateTime) row[2]));
+            }
+            for (Object[] row : priceArchive.findExistingKeys(productIds, brandIds, startDates)) {
+                existing.add(new PriceKey((Integer) row[0], (Integer) row[1], (LocalDateTime) row[2]));
+            }
+        }
+
+        List<Write> inserted = new ArrayList<>(candidates.size());
+        for (Map.Entry<PriceKey, Write> candidate : candidates.entrySet()) {
+            Write write = candidate.getValue();
+            write.saved = null;
+            if (!existing.contains(candidate.getKey())) {
+                write.saved = priceRepository.save(write.price);
+                inserted.add(write);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            priceRepository.flush();
+        }
+    }
+
+    private static DuplicateKeyException duplicate(Price price) {
+        return new DuplicateKeyException("Ya existe un precio para el producto " + price.getProductId()
+                + ", la marca " + price.getBrandId() + " y la fecha " + price.getStartDate());
+    }
+
+    private final class Shard implements Runnable {
+
+        private final BlockingQueue<Write> queue;
+
+        private Thread thread;
+
+        private Shard(BlockingQueue<Write> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            List<Write> batch = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Write first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en la cola de escritura de precios: {}", e.getMessage(), e);
+                    batch.forEach(write -> write.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private static final class Write {
+
+        private final Price price;
+
+        private final Long requestedId;
+
+        private final CompletableFuture<Price> result = new CompletableFuture<>();
+
+        private Price saved;
+
+        private Write(Price price) {
+            this.price = price;
+            this.requestedId = price.getId();
+        }
+    }
+
+    private record PriceKey(Integer productId, Integer brandId, LocalDateTime startDate) {
+
+        static PriceKey of(Price price) {
+            return new PriceKey(price.getProductId(), price.getBrandId(), price.getStartDate());
+        }
+
+        boolean isComplete() {
+            return productId != null && brandId != null && startDate != null;
+        }
+    }
+}
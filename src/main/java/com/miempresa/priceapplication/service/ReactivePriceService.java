@@ -0,0 +1,301 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceCacheStats;
+import com.miempresa.priceapplication.model.PriceChange;
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.model.PriceResolveRequest;
+import com.miempresa.priceapplication.model.PriceResolveResult;
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceSnapshotReport;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceChangeLog;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceKeyRange;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Adaptador reactivo de {@link PriceService}, {@link PriceImportService}, {@link PriceExportService},
+ * {@link PriceSnapshotService}, {@link PriceArchiveService} y {@link PriceChangeFeed} para el modo WebFlux.
+ *
+ * Las consultas sobre un par (producto, marca) que ya está en el índice en memoria se resuelven en el
+ * propio hilo del bucle de eventos, sin bloquear. Todo lo que puede acabar en la base de datos (un fallo de caché, la
+ * caché desactivada, las fechas archivadas, las altas, los lotes, las importaciones, las exportaciones, las instantáneas
+ * y el archivado) se ejecuta en {@code Schedulers.boundedElastic()},
+ * de modo que el bucle de eventos nunca espera a la base de datos.
+ *
+ * Las consultas pasan por {@link PriceConcurrencyLimiter}, igual que en el modo servlet: por encima del límite
+ * se rechazan con un 503 en lugar de encolarse en boundedElastic.
+ *
+ * Los flujos de cambios no ocupan ningún hilo mientras esperan: el {@link PriceChangeLog} avisa de cada cambio
+ * publicado y cada suscriptor lee entonces lo disponible sin esperar, de modo que no compiten con las consultas
+ * y las altas por los hilos de boundedElastic.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactivePriceService {
+
+    private static final int PIPE_SIZE = 64 * 1024;
+
+    private final IsoDateTimeParser dateParser = new IsoDateTimeParser(1024);
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceImportService priceImportService;
+
+    @Autowired
+    private PriceExportService priceExportService;
+
+    @Autowired
+    private PriceSnapshotService priceSnapshotService;
+
+    @Autowired
+    private PriceArchiveService priceArchiveService;
+
+    @Autowired
+    private PriceChangeFeed priceChangeFeed;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private PriceConcurrencyLimiter limiter;
+
+    @Autowired
+    private PriceChangeLog priceChangeLog;
+
+    /** Aviso de cambios publicados para los flujos de cambios; se pierde si un suscriptor no da abasto, sin efecto. */
+    private final Sinks.Many<Boolean> changesPublished = Sinks.many().multicast().directBestEffort();
+
+    @PostConstruct
+    public void init() {
+        priceChangeLog.addListener(() -> {
+            // Las transacciones se confirman en varios hilos y el sink solo admite emisiones de una en una
+            synchronized (changesPublished) {
+                changesPublished.tryEmitNext(Boolean.FALSE);
+            }
+        });
+    }
+
+    /**
+     * Etiqueta del contenido del par ({@link PriceService#getPriceTag}); se lee en memoria, sin bloquear.
+     */
+    public String getPriceTag(Integer productId, Integer brandId) {
+        return priceService.getPriceTag(productId, brandId);
+    }
+
+    /**
+     * Precios aplicables en la fecha; una lista vacía si no hay ninguno, sin lanzar PriceNotFoundException.
+     */
+    public Mono<List<PriceView>> findApplicablePrices(Integer productId, Integer brandId, String date) {
+        return lookup(productId, brandId, date, () -> priceService.findApplicablePrices(productId, brandId, date));
+    }
+
+    /**
+     * Precio efectivo en la fecha; vacío si ningún precio la cubre, sin lanzar PriceNotFoundException.
+     */
+    public Mono<PriceView> findEffectivePrice(Integer productId, Integer brandId, String date) {
+        return lookup(productId, brandId, date, () -> priceService.findEffectivePrice(productId, brandId, date))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    public Flux<PriceSegment> getPriceTimeline(Integer productId, Integer brandId, String from, String to) {
+        return lookup(productId, brandId, from, () -> priceService.getPriceTimeline(productId, brandId, from, to))
+                .flatMapIterable(segments -> segments);
+    }
+
+    public Flux<PriceResolveResult> resolvePrices(List<PriceResolveRequest> requests) {
+        return limited(blocking(() -> priceService.resolvePrices(requests))).flatMapIterable(results -> results);
+    }
+
+    public Mono<Price> createPrice(Price price) {
+        return blocking(() -> priceService.createPrice(price));
+    }
+
+    public Mono<PriceCacheStats> getCacheStats() {
+        return Mono.fromSupplier(priceService::getCacheStats);
+    }
+
+    public Mono<PriceImportReport> importNdjson(Flux<DataBuffer> body, Integer chunkSize) {
+        return importStream(body, input -> priceImportService.importNdjson(input, chunkSize));
+    }
+
+    public Mono<PriceImportReport> importCsv(Flux<DataBuffer> body, Integer chunkSize) {
+        return importStream(body, input -> priceImportService.importCsv(input, chunkSize));
+    }
+
+    public Mono<Optional<PriceKeyRange>> exportRange(Integer productIdFrom, Integer productIdTo, Integer brandIdFrom,
+                                                     Integer brandIdTo, Integer partition, Integer partitions) {
+        return blocking(() -> priceExportService.resolveRange(productIdFrom, productIdTo, brandIdFrom, brandIdTo,
+                partition, partitions));
+    }
+
+    /**
+     * Exporta el rango mediante una tubería: un hilo escribe la exportación, que usa un OutputStream, y otro
+     * la lee en buffers a medida que el cliente los consume. Si el cliente se desconecta, la tubería se cierra
+     * y la exportación termina al fallar su siguiente escritura. Un error de la exportación se anota antes de
+     * cerrar la tubería, de modo que el lector lo encuentra al llegar al final y el flujo falla en lugar de
+     * terminar con un cuerpo truncado.
+     */
+    public Flux<DataBuffer> export(Optional<PriceKeyRange> range, PriceExportService.Format format) {
+        return Flux.defer(() -> {
+            PipedOutputStream output = new PipedOutputStream();
+            PipedInputStream input;
+            try {
+                input = new PipedInputStream(output, PIPE_SIZE);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    priceExportService.export(range, format, output);
+                } catch (IOException e) {
+                    log.debug("Exportación interrumpida al escribir en la tubería: {}", e.getMessage());
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                } finally {
+                    close(output);
+                }
+            });
+            return DataBufferUtils.readInputStream(() -> input, DefaultDataBufferFactory.sharedInstance, PIPE_SIZE)
+                    .concatWith(Mono.defer(() -> failure.get() != null ? Mono.error(failure.get()) : Mono.empty()))
+                    .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    public Mono<PriceSnapshotReport> writeSnapshot() {
+        return blocking(priceSnapshotService::writeSnapshot);
+    }
+
+    public Mono<PriceArchiveReport> archive() {
+        return blocking(priceArchiveService::archive);
+    }
+
+    public Mono<PriceChangeFeed.Cursor> openChanges(Long after, Integer batchSize) {
+        return Mono.fromCallable(() -> priceChangeFeed.open(after, batchSize));
+    }
+
+    /**
+     * Lotes de cambios desde el cursor. Siguiendo el registro, el cursor se lee sin esperar al suscribirse, con
+     * cada aviso de cambios publicados y en cada latido; un latido sin cambios produce un lote vacío. El flujo
+     * termina al cumplirse {@code price.changes.max-stream-duration}.
+     */
+    public Flux<List<PriceChange>> changes(PriceChangeFeed.Cursor cursor, boolean follow) {
+        if (!follow) {
+            return Mono.fromCallable(cursor::poll).flux();
+        }
+        return Flux.defer(() -> Flux.merge(
+                        Mono.just(Boolean.FALSE),
+                        changesPublished.asFlux().onBackpressureLatest(),
+                        Flux.interval(priceChangeFeed.heartbeat()).map(tick -> Boolean.TRUE).onBackpressureDrop())
+                // Fuera del hilo que confirma la transacción; concatMap lee el cursor de un aviso en otro
+                .publishOn(Schedulers.parallel())
+                .concatMap(heartbeat -> drain(cursor, heartbeat))
+                .take(cursor.remaining()));
+    }
+
+    /**
+     * Lee del cursor lotes disponibles hasta agotarlos. Si no hay ninguno y es un latido, emite un lote vacío.
+     */
+    private static Flux<List<PriceChange>> drain(PriceChangeFeed.Cursor cursor, boolean heartbeat) {
+        return Flux.generate(() -> heartbeat, (emptyAllowed, sink) -> {
+            List<PriceChange> changes = cursor.poll();
+            if (!changes.isEmpty() || emptyAllowed) {
+                sink.next(changes);
+            }
+            if (changes.isEmpty()) {
+                sink.complete();
+            }
+            return Boolean.FALSE;
+        });
+    }
+
+    private <T> Mono<T> lookup(Integer productId, Integer brandId, String date, Callable<T> query) {
+        return limited(priceIndex.isCached(productId, brandId) && !isHistorical(date) ? Mono.fromCallable(query) : blocking(query));
+    }
+
+    /**
+     * Indica si la fecha puede necesitar el archivo, que se consulta en la base de datos. Una fecha inválida
+     * no llega a ninguna consulta: la rechaza el propio {@link PriceService}.
+     */
+    private boolean isHistorical(String date) {
+        try {
+            return date != null && priceIndex.isHistorical(dateParser.parse(date));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Admite la consulta en el límite de concurrencia al suscribirse y la libera al terminar o cancelarse.
+     */
+    private <T> Mono<T> limited(Mono<T> query) {
+        return Mono.defer(() -> {
+            long admittedAt = limiter.acquire();
+            return query
+                    .doOnSuccess(value -> limiter.release(admittedAt, false))
+                    .doOnError(error -> limiter.release(admittedAt, error instanceof CannotCreateTransactionException
+                            || error instanceof DataAccessResourceFailureException))
+                    .doOnCancel(() -> limiter.release(admittedAt, false));
+        });
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> task) {
+        return Mono.fromCallable(task).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Conecta el cuerpo de la petición con la importación, que lee un InputStream, mediante una tubería:
+     * un hilo escribe los buffers a medida que llegan y otro importa, sin cargar el fichero completo en memoria.
+     */
+    private Mono<PriceImportReport> importStream(Flux<DataBuffer> body, Function<InputStream, PriceImportReport> importer) {
+        return blocking(() -> {
+            PipedOutputStream output = new PipedOutputStream();
+            PipedInputStream input = new PipedInputStream(output, PIPE_SIZE);
+            DataBufferUtils.write(body.publishOn(Schedulers.boundedElastic()), output)
+                    .doFinally(signal -> close(output))
+                    .subscribe(DataBufferUtils.releaseConsumer(),
+                            error -> log.debug("Importación interrumpida al escribir en la tubería: {}", error.getMessage()));
+            try (input) {
+                return importer.apply(input);
+            }
+        });
+    }
+
+    private static void close(PipedOutputStream output) {
+        try {
+            output.close();
+        } catch (IOException e) {
+            log.debug("Error cerrando la tubería: {}", e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,40 @@
+CREATE SEQUENCE price_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE price (
-                       id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                       brand_id INT,
-                       start_date TIMESTAMP,
-                       end_date TIMESTAMP,
-                       price_list INT,
-                       product_id INT,
-                       priority INT,
-                       price DECIMAL(10, 2),
-                       currency VARCHAR(3)
-);
\ No newline at end of file
+                       id BIGINT DEFAULT NEXT VALUE FOR price_seq PRIMARY KEY,
+                       brand_id INT NOT NULL,
+                       start_date TIMESTAMP NOT NULL,
+                       end_date TIMESTAMP NOT NULL,
+                       price_list INT NOT NULL,
+                       product_id INT NOT NULL,
+                       priority INT NOT NULL,
+                       price DECIMAL(10, 2) NOT NULL,
+                       currency VARCHAR(3) NOT NULL,
+                       CONSTRAINT uk_price_product_brand_start UNIQUE (product_id, brand_id, start_date)
+);
+
+-- El índice de uk_price_product_brand_start (product_id, brand_id, start_date) sirve a las dos consultas de
+-- PriceRepository: igualdad sobre start_date en findByProductIdAndBrandIdAndStartDate y rango start_date <= :date
+-- en findApplicablePrices. Un índice adicional con end_date y priority no cambia el plan de H2 y solo encarece las escrituras.
+
+-- Índice de PriceArchive.moveExpired: cada lote de precios caducados (end_date < corte) se lee sin recorrer la tabla.
+CREATE INDEX idx_price_end_date ON price (end_date);
+
+-- Precios caducados que PriceArchiveService mueve fuera de price (price.archive.*): mismas columnas y mismo ID.
+-- Las consultas de precios solo lo leen para fechas anteriores al fin del último precio archivado, de modo que la tabla price y el
+-- índice en memoria guardan solo precios vigentes y futuros aunque el histórico crezca.
+CREATE TABLE price_archive (
+                               id BIGINT PRIMARY KEY,
+                               brand_id INT NOT NULL,
+                               start_date TIMESTAMP NOT NULL,
+                               end_date TIMESTAMP NOT NULL,
+                               price_list INT NOT NULL,
+                               product_id INT NOT NULL,
+                               priority INT NOT NULL,
+                               price DECIMAL(10, 2) NOT NULL,
+                               currency VARCHAR(3) NOT NULL,
+                               CONSTRAINT uk_price_archive_product_brand_start UNIQUE (product_id, brand_id, start_date)
+);
+
+-- Índice de PriceArchive.refreshHorizon: MAX(end_date) se lee del final del índice tras cada carga desde la tabla price.
+CREATE INDEX idx_price_archive_end_date ON price_archive (end_date);
@@ -0,0 +1,72 @@
+package com.miempresa.priceapplication.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountingAsyncAppenderTest {
+
+    @Test
+    public void countsEventsDroppedWithAFullQueue() throws InterruptedException {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        Logger logger = context.getLogger("test");
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger written = new AtomicInteger();
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.incrementAndGet();
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+        CountingAsyncAppender async = new CountingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(10);
+        async.setNeverBlock(true);
+        async.addAppender(slow);
+        async.start();
+
+        // El primer evento ocupa al hilo de Logback; los siguientes llenan la cola sin bloquear al que escribe
+        async.doAppend(event(logger, Level.INFO));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        long before = CountingAsyncAppender.droppedCount();
+        for (int i = 0; i < 20; i++) {
+            async.doAppend(event(logger, Level.INFO));
+        }
+        for (int i = 0; i < 20; i++) {
+            async.doAppend(event(logger, Level.ERROR));
+        }
+        long dropped = CountingAsyncAppender.droppedCount() - before;
+        release.countDown();
+        async.stop();
+
+        // Se conservan los INFO hasta el umbral (80 % de la cola) y los ERROR hasta llenarla
+        assertEquals(41, written.get() + dropped);
+        assertEquals(10, written.get() - 1);
+    }
+
+    private static LoggingEvent event(Logger logger, Level level) {
+        return new LoggingEvent(Logger.class.getName(), logger, level, "mensaje", null, null);
+    }
+}
@@ -89,7 +89,7 @@ public class PriceControlerIT {
                 2, // priceList (ensure unique)
                 99999, // productId (ensure unique)
                 0, // priority
-                49.99, // price
+                4999L, // price (céntimos)
                 "USD" // currency
         );
 
@@ -105,7 +105,7 @@ public class PriceControlerIT {
     // Error handling for invalid POST request (e.g., missing required fields)
     @Test
     public void whenCreatePriceWithInvalidData_thenBadRequest() throws Exception {
-        Price newPrice = new Price(null, null, null, null, 1, 35455, 0, 39.99, "EUR");
+        Price newPrice = new Price(null, null, null, null, 1, 35455, 0, 3999L, "EUR");
 
         mockMvc.perform(post("/api/prices")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -122,7 +122,7 @@ public class PriceControlerIT {
     public void whenDuplicatePrice_thenStatus400() throws Exception {
         Price duplicatePrice = new Price(null, 1, LocalDateTime.of(2020, 6, 14, 0, 0),
                 LocalDateTime.of(2020, 12, 31, 23, 59),
-                1, 35455, 0, 35.5, "EUR");
+                1, 35455, 0, 3550L, "EUR");
 
         mockMvc.perform(post("/api/prices")
                         .contentType(MediaType.APPLICATION_JSON)
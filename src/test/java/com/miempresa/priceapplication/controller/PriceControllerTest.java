@@ -1,7 +1,14 @@
 package com.miempresa.priceapplication.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.miempresa.priceapplication.exception.PriceNotFoundException;
 import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.repository.PriceChangeLog;
+import com.miempresa.priceapplication.repository.PriceIndex;
 import com.miempresa.priceapplication.repository.PriceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +16,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -26,15 +49,24 @@ public class PriceControllerTest {
     @Autowired
     private PriceRepository priceRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PriceChangeLog priceChangeLog;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
     // Inicializa datos de prueba antes de cada test
     @BeforeEach
     public void setUp() {
         priceRepository.deleteAll(); // Limpia la base de datos antes de cada test
 
-        Price price1 = new Price(1L, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 1, 35455, 0, 35.50, "EUR");
-        Price price2 = new Price(2L, 1, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 35455, 1, 25.45, "EUR");
-        Price price3 = new Price(3L, 1, LocalDateTime.of(2020, 6, 15, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0), 3, 35455, 1, 30.50, "EUR");
-        Price price4 = new Price(4L, 1, LocalDateTime.of(2020, 6, 15, 16, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 4, 35455, 1, 38.95, "EUR");
+        Price price1 = new Price(1L, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 1, 35455, 0, 3550L, "EUR");
+        Price price2 = new Price(2L, 1, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 35455, 1, 2545L, "EUR");
+        Price price3 = new Price(3L, 1, LocalDateTime.of(2020, 6, 15, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0), 3, 35455, 1, 3050L, "EUR");
+        Price price4 = new Price(4L, 1, LocalDateTime.of(2020, 6, 15, 16, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 4, 35455, 1, 3895L, "EUR");
 
         priceRepository.save(price1);
         priceRepository.save(price2);
@@ -111,4 +143,380 @@ public class PriceControllerTest {
                 .andExpect(jsonPath("$[0].brandId").value(1))
                 .andExpect(jsonPath("$[0].productId").value(35455));
     }
-}
\ No newline at end of file
+
+    // Test 6: Un precio creado con mayor prioridad se aplica inmediatamente en las consultas
+    @Test
+    public void testCreatedPriceIsApplicableImmediately() throws Exception {
+        priceRepository.save(new Price(null, 1, LocalDateTime.of(2020, 6, 14, 9, 0), LocalDateTime.of(2020, 6, 14, 11, 0), 5, 35455, 2, 1999L, "EUR"));
+
+        mockMvc.perform(get("/api/prices")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(19.99))
+                .andExpect(jsonPath("$[1].price").value(35.50));
+    }
+
+    // Test 7: El endpoint de precio efectivo devuelve solo el precio de mayor prioridad
+    @Test
+    public void testEffectivePriceAt1600OnJune14() throws Exception {
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-06-14T16:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(25.45))
+                .andExpect(jsonPath("$.priceList").value(2));
+    }
+
+    // Test 8: Sin precio efectivo para la fecha se devuelve 404
+    @Test
+    public void testEffectivePriceNotFound() throws Exception {
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2019-01-01T00:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Not Found"));
+    }
+
+    // Test 9: La resolución por lotes mantiene el orden e informa del estado de cada consulta
+    @Test
+    public void testResolvePricesInRequestOrder() throws Exception {
+        String body = "["
+                + "{\"productId\":35455,\"brandId\":1,\"date\":\"2020-06-14T16:00:00\"},"
+                + "{\"productId\":99999,\"brandId\":1,\"date\":\"2020-06-14T16:00:00\"},"
+                + "{\"productId\":35455,\"brandId\":1,\"date\":\"invalid-date\"},"
+                + "{\"productId\":35455,\"brandId\":1,\"date\":\"2020-06-16T21:00:00\"}"
+                + "]";
+
+        MvcResult result = mockMvc.perform(post("/api/prices/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("FOUND"))
+                .andExpect(jsonPath("$[0].price.price").value(25.45))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[2].status").value("INVALID"))
+                .andExpect(jsonPath("$[3].status").value("FOUND"))
+                .andExpect(jsonPath("$[3].price.price").value(38.95));
+    }
+
+    // Test 10: Un lote vacío se rechaza con 400
+    @Test
+    public void testResolveEmptyBatchIsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/prices/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Request"));
+    }
+
+    // Test 11: La importación CSV inserta las filas nuevas y descarta duplicados e inválidas por bloque
+    @Test
+    public void testImportCsvReportsPerChunkResults() throws Exception {
+        String csv = "productId,brandId,startDate,endDate,priceList,priority,price,currency\n"
+                + "35455,1,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,35.50,EUR\n"
+                + "35455,2,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,12.00,EUR\n"
+                + "35455,2,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,12.00,EUR\n"
+                + "35455,,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,12.00,EUR\n"
+                + "35456,2,2020-06-14 00:00:00,2020-12-31 23:59:00,1,0,15.00,EUR\n";
+
+        mockMvc.perform(post("/api/prices/import")
+                        .param("chunkSize", "3")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.duplicates").value(2))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.chunks.length()").value(2));
+
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-07-01T10:00:00")
+                        .param("productId", "35456")
+                        .param("brandId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(15.00));
+    }
+
+    // Test 12: Las consultas repetidas sobre el mismo producto y marca se sirven desde la caché
+    @Test
+    public void testRepeatedLookupsHitTheCache() throws Exception {
+        for (String date : new String[]{"2020-06-14T10:00:00", "2020-06-14T16:00:00", "2020-06-15T10:00:00"}) {
+            mockMvc.perform(get("/api/prices")
+                            .param("date", date)
+                            .param("productId", "35455")
+                            .param("brandId", "1"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/prices/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.hitCount").value(greaterThanOrEqualTo(2)));
+    }
+
+    // Test 13: Las consultas sin precio se cuentan y las llamadas al servicio se miden
+    @Test
+    public void testNotFoundOutcomesAreCounted() throws Exception {
+        Counter notFound = meterRegistry.get("price.outcomes").tag("operation", "query").tag("outcome", "not_found").counter();
+        double before = notFound.count();
+
+        mockMvc.perform(get("/api/prices")
+                        .param("date", "2019-01-01T10:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(before + 1, notFound.count());
+        assertTrue(meterRegistry.get("price.service").tag("method", "getApplicablePrices").timer().count() > 0);
+    }
+
+    // Test 14: Las altas se publican en el registro de cambios y se pueden leer desde cualquier secuencia
+    @Test
+    public void testChangesAfterCreate() throws Exception {
+        long sequence = priceChangeLog.lastSequence();
+        mockMvc.perform(post("/api/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brandId\":1,\"startDate\":\"2021-01-01T00:00:00\",\"endDate\":\"2021-12-31T23:59:59\","
+                                + "\"priceList\":7,\"productId\":35455,\"priority\":0,\"price\":21.0,\"currency\":\"EUR\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(get("/api/prices/changes")
+                        .param("after", String.valueOf(sequence))
+                        .param("follow", "false")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Price-Sequence", String.valueOf(sequence)))
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"sequence\":" + (sequence + 1) + ",\"type\":\"UPSERT\""));
+        assertTrue(lines[0].contains("\"priceList\":7"));
+
+        result = mockMvc.perform(get("/api/prices/changes")
+                        .param("follow", "false")
+                        .header("Last-Event-ID", String.valueOf(sequence))
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("id:" + (sequence + 1))))
+                .andExpect(content().string(containsString("event:changes")));
+    }
+
+    // Test 15: Un consumidor que pide cambios ya descartados recibe 410 para que recargue los precios
+    @Test
+    public void testExpiredChangesAreGone() throws Exception {
+        mockMvc.perform(get("/api/prices/changes")
+                        .param("after", "1")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").value("Gone"));
+    }
+
+    // Test 16: La evolución del precio en un rango se calcula en una pasada y se recorta al rango
+    @Test
+    public void testPriceTimelineForJune() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2020-06-01T00:00:00")
+                        .param("to", "2020-06-30T23:59:59"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].startDate").value("2020-06-14T00:00:00"))
+                .andExpect(jsonPath("$[0].price.price").value(35.50))
+                .andExpect(jsonPath("$[1].startDate").value("2020-06-14T15:00:00"))
+                .andExpect(jsonPath("$[1].endDate").value("2020-06-14T18:30:00"))
+                .andExpect(jsonPath("$[1].price.price").value(25.45))
+                .andExpect(jsonPath("$[5].endDate").value("2020-06-30T23:59:59"))
+                .andExpect(jsonPath("$[5].price.price").value(38.95));
+
+        mockMvc.perform(get("/api/prices/timeline")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("from", "2020-06-30T00:00:00")
+                        .param("to", "2020-06-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Request"));
+    }
+
+    // Test 17: La exportación CSV se filtra por rango de marcas y puede volver a importarse
+    @Test
+    public void testExportCsvFiltersByBrand() throws Exception {
+        priceRepository.save(new Price(null, 2, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 1, 35455, 0, 2000L, "EUR"));
+
+        MvcResult result = mockMvc.perform(get("/api/prices/export")
+                        .param("brandIdFrom", "1")
+                        .param("brandIdTo", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("X-Price-Export-Range", "products=0-2147483647;brands=1-1"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("id,brandId,startDate,endDate,priceList,productId,priority,price,currency", lines[0]);
+        assertTrue(lines[1].endsWith(",1,2020-06-14T00:00:00,2020-12-31T23:59:00,1,35455,0,35.50,EUR"), lines[1]);
+        assertTrue(lines[4].endsWith(",1,2020-06-15T16:00:00,2020-12-31T23:59:00,4,35455,1,38.95,EUR"), lines[4]);
+    }
+
+    // Test 18: Las particiones de la exportación binaria cubren todos los precios sin repetir ninguno
+    @Test
+    public void testBinaryExportPartitionsCoverEveryPrice() throws Exception {
+        for (int product = 35456; product < 35466; product++) {
+            priceRepository.save(new Price(null, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 1, product, 0, 1000L, "EUR"));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (int partition = 0; partition < 3; partition++) {
+            MvcResult result = mockMvc.perform(get("/api/prices/export")
+                            .param("format", "BINARY")
+                            .param("partition", String.valueOf(partition))
+                            .param("partitions", "3"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            byte[] body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/octet-stream"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+            assertEquals(0x50524358, input.readInt());
+            assertEquals(1, input.readShort());
+            long rows = 0;
+            while (input.readByte() == 1) {
+                assertTrue(ids.add(input.readLong()));
+                input.readInt();
+                input.readInt();
+                input.readLong();
+                input.readLong();
+                input.readInt();
+                input.readInt();
+                input.readLong();
+                assertEquals("EUR", input.readUTF());
+                rows++;
+            }
+            assertEquals(rows, input.readLong());
+            assertEquals(0, input.available());
+        }
+        assertEquals(14, ids.size());
+
+        mockMvc.perform(get("/api/prices/export")
+                        .param("partition", "3")
+                        .param("partitions", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test 19: Un par sin precios se descarta con el filtro de pares sin acceder a la caché ni a la base de datos,
+    // y deja de descartarse en cuanto se crea su primer precio
+    @Test
+    public void testUnknownPairIsFilteredUntilItsFirstPrice() throws Exception {
+        priceIndex.rebuildKeyFilter();
+        long filtered = priceIndex.filteredCount();
+        long misses = priceIndex.stats().missCount();
+
+        mockMvc.perform(get("/api/prices")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "424242")
+                        .param("brandId", "7"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value(PriceNotFoundException.DEFAULT_MESSAGE));
+        assertEquals(filtered + 1, priceIndex.filteredCount());
+        assertEquals(misses, priceIndex.stats().missCount());
+
+        mockMvc.perform(post("/api/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brandId\":7,\"startDate\":\"2020-06-14T00:00:00\",\"endDate\":\"2020-06-30T23:59:59\","
+                                + "\"priceList\":1,\"productId\":424242,\"priority\":0,\"price\":12.00,\"currency\":\"EUR\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "424242")
+                        .param("brandId", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(12.00));
+    }
+
+    // Test 20: Con Accept: application/cbor se responden los mismos precios en CBOR, más pequeños que en JSON
+    @Test
+    public void testPricesInCbor() throws Exception {
+        MvcResult json = mockMvc.perform(get("/api/prices")
+                        .param("date", "2020-06-14T16:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/prices")
+                        .param("date", "2020-06-14T16:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        JsonNode prices = new CBORMapper().readTree(cbor.getResponse().getContentAsByteArray());
+        assertEquals(new BigDecimal("25.45"), prices.get(0).get("price").decimalValue());
+        assertEquals("2020-06-14T15:00:00", prices.get(0).get("startDate").asText());
+        assertEquals(2, prices.size());
+        assertTrue(cbor.getResponse().getContentAsByteArray().length < json.getResponse().getContentAsByteArray().length);
+        assertNotEquals(json.getResponse().getHeader("ETag"), cbor.getResponse().getHeader("ETag"));
+    }
+
+    // Test 21: Con el ETag de la última respuesta se devuelve 304 sin cuerpo hasta que cambian los precios del par
+    @Test
+    public void testUnchangedPricesAreNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(etag != null && etag.startsWith("\""), etag);
+
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        priceRepository.save(new Price(null, 1, LocalDateTime.of(2020, 6, 14, 9, 0), LocalDateTime.of(2020, 6, 14, 11, 0), 5, 35455, 2, 1999L, "EUR"));
+
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("date", "2020-06-14T10:00:00")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(19.99));
+    }
+}
@@ -0,0 +1,235 @@
+package com.miempresa.priceapplication.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.miempresa.priceapplication.exception.PriceNotFoundException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.repository.PriceChangeLog;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mismos escenarios que PriceControllerTest sobre el modo reactivo, con su propia base de datos.
+ */
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive"
+})
+@AutoConfigureWebTestClient
+public class ReactivePriceControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceChangeLog priceChangeLog;
+
+    @BeforeEach
+    public void setUp() {
+        priceRepository.deleteAll();
+        priceRepository.save(new Price(1L, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59), 1, 35455, 0, 3550L, "EUR"));
+        priceRepository.save(new Price(2L, 1, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 35455, 1, 2545L, "EUR"));
+    }
+
+    @Test
+    public void testPriceAt1600OnJune14() {
+        for (int i = 0; i < 2; i++) { // La segunda consulta ya se resuelve desde la caché, sin salir del bucle de eventos
+            webTestClient.get().uri("/api/prices?productId=35455&brandId=1&date=2020-06-14T16:00:00")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$[0].price").isEqualTo(25.45)
+                    .jsonPath("$[1].price").isEqualTo(35.5);
+        }
+    }
+
+    @Test
+    public void testPriceNotFoundUsesTheSameErrorBody() {
+        for (String path : List.of("/api/prices", "/api/prices/effective")) {
+            webTestClient.get().uri(path + "?productId=35455&brandId=1&date=2019-01-01T10:00:00")
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody()
+                    .jsonPath("$.error").isEqualTo("Not Found")
+                    .jsonPath("$.message").isEqualTo(PriceNotFoundException.DEFAULT_MESSAGE);
+        }
+    }
+
+    @Test
+    public void testInvalidParametersAreRejected() {
+        webTestClient.get().uri("/api/prices?productId=0&brandId=1&date=2020-06-14T16:00:00")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid Request");
+
+        webTestClient.get().uri("/api/prices?productId=35455&brandId=1&date=14-06-2020")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid Request");
+    }
+
+    @Test
+    public void testCreateAndResolvePrices() {
+        Price price = new Price(null, 2, LocalDateTime.of(2021, 1, 1, 0, 0), LocalDateTime.of(2021, 12, 31, 23, 59), 5, 35455, 0, 1999L, "EUR");
+        webTestClient.post().uri("/api/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(price)
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.post().uri("/api/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("brandId", 2))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid Request");
+
+        webTestClient.post().uri("/api/prices/resolve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        Map.of("productId", 35455, "brandId", 2, "date", "2021-06-01T10:00:00"),
+                        Map.of("productId", 35455, "brandId", 1, "date", "2019-01-01T10:00:00")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("FOUND")
+                .jsonPath("$[0].price.price").isEqualTo(19.99)
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND");
+    }
+
+    @Test
+    public void testCsvImportStreamsTheBody() {
+        String csv = "productId,brandId,startDate,endDate,priceList,priority,price,currency\n"
+                + "35460,1,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,12.00,EUR\n"
+                + "35461,1,2020-06-14T00:00:00,2020-12-31T23:59:00,1,0,13.00,EUR\n";
+
+        webTestClient.post().uri("/api/prices/import?chunkSize=1")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.inserted").isEqualTo(2)
+                .jsonPath("$.chunks.length()").isEqualTo(2);
+    }
+
+    @Test
+    public void testChangesAreStreamedAsNdjson() {
+        long sequence = priceChangeLog.lastSequence();
+        priceRepository.save(new Price(null, 3, LocalDateTime.of(2021, 1, 1, 0, 0), LocalDateTime.of(2021, 12, 31, 23, 59), 1, 35455, 0, 999L, "EUR"));
+
+        webTestClient.get().uri("/api/prices/changes?follow=false&after=" + sequence)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Price-Sequence", String.valueOf(sequence))
+                .expectBodyList(Map.class)
+                .value(changes -> {
+                    assertEquals(1, changes.size());
+                    assertEquals("UPSERT", changes.get(0).get("type"));
+                });
+
+        webTestClient.get().uri("/api/prices/changes?after=1")
+                .accept(MediaType.parseMediaType("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isEqualTo(410);
+    }
+
+    /**
+     * Siguiendo el registro, el alta llega en cuanto se confirma y no con el siguiente latido (15 s, por encima del
+     * tiempo de espera de WebTestClient).
+     */
+    @Test
+    public void testFollowedChangesArriveWithoutWaitingForTheHeartbeat() {
+        long sequence = priceChangeLog.lastSequence();
+        Mono.delay(Duration.ofMillis(200))
+                .subscribe(tick -> priceRepository.save(new Price(null, 3, LocalDateTime.of(2021, 1, 1, 0, 0),
+                        LocalDateTime.of(2021, 12, 31, 23, 59), 1, 35455, 0, 999L, "EUR")));
+
+        Map<?, ?> change = webTestClient.get().uri("/api/prices/changes?after=" + sequence)
+                .accept(MediaType.parseMediaType("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Map.class)
+                .getResponseBody()
+                .blockFirst(Duration.ofSeconds(5));
+
+        assertEquals("UPSERT", change.get("type"));
+        assertEquals(sequence + 1, ((Number) change.get("sequence")).longValue());
+    }
+
+    @Test
+    public void testPricesInCbor() throws Exception {
+        byte[] cbor = webTestClient.get().uri("/api/prices?productId=35455&brandId=1&date=2020-06-14T16:00:00")
+                .accept(MediaType.parseMediaType("application/cbor"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/cbor")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody().returnResult().getResponseBody();
+
+        JsonNode prices = new CBORMapper().readTree(cbor);
+        assertEquals(2, prices.size());
+        assertEquals("25.45", prices.get(0).get("price").asText());
+    }
+
+    @Test
+    public void testUnchangedPricesAreNotModified() {
+        String uri = "/api/prices/effective?productId=35455&brandId=1&date=2020-06-14T10:00:00";
+        String etag = webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertTrue(etag != null && etag.startsWith("\""), etag);
+
+        webTestClient.get().uri(uri)
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etag)
+                .expectBody().isEmpty();
+
+        priceRepository.save(new Price(null, 1, LocalDateTime.of(2020, 6, 14, 9, 0), LocalDateTime.of(2020, 6, 14, 11, 0), 5, 35455, 2, 1999L, "EUR"));
+
+        webTestClient.get().uri(uri)
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.price").isEqualTo(19.99);
+    }
+
+    @Test
+    public void testExportStreamsCsv() {
+        String csv = webTestClient.get().uri("/api/prices/export?productIdFrom=35455&productIdTo=35455")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Price-Export-Range", "products=35455-35455;brands=0-2147483647")
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertTrue(csv.startsWith("id,brandId,startDate,endDate,priceList,productId,priority,price,currency\n"));
+        assertEquals(priceRepository.findAll().stream().filter(price -> price.getProductId() == 35455).count() + 1,
+                csv.lines().count());
+    }
+}
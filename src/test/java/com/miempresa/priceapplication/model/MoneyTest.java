@@ -0,0 +1,60 @@
+package com.miempresa.priceapplication.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    public void parsesLikeBigDecimal() {
+        for (String text : List.of("35.50", "35.5", "35", "0.01", ".5", "-1.25", "+7", "99999999.99", "12.300")) {
+            assertEquals(Money.fromDecimal(new BigDecimal(text)), Money.parse(text), text);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidOrTooPreciseAmounts() {
+        for (String text : List.of("", "-", ".", "12.345", "1e3", "1,5", "abc", "92233720368547758.08")) {
+            assertThrows(RuntimeException.class, () -> Money.parse(text), text);
+        }
+        assertThrows(ArithmeticException.class, () -> Money.fromDecimal(new BigDecimal("0.001")));
+    }
+
+    @Test
+    public void formatsWithTheScaleDecimals() {
+        assertEquals("35.50", Money.toString(3550));
+        assertEquals("0.05", Money.toString(5));
+        assertEquals("-0.05", Money.toString(-5));
+        assertEquals("99999999.99", Money.toString(Money.MAX));
+        assertEquals(BigDecimal.valueOf(Long.MIN_VALUE, 2).toPlainString(), Money.toString(Long.MIN_VALUE));
+        assertEquals("x=1.00", Money.appendTo(new StringBuilder("x="), 100).toString());
+        assertEquals(new BigDecimal("25.45"), Money.toDecimal(2545));
+    }
+
+    @Test
+    public void serializesAsDecimalJsonNumbers() throws Exception {
+        PriceView view = new PriceView(1, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59),
+                1, 35455, 0, 3550L, "EUR");
+        String json = objectMapper.writeValueAsString(view);
+
+        assertTrue(json.contains("\"price\":35.50,"), json);
+        assertEquals(1999L, objectMapper.readValue("{\"price\":19.99}", Price.class).getPrice());
+        assertEquals(2100L, objectMapper.readValue("{\"price\":21}", Price.class).getPrice());
+        assertEquals(2100L, objectMapper.readValue("{\"price\":2.1E1}", Price.class).getPrice());
+        assertEquals(750L, objectMapper.readValue("{\"price\":\"7.5\"}", Price.class).getPrice());
+        assertTrue(objectMapper.writeValueAsString(objectMapper.readValue("{\"price\":0.10}", Price.class))
+                .contains("\"price\":0.10"));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("{\"price\":21.005}", Price.class));
+    }
+}
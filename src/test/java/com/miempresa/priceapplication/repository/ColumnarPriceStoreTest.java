@@ -0,0 +1,155 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * La API sobre el origen columnar: el catálogo llega de una instantánea escrita antes de arrancar y
+ * los precios de data.sql y las altas quedan en la base de datos.
+ */
+@SpringBootTest(properties = {
+        "price.store.type=columnar",
+        "spring.datasource.url=jdbc:h2:mem:columnar"
+})
+@AutoConfigureMockMvc
+public class ColumnarPriceStoreTest {
+
+    private static final LocalDateTime JUNE_14 = LocalDateTime.of(2020, 6, 14, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ColumnarPriceStore columnarPriceStore;
+
+    @DynamicPropertySource
+    static void snapshot(DynamicPropertyRegistry registry) throws IOException {
+        Path path = Files.createTempDirectory("columnar-store").resolve("prices.snapshot");
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            writer.add(new PriceView(1_000, 1, JUNE_14, JUNE_14.plusMonths(6), 1, 99, 0, 1230L, "EUR"));
+            writer.add(new PriceView(1_001, 1, JUNE_14.plusHours(15), JUNE_14.plusHours(18), 2, 99, 1, 999L, "EUR"));
+            writer.add(new PriceView(1_002, 1, JUNE_14, JUNE_14.plusMonths(6), 1, 35455, 0, 100L, "USD"));
+            writer.finish();
+        }
+        registry.add("price.store.snapshot", path::toString);
+    }
+
+    @Test
+    public void servesPricesFromTheSnapshot() throws Exception {
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("productId", "99")
+                        .param("brandId", "1")
+                        .param("date", "2020-06-14T16:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1_001))
+                .andExpect(jsonPath("$.price").value(9.99));
+
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "99")
+                        .param("brandId", "1")
+                        .param("date", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].price").value(12.30));
+    }
+
+    @Test
+    public void databaseRowsOverrideTheSnapshot() throws Exception {
+        mockMvc.perform(get("/api/prices")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("date", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].price").value(35.50))
+                .andExpect(jsonPath("$[0].currency").value("EUR"));
+    }
+
+    @Test
+    public void loadsManyPairsAtOnce() {
+        Map<Long, List<PriceView>> pricesByKey = columnarPriceStore.findByKeys(
+                List.of(PriceIndex.key(99, 1), PriceIndex.key(35455, 1), PriceIndex.key(7, 7)));
+
+        assertTrue(pricesByKey.get(PriceIndex.key(99, 1)).size() >= 2);
+        assertEquals(4, pricesByKey.get(PriceIndex.key(35455, 1)).size());
+        assertTrue(pricesByKey.get(PriceIndex.key(35455, 1)).stream().allMatch(price -> "EUR".equals(price.currency())));
+        assertFalse(pricesByKey.containsKey(PriceIndex.key(7, 7)));
+    }
+
+    @Test
+    public void walksARangeMergingTheSnapshotAndTheDatabase() throws Exception {
+        List<PriceView> prices = new ArrayList<>();
+        columnarPriceStore.forEachOrdered(new PriceKeyRange(99, 35455, 1, 1), prices::add);
+
+        assertTrue(prices.stream().anyMatch(price -> price.id() == 1_000));
+        assertTrue(prices.stream().anyMatch(price -> price.id() == 1_001));
+        assertEquals(4, prices.stream().filter(price -> price.productId() == 35455).count());
+        assertTrue(prices.stream().noneMatch(price -> "USD".equals(price.currency())));
+        for (int i = 1; i < prices.size(); i++) {
+            PriceView previous = prices.get(i - 1);
+            PriceView current = prices.get(i);
+            assertTrue(previous.productId() < current.productId()
+                    || previous.productId() == current.productId() && !previous.startDate().isAfter(current.startDate()));
+        }
+
+        List<PriceView> none = new ArrayList<>();
+        columnarPriceStore.forEachOrdered(new PriceKeyRange(100, 35454, 0, Integer.MAX_VALUE), none::add);
+        assertTrue(none.isEmpty());
+        assertEquals(99, columnarPriceStore.productRange().orElseThrow().productIdFrom());
+        assertEquals(35455, columnarPriceStore.productRange().orElseThrow().productIdTo());
+    }
+
+    @Test
+    public void rejectsPricesAlreadyInTheSnapshot() throws Exception {
+        mockMvc.perform(post("/api/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brandId\":1,\"startDate\":\"2020-06-14T15:00:00\",\"endDate\":\"2020-06-14T20:00:00\","
+                                + "\"priceList\":3,\"productId\":99,\"priority\":2,\"price\":5.00,\"currency\":\"EUR\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void writesASnapshotWithNewPricesAndKeepsServingIt() throws Exception {
+        mockMvc.perform(post("/api/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brandId\":1,\"startDate\":\"2020-07-01T00:00:00\",\"endDate\":\"2020-07-31T23:59:59\","
+                                + "\"priceList\":3,\"productId\":99,\"priority\":2,\"price\":7.50,\"currency\":\"EUR\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(org.hamcrest.Matchers.greaterThan(1_002)));
+
+        mockMvc.perform(post("/api/prices/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").value(2));
+
+        assertTrue(columnarPriceStore.getSnapshot().contains(99, 1, LocalDateTime.of(2020, 7, 1, 0, 0)));
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("productId", "99")
+                        .param("brandId", "1")
+                        .param("date", "2020-07-15T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(7.50));
+    }
+}
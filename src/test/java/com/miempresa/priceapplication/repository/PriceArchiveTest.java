@@ -0,0 +1,87 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceSnapshotReport;
+import com.miempresa.priceapplication.service.PriceService;
+import com.miempresa.priceapplication.service.PriceSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un precio que archiva otra instancia sobre la misma base de datos, simulada moviéndolo por JDBC sin pasar por
+ * el {@link PriceArchive} de esta: se sigue rechazando como duplicado, se encuentra al volver a cargar el par
+ * aunque el horizonte en memoria no lo cubriera y se incluye en la instantánea.
+ */
+@SpringBootTest(properties = {
+        "price.index.resident=false",
+        "spring.datasource.url=jdbc:h2:mem:archive-shared"
+})
+public class PriceArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Autowired
+    private PriceSnapshotService priceSnapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Path snapshotPath;
+
+    @DynamicPropertySource
+    static void snapshot(DynamicPropertyRegistry registry) throws IOException {
+        snapshotPath = Files.createTempDirectory("price-archive").resolve("prices.snapshot");
+        registry.add("price.store.snapshot", snapshotPath::toString);
+    }
+
+    @Test
+    public void pricesArchivedByAnotherInstanceAreStillFound() throws IOException {
+        Price price = priceService.createPrice(new Price(null, 1, START, LocalDateTime.of(2021, 6, 30, 23, 59, 59),
+                5, 35455, 0, 1999L, "EUR"));
+        assertEquals(price.getId(), priceService.getEffectivePrice(35455, 1, "2021-03-01T00:00:00").id());
+
+        jdbcTemplate.update("INSERT INTO price_archive SELECT id, brand_id, start_date, end_date, price_list, product_id, "
+                + "priority, price, currency FROM price WHERE id = ?", price.getId());
+        jdbcTemplate.update("DELETE FROM price WHERE id = ?", price.getId());
+        assertFalse(priceArchive.covers(LocalDateTime.of(2021, 3, 1, 0, 0)));
+
+        assertTrue(priceArchive.contains(35455, 1, START));
+        assertThrows(InvalidPriceRequestException.class, () -> priceService.createPrice(new Price(null, 1, START,
+                LocalDateTime.of(2021, 12, 31, 23, 59, 59), 1, 35455, 0, 3550L, "EUR")));
+
+        // Como al caducar la entrada: la línea temporal se vuelve a leer sin el precio y el horizonte lo cubre
+        priceIndex.invalidate(35455, 1);
+        assertEquals(price.getId(), priceService.getEffectivePrice(35455, 1, "2021-03-01T00:00:00").id());
+        assertTrue(priceArchive.covers(LocalDateTime.of(2021, 3, 1, 0, 0)));
+
+        long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price", Long.class) + priceArchive.count();
+        PriceSnapshotReport report = priceSnapshotService.writeSnapshot();
+        assertEquals(rows, report.getRows());
+        assertTrue(PriceSnapshot.open(snapshotPath).find(35455, 1).stream()
+                .anyMatch(archived -> archived.id() == price.getId()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.service.PriceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Con el índice completo, las consultas con la caché desactivada no llegan al {@link PriceStore}, tampoco las
+ * de pares sin precios ni las posteriores a un alta. Las relecturas tras invalidaciones de otras instancias
+ * se comprueban en {@link PriceInvalidationBusTest}.
+ */
+@SpringBootTest(properties = {
+        "price.cache.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:resident"
+})
+public class PriceIndexTest {
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @SpyBean
+    private PriceStore priceStore;
+
+    @Test
+    public void lookupsAreServedFromTheResidentIndex() {
+        clearInvocations(priceStore);
+
+        assertEquals(2545, priceService.getEffectivePrice(35455, 1, "2020-06-14T16:00:00").price());
+        assertTrue(priceService.findApplicablePrices(35455, 2, "2020-06-14T16:00:00").isEmpty());
+        assertTrue(priceIndex.isCached(35455, 1));
+        Price created = priceService.createPrice(new Price(null, 1, LocalDateTime.of(2021, 1, 1, 0, 0),
+                LocalDateTime.of(2021, 12, 31, 23, 59, 59), 5, 35455, 0, 1999L, "EUR"));
+        assertEquals(created.getId(), priceService.getEffectivePrice(35455, 1, "2021-06-01T00:00:00").id());
+
+        verify(priceStore, never()).findByProductIdAndBrandId(anyInt(), anyInt());
+        verify(priceStore, never()).findApplicablePrices(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void updatingTheProductMovesThePriceToTheNewPair() {
+        Price created = priceService.createPrice(new Price(null, 1, LocalDateTime.of(2022, 1, 1, 0, 0),
+                LocalDateTime.of(2022, 12, 31, 23, 59, 59), 5, 35455, 0, 1999L, "EUR"));
+        assertEquals(created.getId(), priceService.getEffectivePrice(35455, 1, "2022-06-01T00:00:00").id());
+
+        Price moved = priceRepository.findById(created.getId()).orElseThrow();
+        moved.setProductId(35456);
+        priceRepository.save(moved);
+
+        assertTrue(priceService.findApplicablePrices(35455, 1, "2022-06-01T00:00:00").isEmpty());
+        assertEquals(created.getId(), priceService.getEffectivePrice(35456, 1, "2022-06-01T00:00:00").id());
+    }
+}
@@ -0,0 +1,114 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.PriceApplication;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.service.PriceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Varias instancias en la misma JVM, unidas por el transporte loopback y con una base de datos compartida.
+ */
+public class PriceInvalidationBusTest {
+
+    private final String name = "invalidation-" + UUID.randomUUID();
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void writesOnOneNodeAreVisibleOnTheOthers() throws Exception {
+        PriceService first = start(true).getBean(PriceService.class);
+        PriceService second = start(false).getBean(PriceService.class);
+        PriceService third = start(false).getBean(PriceService.class);
+
+        for (PriceService node : List.of(first, second, third)) {
+            assertEquals(3550, node.getEffectivePrice(35455, 1, "2020-06-14T10:00:00").price());
+        }
+
+        first.createPrice(new Price(null, 1, LocalDateTime.of(2020, 6, 14, 9, 0), LocalDateTime.of(2020, 6, 14, 12, 0),
+                5, 35455, 2, 1999L, "EUR"));
+
+        assertEquals(1999, first.getEffectivePrice(35455, 1, "2020-06-14T10:00:00").price());
+        awaitPrice(second, 1999);
+        awaitPrice(third, 1999);
+        assertEquals(3550, third.getEffectivePrice(35455, 1, "2020-06-14T08:00:00").price());
+    }
+
+    @Test
+    public void newPairsOnOneNodePassTheKeyFilterOfTheOthers() throws Exception {
+        ConfigurableApplicationContext firstContext = start(true);
+        ConfigurableApplicationContext secondContext = start(false);
+        PriceIndex secondIndex = secondContext.getBean(PriceIndex.class);
+        secondIndex.rebuildKeyFilter();
+        PriceService second = secondContext.getBean(PriceService.class);
+        assertTrue(second.findEffectivePrice(424242, 7, "2020-06-14T10:00:00").isEmpty());
+        assertEquals(1, secondIndex.filteredCount());
+
+        firstContext.getBean(PriceService.class).createPrice(new Price(null, 7, LocalDateTime.of(2020, 6, 14, 0, 0),
+                LocalDateTime.of(2020, 6, 30, 23, 59), 1, 424242, 0, 1200L, "EUR"));
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (second.findEffectivePrice(424242, 7, "2020-06-14T10:00:00").isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1200, second.getEffectivePrice(424242, 7, "2020-06-14T10:00:00").price());
+    }
+
+    @Test
+    public void messagesRoundTrip() {
+        PriceInvalidation message = new PriceInvalidation(7, 42, 1_000_000, new long[]{PriceIndex.key(35455, 1), -1});
+        PriceInvalidation decoded = PriceInvalidation.decode(message.encode());
+
+        assertEquals(PriceInvalidation.HEADER_BYTES + 16, message.encode().length);
+        assertEquals(7, decoded.node());
+        assertEquals(42, decoded.sequence());
+        assertArrayEquals(message.keys(), decoded.keys());
+        byte[] truncated = new byte[PriceInvalidation.HEADER_BYTES + 4];
+        System.arraycopy(message.encode(), 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> PriceInvalidation.decode(truncated));
+    }
+
+    private void awaitPrice(PriceService node, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        long price = node.getEffectivePrice(35455, 1, "2020-06-14T10:00:00").price();
+        while (price != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            price = node.getEffectivePrice(35455, 1, "2020-06-14T10:00:00").price();
+        }
+        assertEquals(expected, price);
+    }
+
+    /**
+     * Arranca una instancia sin servidor web; solo la primera crea el esquema y carga data.sql.
+     */
+    private ConfigurableApplicationContext start(boolean initialize) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PriceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=" + (initialize ? "always" : "never"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--price.invalidation.transport=loopback",
+                        "--price.invalidation.channel=" + name);
+        nodes.add(context);
+        return context;
+    }
+}
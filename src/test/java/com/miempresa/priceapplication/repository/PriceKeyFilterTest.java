@@ -0,0 +1,57 @@
+package com.miempresa.priceapplication.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceKeyFilterTest {
+
+    @Test
+    public void containsEveryAddedKey() {
+        PriceKeyFilter filter = new PriceKeyFilter(100_000, 0.01);
+        for (int productId = 1; productId <= 10_000; productId++) {
+            for (int brandId = 1; brandId <= 10; brandId++) {
+                filter.add(PriceIndex.key(productId, brandId));
+            }
+        }
+
+        for (int productId = 1; productId <= 10_000; productId++) {
+            for (int brandId = 1; brandId <= 10; brandId++) {
+                assertTrue(filter.mightContain(PriceIndex.key(productId, brandId)));
+            }
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    public void falsePositiveRateIsCloseToTheTarget() {
+        PriceKeyFilter filter = new PriceKeyFilter(100_000, 0.01);
+        for (int productId = 1; productId <= 100_000; productId++) {
+            filter.add(PriceIndex.key(productId, 1));
+        }
+
+        int falsePositives = 0;
+        int queries = 100_000;
+        for (int productId = 1; productId <= queries; productId++) {
+            if (filter.mightContain(PriceIndex.key(productId, 2))) {
+                falsePositives++;
+            }
+        }
+        // Con la memoria redondeada a potencia de dos la tasa real queda por debajo del 1 %
+        assertTrue(falsePositives < queries * 0.015, "Falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    public void reportsSaturationBeyondCapacity() {
+        PriceKeyFilter filter = new PriceKeyFilter(1_000, 0.01);
+        for (int productId = 1; productId <= 2_000; productId++) {
+            filter.add(PriceIndex.key(productId, 1));
+        }
+
+        assertTrue(filter.isSaturated());
+        assertThrows(IllegalArgumentException.class, () -> new PriceKeyFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new PriceKeyFilter(10, 1));
+    }
+}
@@ -0,0 +1,168 @@
+package com.miempresa.priceapplication.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba sobre H2 que las consultas de precios usan los índices de schema.sql y, activando
+ * -Dprice.scaling=true, que la latencia de findApplicablePrices no crece en proporción a las filas de 10k a 10M.
+ */
+public class PriceQueryPlanTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceQueryPlanTest.class);
+
+    // Equivalentes SQL de las consultas JPQL de PriceRepository.
+    private static final String APPLICABLE_SQL = "SELECT * FROM price WHERE product_id = ? AND brand_id = ? "
+            + "AND ? BETWEEN start_date AND end_date ORDER BY priority DESC";
+    private static final String BY_START_SQL = "SELECT * FROM price WHERE product_id = ? AND brand_id = ? AND start_date = ?";
+    // Lectura de un lote de PriceArchive.moveExpired.
+    private static final String EXPIRED_SQL = "SELECT * FROM price WHERE end_date < ? ORDER BY end_date FETCH FIRST 1000 ROWS ONLY";
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = open("jdbc:h2:mem:plan;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void lookupQueriesUseIndexes() throws SQLException {
+        generate(1, 10_000);
+
+        String applicablePlan = explain(APPLICABLE_SQL.replaceFirst("\\?", "42").replaceFirst("\\?", "3")
+                .replaceFirst("\\?", "TIMESTAMP '2020-03-01 10:00:00'"));
+        String byStartPlan = explain(BY_START_SQL.replaceFirst("\\?", "42").replaceFirst("\\?", "3")
+                .replaceFirst("\\?", "TIMESTAMP '2020-03-01 10:00:00'"));
+        log.debug("findApplicablePrices:\n{}", applicablePlan);
+        log.debug("findByProductIdAndBrandIdAndStartDate:\n{}", byStartPlan);
+
+        assertFalse(applicablePlan.contains("tableScan"), applicablePlan);
+        assertFalse(byStartPlan.contains("tableScan"), byStartPlan);
+        assertTrue(applicablePlan.contains("UK_PRICE_PRODUCT_BRAND_START"), applicablePlan);
+        assertTrue(byStartPlan.contains("UK_PRICE_PRODUCT_BRAND_START"), byStartPlan);
+    }
+
+    @Test
+    public void archiveBatchUsesEndDateIndex() throws SQLException {
+        generate(1, 10_000);
+
+        String expiredPlan = explain(EXPIRED_SQL.replaceFirst("\\?", "TIMESTAMP '2020-03-01 00:00:00'"));
+        log.debug("moveExpired:\n{}", expiredPlan);
+
+        assertFalse(expiredPlan.contains("tableScan"), expiredPlan);
+        assertTrue(expiredPlan.contains("IDX_PRICE_END_DATE"), expiredPlan);
+    }
+
+    @Test
+    public void uniqueConstraintRejectsDuplicateStartDate() throws SQLException {
+        generate(1, 10);
+        try (Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute(
+                    "INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) "
+                            + "SELECT brand_id, start_date, end_date, price_list, product_id, priority, price, currency "
+                            + "FROM price WHERE id = (SELECT MIN(id) FROM price)"));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "price.scaling", matches = "true")
+    public void lookupLatencyScalesWithTableSize() throws SQLException {
+        // Con 10M filas una base de datos en memoria no cabe en el heap por defecto: se usa una en fichero.
+        connection.close();
+        connection = open("jdbc:h2:file:./target/price-scaling");
+
+        Random random = new Random(42);
+        long generated = 0;
+        long[] sizes = {10_000, 100_000, 1_000_000, 10_000_000};
+        double[] micros = new double[sizes.length];
+        for (int size = 0; size < sizes.length; size++) {
+            long rows = sizes[size];
+            generate(generated + 1, rows);
+            generated = rows;
+
+            long maxProduct = rows / 20;
+            try (PreparedStatement statement = connection.prepareStatement(APPLICABLE_SQL)) {
+                int lookups = 20_000;
+                long start = 0;
+                for (int i = -lookups; i < lookups; i++) {
+                    if (i == 0) {
+                        start = System.nanoTime();
+                    }
+                    statement.setInt(1, 1 + (int) (random.nextDouble() * maxProduct));
+                    statement.setInt(2, 1 + random.nextInt(5));
+                    statement.setTimestamp(3, Timestamp.valueOf(BASE.plusHours(random.nextInt(8760))));
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            resultSet.getLong(1);
+                        }
+                    }
+                }
+                micros[size] = (System.nanoTime() - start) / 1000.0 / lookups;
+                log.debug("{} filas: {} us/consulta", rows, String.format("%.2f", micros[size]));
+            }
+        }
+        // Con el índice la latencia crece con el logaritmo de las filas, no con ellas: x1000 filas, menos de x10
+        assertTrue(micros[sizes.length - 1] < 10 * micros[0],
+                "La latencia pasa de " + micros[0] + " us con 10k filas a " + micros[sizes.length - 1] + " us con 10M");
+    }
+
+    /**
+     * Genera las filas [from, to] de forma determinista: 20 filas por producto, 4 por (producto, marca),
+     * con inicios repartidos a lo largo de 2020 y duraciones de 1 a 720 horas.
+     */
+    private void generate(long from, long to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO price (brand_id, start_date, end_date, price_list, product_id, priority, price, currency) "
+                    + "SELECT MOD(X, 5) + 1, "
+                    + "DATEADD('HOUR', MOD(X * 7, 8760), TIMESTAMP '2020-01-01 00:00:00'), "
+                    + "DATEADD('HOUR', MOD(X * 7, 8760) + MOD(X, 720) + 1, TIMESTAMP '2020-01-01 00:00:00'), "
+                    + "MOD(X, 10) + 1, (X - 1) / 20 + 1, MOD(X, 3), 10 + MOD(X, 100), 'EUR' "
+                    + "FROM SYSTEM_RANGE(" + from + ", " + to + ")");
+        }
+    }
+
+    private static Connection open(String url) throws SQLException {
+        Connection opened = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = opened.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+        }
+        return opened;
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceSnapshotTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 6, 14, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private static List<PriceView> samplePrices() {
+        List<PriceView> prices = new ArrayList<>();
+        long id = 1;
+        for (int productId = 1; productId <= 3; productId++) {
+            for (int brandId = 1; brandId <= 2; brandId++) {
+                for (int slot = 0; slot < 5; slot++) {
+                    LocalDateTime start = BASE.plusDays(slot);
+                    prices.add(new PriceView(id++, brandId, start, start.plusHours(36).minusSeconds(1), slot, productId,
+                            slot % 2, 1005L + slot * 310 + productId * 100, brandId == 1 ? "EUR" : "USD"));
+                }
+            }
+        }
+        prices.add(new PriceView(Integer.MAX_VALUE, 1, BASE, LocalDateTime.MAX.withNano(0), 9, 35455, 0, 9_999_999_999L, "GBP"));
+        return prices;
+    }
+
+    private PriceSnapshot write(Path path, List<PriceView> prices) throws IOException {
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            for (PriceView price : prices) {
+                writer.add(price);
+            }
+            return writer.finish();
+        }
+    }
+
+    @Test
+    public void roundTripsEveryColumn() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        List<PriceView> prices = samplePrices();
+        write(path, prices);
+
+        PriceSnapshot snapshot = PriceSnapshot.open(path);
+
+        assertEquals(prices.size(), snapshot.size());
+        assertEquals(7, snapshot.keyCount());
+        assertEquals(Integer.MAX_VALUE, snapshot.maxId());
+        assertEquals(prices.subList(5, 10), snapshot.find(1, 2));
+        assertEquals(List.of(prices.get(prices.size() - 1)), snapshot.find(35455, 1));
+        assertTrue(snapshot.find(4, 1).isEmpty());
+        for (int row = 0; row < prices.size(); row++) {
+            assertEquals(prices.get(row), snapshot.row(row));
+        }
+    }
+
+    @Test
+    public void findsStartDatesByBinarySearch() throws IOException {
+        PriceSnapshot snapshot = write(directory.resolve("prices.snapshot"), samplePrices());
+
+        assertTrue(snapshot.contains(2, 1, BASE));
+        assertTrue(snapshot.contains(2, 1, BASE.plusDays(4)));
+        assertFalse(snapshot.contains(2, 1, BASE.plusDays(5)));
+        assertFalse(snapshot.contains(2, 1, BASE.plusSeconds(1)));
+        assertFalse(snapshot.contains(2, 3, BASE));
+        assertFalse(PriceSnapshot.empty().contains(2, 1, BASE));
+    }
+
+    @Test
+    public void rejectsRowsThatCannotBeStored() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            writer.add(new PriceView(1, 1, BASE.plusDays(1), BASE.plusDays(2), 1, 1, 0, 1000L, "EUR"));
+
+            assertThrows(IllegalArgumentException.class, () ->
+                    writer.add(new PriceView(2, 1, BASE, BASE.plusDays(2), 1, 1, 0, 1000L, "EUR")));
+            assertThrows(IllegalArgumentException.class, () ->
+                    writer.add(new PriceView(3, 1, BASE.plusDays(2).plusNanos(1), BASE.plusDays(3), 1, 1, 0, 1000L, "EUR")));
+            assertThrows(IllegalArgumentException.class, () ->
+                    writer.add(new PriceView(Integer.MAX_VALUE + 1L, 1, BASE.plusDays(3), BASE.plusDays(4), 1, 1, 0, 1000L, "EUR")));
+        }
+    }
+
+    @Test
+    public void abandonedWriterLeavesPublishedSnapshotUntouched() throws IOException {
+        Path path = directory.resolve("prices.snapshot");
+        List<PriceView> prices = samplePrices();
+        write(path, prices);
+
+        try (PriceSnapshot.Writer writer = PriceSnapshot.writer(path)) {
+            writer.add(prices.get(0));
+        }
+
+        assertEquals(prices.size(), PriceSnapshot.open(path).size());
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path path = directory.resolve("prices.csv");
+        Files.writeString(path, "brandId,startDate,endDate,priceList,productId,priority,price,currency\n".repeat(10));
+
+        assertThrows(IOException.class, () -> PriceSnapshot.open(path));
+    }
+}
@@ -0,0 +1,136 @@
+package com.miempresa.priceapplication.repository;
+
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceView;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceTimelineTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 6, 14, 0, 0);
+
+    private static List<PriceView> samplePrices() {
+        return List.of(
+                new PriceView(1L, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 35455, 0, 3550L, "EUR"),
+                new PriceView(2L, 1, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 35455, 1, 2545L, "EUR"),
+                new PriceView(3L, 1, LocalDateTime.of(2020, 6, 15, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0), 3, 35455, 1, 3050L, "EUR"),
+                new PriceView(4L, 1, LocalDateTime.of(2020, 6, 15, 16, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4, 35455, 1, 3895L, "EUR"));
+    }
+
+    @Test
+    public void resolvesSampleDates() {
+        PriceTimeline timeline = PriceTimeline.of(samplePrices());
+
+        assertEquals(3550, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 10, 0)).get(0).price());
+        assertEquals(2545, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 16, 0)).get(0).price());
+        assertEquals(3550, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 21, 0)).get(0).price());
+        assertEquals(3050, timeline.applicableAt(LocalDateTime.of(2020, 6, 15, 10, 0)).get(0).price());
+        assertEquals(3895, timeline.applicableAt(LocalDateTime.of(2020, 6, 16, 21, 0)).get(0).price());
+    }
+
+    @Test
+    public void boundariesAreInclusive() {
+        PriceTimeline timeline = PriceTimeline.of(samplePrices());
+
+        assertEquals(2, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 18, 30)).size());
+        assertEquals(1, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 18, 30, 1)).size());
+        assertTrue(timeline.applicableAt(LocalDateTime.of(2020, 6, 13, 23, 59)).isEmpty());
+        assertTrue(timeline.applicableAt(LocalDateTime.of(2021, 1, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void matchesBruteForceResolution() {
+        Random random = new Random(42);
+        List<PriceView> prices = new ArrayList<>();
+        PriceTimeline timeline = PriceTimeline.EMPTY;
+        for (long id = 1; id <= 200; id++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(1000));
+            LocalDateTime end = start.plusHours(random.nextInt(200));
+            PriceView price = new PriceView(id, 1, start, end, 1, 1, random.nextInt(4), 1000L, "EUR");
+            prices.add(price);
+            timeline = timeline.with(price);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime date = BASE.plusMinutes(random.nextInt(1300 * 60));
+            List<PriceView> expected = prices.stream()
+                    .filter(p -> !date.isBefore(p.startDate()) && !date.isAfter(p.endDate()))
+                    .sorted(PriceTimeline.PRIORITY_ORDER)
+                    .toList();
+            assertEquals(expected, timeline.applicableAt(date));
+            assertEquals(expected.isEmpty() ? null : expected.get(0), timeline.effectiveAt(date));
+        }
+    }
+
+    @Test
+    public void breaksPriorityTiesByLatestStartThenHighestId() {
+        PriceView older = new PriceView(1L, 1, BASE, BASE.plusDays(10), 1, 1, 1, 1000L, "EUR");
+        PriceView newer = new PriceView(2L, 1, BASE.plusDays(1), BASE.plusDays(10), 2, 1, 1, 2000L, "EUR");
+        PriceView sameStart = new PriceView(3L, 1, BASE.plusDays(1), BASE.plusDays(5), 3, 1, 1, 3000L, "EUR");
+
+        assertEquals(newer, PriceTimeline.of(List.of(older, newer)).effectiveAt(BASE.plusDays(2)));
+        assertEquals(sameStart, PriceTimeline.of(List.of(older, newer, sameStart)).effectiveAt(BASE.plusDays(2)));
+        assertEquals(older, PriceTimeline.of(List.of(older, newer)).effectiveAt(BASE.plusHours(1)));
+    }
+
+    @Test
+    public void removesPricesById() {
+        PriceTimeline timeline = PriceTimeline.of(samplePrices()).without(2L);
+
+        assertEquals(3550, timeline.applicableAt(LocalDateTime.of(2020, 6, 14, 16, 0)).get(0).price());
+        assertTrue(PriceTimeline.of(samplePrices()).without(1L).without(2L).without(3L).without(4L).isEmpty());
+    }
+
+    @Test
+    public void listsEffectivePricesOverARange() {
+        PriceTimeline timeline = PriceTimeline.of(samplePrices());
+
+        List<PriceSegment> segments = timeline.segmentsBetween(LocalDateTime.of(2020, 6, 1, 0, 0), LocalDateTime.of(2020, 6, 30, 23, 59, 59));
+
+        assertEquals(List.of(
+                new PriceSegment(LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 6, 14, 14, 59, 59, 999_999_999), samplePrices().get(0)),
+                new PriceSegment(LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), samplePrices().get(1)),
+                new PriceSegment(LocalDateTime.of(2020, 6, 14, 18, 30, 0, 1), LocalDateTime.of(2020, 6, 14, 23, 59, 59, 999_999_999), samplePrices().get(0)),
+                new PriceSegment(LocalDateTime.of(2020, 6, 15, 0, 0), LocalDateTime.of(2020, 6, 15, 11, 0), samplePrices().get(2)),
+                new PriceSegment(LocalDateTime.of(2020, 6, 15, 11, 0, 0, 1), LocalDateTime.of(2020, 6, 15, 15, 59, 59, 999_999_999), samplePrices().get(0)),
+                new PriceSegment(LocalDateTime.of(2020, 6, 15, 16, 0), LocalDateTime.of(2020, 6, 30, 23, 59, 59), samplePrices().get(3))),
+                segments);
+        assertEquals(List.of(new PriceSegment(LocalDateTime.of(2020, 6, 14, 16, 0), LocalDateTime.of(2020, 6, 14, 17, 0), samplePrices().get(1))),
+                timeline.segmentsBetween(LocalDateTime.of(2020, 6, 14, 16, 0), LocalDateTime.of(2020, 6, 14, 17, 0)));
+        assertTrue(timeline.segmentsBetween(LocalDateTime.of(2021, 1, 1, 0, 0), LocalDateTime.of(2021, 2, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void rangeMatchesPointQueries() {
+        Random random = new Random(7);
+        List<PriceView> prices = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(500));
+            prices.add(new PriceView(id, 1, start, start.plusHours(random.nextInt(100)), 1, 1, random.nextInt(3), 1000L, "EUR"));
+        }
+        PriceTimeline timeline = PriceTimeline.of(prices);
+        LocalDateTime from = BASE.plusHours(50);
+        LocalDateTime to = BASE.plusHours(450);
+
+        List<PriceSegment> segments = timeline.segmentsBetween(from, to);
+        for (int i = 1; i < segments.size(); i++) {
+            assertTrue(segments.get(i).startDate().isAfter(segments.get(i - 1).endDate()));
+        }
+        for (LocalDateTime date = from; !date.isAfter(to); date = date.plusMinutes(30)) {
+            LocalDateTime at = date;
+            PriceView expected = timeline.effectiveAt(at);
+            PriceView actual = segments.stream()
+                    .filter(s -> !at.isBefore(s.startDate()) && !at.isAfter(s.endDate()))
+                    .map(PriceSegment::price)
+                    .findFirst().orElse(null);
+            assertEquals(expected, actual, "en " + at);
+        }
+    }
+}
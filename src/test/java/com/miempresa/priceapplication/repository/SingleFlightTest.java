@@ -0,0 +1,96 @@
+package com.miempresa.priceapplication.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    private final SingleFlight<String, List<String>> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("35455-1", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return List.of("35.50");
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.joinedCount() < THREADS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<List<String>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(THREADS - 1, singleFlight.joinedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Terminada la ejecución no queda nada guardado: la siguiente llamada vuelve a consultar
+        singleFlight.execute("35455-1", () -> List.of(String.valueOf(executions.incrementAndGet())));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void failuresReachEveryWaiter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> owner = executor.submit(() -> singleFlight.execute("35455-1", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("sin conexión");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<String>> joiner = executor.submit(() -> singleFlight.execute("35455-1", List::of));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.joinedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<List<String>> result : List.of(owner, joiner)) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertTrue(failure.getCause() instanceof IllegalStateException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.miempresa.priceapplication.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IsoDateTimeParserTest {
+
+    @Test
+    public void matchesLocalDateTimeParse() {
+        IsoDateTimeParser parser = new IsoDateTimeParser(0);
+        for (String text : List.of("2020-06-14T10:00", "2020-06-14T10:00:00", "2020-06-14T21:00:59",
+                "2020-06-14T10:00:00.5", "2020-06-14T10:00:00.123456789", "2024-02-29T23:59:59.000001",
+                "+10000-01-01T00:00:00")) {
+            assertEquals(LocalDateTime.parse(text), parser.parse(text), text);
+        }
+    }
+
+    @Test
+    public void rejectsTheSameTextsAsLocalDateTimeParse() {
+        IsoDateTimeParser parser = new IsoDateTimeParser(0);
+        for (String text : List.of("2020-06-14", "2020-06-14 10:00:00", "2020-13-14T10:00:00", "2023-02-29T10:00:00",
+                "2020-06-14T24:00:00", "2020-06-14T10:00:0a", "2020-06-14T10:00:00.1234567890", "invalid-date")) {
+            assertThrows(DateTimeParseException.class, () -> parser.parse(text), text);
+        }
+    }
+
+    @Test
+    public void reusesCachedValues() {
+        IsoDateTimeParser parser = new IsoDateTimeParser(16);
+        LocalDateTime first = parser.parse("2020-06-14T10:00:00");
+
+        assertSame(first, parser.parse(new String("2020-06-14T10:00:00")));
+        assertEquals(LocalDateTime.of(2020, 6, 15, 10, 0), parser.parse("2020-06-15T10:00:00"));
+    }
+}
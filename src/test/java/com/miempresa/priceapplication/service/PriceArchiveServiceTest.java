@@ -0,0 +1,92 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.model.PriceArchiveReport;
+import com.miempresa.priceapplication.model.PriceSegment;
+import com.miempresa.priceapplication.model.PriceView;
+import com.miempresa.priceapplication.repository.PriceArchive;
+import com.miempresa.priceapplication.repository.PriceIndex;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El archivado de los precios de data.sql, todos de 2020: salen de la tabla price y del índice en memoria,
+ * y las consultas de esas fechas los siguen encontrando en el archivo.
+ */
+@SpringBootTest(properties = {
+        "price.archive.batch-size=3",
+        "spring.datasource.url=jdbc:h2:mem:archive"
+})
+@DirtiesContext
+public class PriceArchiveServiceTest {
+
+    @Autowired
+    private PriceArchiveService priceArchiveService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceArchive priceArchive;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Test
+    public void movesExpiredPricesAndKeepsAnsweringHistoricalQueries() {
+        List<PriceView> before = priceService.getApplicablePrices(35455, 1, "2020-06-14T16:00:00");
+        LocalDateTime now = LocalDateTime.now();
+        Price current = priceService.createPrice(new Price(null, 1, now.minusDays(1), now.plusDays(30), 5, 35455, 0, 1999L, "EUR"));
+        String tag = priceService.getPriceTag(35455, 1);
+
+        PriceArchiveReport report = priceArchiveService.archive();
+
+        assertEquals(4, report.getRows());
+        assertEquals(1, report.getKeys());
+        assertEquals(2, report.getBatches());
+        assertEquals(LocalDateTime.of(2020, 12, 31, 23, 59, 59), report.getHorizon());
+        assertEquals(List.of(current.getId()), priceRepository.findAll().stream().map(Price::getId).toList());
+        assertEquals(4, priceArchive.count());
+        // La línea temporal en caché ya no guarda los precios archivados y la etiqueta del par no cambia
+        assertEquals(0, priceIndex.findTimeline(35455, 1).applicableAt(LocalDateTime.of(2020, 6, 14, 16, 0)).size());
+        assertEquals(tag, priceService.getPriceTag(35455, 1));
+
+        long lookups = priceArchive.lookupCount();
+        assertEquals(before, priceService.getApplicablePrices(35455, 1, "2020-06-14T16:00:00"));
+        assertEquals(2, priceService.getEffectivePrice(35455, 1, "2020-06-14T16:00:00").priceList());
+        assertEquals(current.getId(), priceService.getEffectivePrice(35455, 1, now.toString()).id());
+        assertTrue(priceArchive.lookupCount() > lookups);
+
+        List<PriceSegment> segments = priceService.getPriceTimeline(35455, 1, "2020-06-14T00:00:00", "2020-06-15T00:00:00");
+        assertEquals(List.of(1, 2, 1, 3), segments.stream().map(segment -> segment.price().priceList()).toList());
+
+        // Las consultas de fechas vigentes no llegan al archivo
+        lookups = priceArchive.lookupCount();
+        priceService.getApplicablePrices(35455, 1, now.toString());
+        assertEquals(lookups, priceArchive.lookupCount());
+
+        assertThrows(InvalidPriceRequestException.class, () -> priceService.createPrice(new Price(null, 1,
+                LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 35455, 0, 3550L, "EUR")));
+
+        // El filtro de pares reconstruido sigue admitiendo los pares que solo tienen precios archivados
+        priceIndex.rebuildKeyFilter();
+        priceRepository.deleteById(current.getId());
+        assertFalse(priceService.findApplicablePrices(35455, 1, "2020-06-15T10:00:00").isEmpty());
+        assertEquals(0, priceArchiveService.archive().getRows());
+    }
+}
@@ -0,0 +1,104 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Con una ventana de 0 ms el límite se reajusta en cada consulta que termina.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:limiter",
+        "spring.jpa.show-sql=false",
+        "price.limiter.initial-limit=2",
+        "price.limiter.min-limit=1",
+        "price.limiter.window=0ms"
+})
+@AutoConfigureMockMvc
+public class PriceConcurrencyLimiterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PriceConcurrencyLimiter limiter;
+
+    @Test
+    public void rejectsLookupsAboveTheLimitWithARetryHint() throws Exception {
+        List<Long> admitted = new ArrayList<>();
+        for (int i = limiter.getLimit(); i > 0; i--) {
+            admitted.add(limiter.acquire());
+        }
+
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("date", "2020-06-14T10:00:00"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+
+        admitted.forEach(admittedAt -> limiter.release(admittedAt, false));
+        assertEquals(0, limiter.getInFlight());
+        mockMvc.perform(get("/api/prices/effective")
+                        .param("productId", "35455")
+                        .param("brandId", "1")
+                        .param("date", "2020-06-14T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(35.50));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * /resolve resuelve el lote mientras escribe la respuesta: el permiso sigue en uso hasta que termina el cuerpo.
+     */
+    @Test
+    public void resolveHoldsItsPermitUntilTheBodyIsWritten() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/prices/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":35455,\"brandId\":1,\"date\":\"2020-06-14T10:00:00\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, limiter.getInFlight());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("FOUND"));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void backsOffOnOverloadAndGrowsBackWhenSaturated() {
+        for (int i = 0; i < 50; i++) {
+            limiter.release(limiter.acquire(), true);
+        }
+        assertEquals(1, limiter.getLimit());
+        long admittedAt = limiter.acquire();
+        assertThrows(PriceOverloadedException.class, limiter::acquire);
+
+        // Sin sobrecarga y con todo el límite en uso, vuelve a subir. La consulta rechazada cuenta en la latencia
+        // de la admitida, así que la subida se comprueba con una consulta inmediata
+        limiter.release(admittedAt, false);
+        limiter.release(limiter.acquire(), false);
+        assertTrue(limiter.getLimit() > 1);
+    }
+}
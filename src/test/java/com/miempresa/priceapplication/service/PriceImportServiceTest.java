@@ -0,0 +1,51 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.model.PriceImportReport;
+import com.miempresa.priceapplication.model.PriceImportReport.ChunkResult;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:imports")
+public class PriceImportServiceTest {
+
+    @Autowired
+    private PriceImportService priceImportService;
+
+    @SpyBean
+    private PriceRepository priceRepository;
+
+    /**
+     * Simula un alta concurrente entre la consulta de existencia y el flush: la consulta no ve el precio de
+     * data.sql, la inserción del bloque choca con uk_price_product_brand_start y solo esa fila cuenta como duplicada.
+     */
+    @Test
+    public void constraintHitInChunkCountsOnlyThatRowAsDuplicate() {
+        doReturn(List.of()).when(priceRepository).findExistingKeys(any(), any(), any());
+        String csv = "productId,brandId,startDate,endDate,priceList,priority,price,currency\n"
+                + "35455,1,2020-06-14T00:00:00,2020-12-31T23:59:59,1,0,35.50,EUR\n"
+                + "35455,3,2020-06-14T00:00:00,2020-12-31T23:59:59,1,0,12.00,EUR\n"
+                + "35455,4,2020-06-14T00:00:00,2020-12-31T23:59:59,1,0,13.00,EUR\n";
+        long before = priceRepository.count();
+
+        PriceImportReport report = priceImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 10);
+
+        assertEquals(1, report.getChunks().size());
+        assertEquals(ChunkResult.Status.COMMITTED, report.getChunks().get(0).getStatus());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(0, report.getFailed());
+        assertEquals(before + 2, priceRepository.count());
+    }
+}
@@ -0,0 +1,48 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.repository.PriceIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "price.warmup.enabled=true",
+        "price.warmup.round-size=200",
+        "price.warmup.max-duration=2s",
+        "spring.datasource.url=jdbc:h2:mem:warmup"
+})
+public class PriceWarmupTest {
+
+    @Autowired
+    private PriceWarmup priceWarmup;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Test
+    public void preloadsAndWarmsBeforeReportingReady() {
+        PriceWarmup.Report report = priceWarmup.getReport();
+
+        assertNotNull(report);
+        assertEquals(1, report.preloadedKeys());
+        assertTrue(priceIndex.isCached(35455, 1));
+        assertTrue(report.warmupCalls() >= 200);
+        assertTrue(report.readyMillis() >= report.contextMillis());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        assertNotNull(meterRegistry.find("price.startup").tag("phase", "ready").timeGauge());
+        assertNotNull(meterRegistry.find("price.warmup.latency").timeGauge());
+    }
+}
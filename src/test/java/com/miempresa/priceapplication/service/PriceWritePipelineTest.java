@@ -0,0 +1,122 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.InvalidPriceRequestException;
+import com.miempresa.priceapplication.model.Price;
+import com.miempresa.priceapplication.repository.PriceRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Las 4000 altas registrarían cada una un INFO o un WARN de duplicado: solo se dejan los errores
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writes",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.miempresa.priceapplication.service.PriceService=ERROR"
+})
+public class PriceWritePipelineTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceWritePipelineTest.class);
+
+    private static final int THREADS = 16;
+
+    private static final int PRODUCTS = 200;
+
+    private static final int DATES = 5;
+
+    private static final int ATTEMPTS_PER_KEY = 4;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Test
+    public void concurrentCreatesInsertEachKeyExactlyOnce() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2031, 1, 1, 0, 0);
+        List<Price> attempts = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_KEY; attempt++) {
+            for (int product = 0; product < PRODUCTS; product++) {
+                for (int date = 0; date < DATES; date++) {
+                    LocalDateTime start = base.plusDays(date);
+                    attempts.add(new Price(null, 7, start, start.plusHours(12), 1, 900_000 + product, attempt,
+                            1000L + attempt * 100, "EUR"));
+                }
+            }
+        }
+        Collections.shuffle(attempts, new Random(42));
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Set<String> createdKeys = ConcurrentHashMap.newKeySet();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                startSignal.await();
+                int i;
+                while ((i = next.getAndIncrement()) < attempts.size()) {
+                    Price price = attempts.get(i);
+                    try {
+                        Price saved = priceService.createPrice(price);
+                        assertNotNull(saved.getId());
+                        assertTrue(ids.add(saved.getId()));
+                        assertTrue(createdKeys.add(saved.getProductId() + "/" + saved.getStartDate()),
+                                "Clave insertada dos veces: " + saved);
+                    } catch (InvalidPriceRequestException e) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startSignal.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        int keys = PRODUCTS * DATES;
+        assertEquals(keys, createdKeys.size());
+        assertEquals(attempts.size() - keys, duplicates.get());
+
+        Set<Integer> productIds = new HashSet<>();
+        for (int product = 0; product < PRODUCTS; product++) {
+            productIds.add(900_000 + product);
+        }
+        Set<LocalDateTime> startDates = new HashSet<>();
+        for (int date = 0; date < DATES; date++) {
+            startDates.add(base.plusDays(date));
+        }
+        assertEquals(keys, priceRepository.findExistingKeys(productIds, Set.of(7), startDates).size());
+
+        log.debug("Altas concurrentes: {} intentos desde {} hilos en {} ms, {} insertados",
+                attempts.size(), THREADS, elapsed / 1_000_000, keys);
+    }
+}
@@ -0,0 +1,53 @@
+package com.miempresa.priceapplication.service;
+
+import com.miempresa.priceapplication.exception.PriceServiceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive-service"
+})
+public class ReactivePriceServiceTest {
+
+    @Autowired
+    private ReactivePriceService reactivePriceService;
+
+    @SpyBean
+    private PriceExportService priceExportService;
+
+    /**
+     * Una exportación que falla después de escribir parte de las filas termina el flujo con el error, aunque
+     * la tubería ya tenga datos: la respuesta no puede darse por completa con un cuerpo truncado.
+     */
+    @Test
+    public void exportFailingHalfwayFailsTheStream() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(2);
+            output.write("id,brandId\n1,1\n".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            throw new PriceServiceException("Fallo simulado a mitad de la exportación");
+        }).when(priceExportService).export(any(), any(), any());
+
+        for (int i = 0; i < 20; i++) {
+            PriceServiceException error = assertThrows(PriceServiceException.class, () -> reactivePriceService
+                    .export(Optional.empty(), PriceExportService.Format.CSV)
+                    .doOnNext(DataBufferUtils::release)
+                    .blockLast(Duration.ofSeconds(5)));
+            assertEquals("Fallo simulado a mitad de la exportación", error.getMessage());
+        }
+    }
+}